@@ -1,11 +1,11 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public class Algorithms {
@@ -20,44 +20,150 @@ public class Algorithms {
      * @return A Map where each island's shortest distance from the start is stored.
      */
     public static Map<String, Integer> shortestPath(Map<String, List<DataLoader.Edge>> graph, Map<String, Integer> populations, String startIsland, double alpha) {
-        Map<String, Integer> shortestDistances = new HashMap<>(); // Stores shortest distances.
-        PriorityQueue<Main.Pair<String, Double>> queue = new PriorityQueue<>(Comparator.comparingDouble(pair -> pair.second)); // Min-heap to process nodes by shortest path.
-
-        // Initialize all distances as infinity, except for the start island.
-        graph.keySet().forEach(node -> shortestDistances.put(node, Integer.MAX_VALUE));
-        shortestDistances.put(startIsland, 0);
-        queue.add(new Main.Pair<>(startIsland, 0.0));
-
-        int maxPopulation = Collections.max(populations.values()); // Find the maximum population to normalize.
-
-        // Processing each island in the priority queue.
-        while (!queue.isEmpty()) {
-            Main.Pair<String, Double> current = queue.poll();
-            String currentNode = current.first;
-            double currentDistance = current.second;
-
-            // Skip if a shorter path to this node is already recorded.
-            if (currentDistance > shortestDistances.get(currentNode)) continue;
-
-            // Explore all neighbors of the current node.
-            for (DataLoader.Edge edge : graph.get(currentNode)) {
-                Integer population = populations.get(edge.destination);
-                if (population == null) {
-                    population = 1; // Default value if population data is missing.
-                }
-                // Calculate new distance based on travel time and population priority.
-                int populationWeight = population / maxPopulation;
-                double newDistance = currentDistance + edge.travelTime - alpha * populationWeight;
-
-                // If this new path is shorter, update and add to the queue.
-                if (newDistance < shortestDistances.get(edge.destination)) {
-                    shortestDistances.put(edge.destination, (int) newDistance);
-                    queue.add(new Main.Pair<>(edge.destination, newDistance));
-                }
-            }
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        int[] distances = shortestPath(compact, populations, compact.id(startIsland), alpha);
+        return toDistanceMap(compact, distances);
+    }
+
+    /**
+     * Modified Dijkstra’s algorithm over the compact graph, factoring in population.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param startIsland The id of the starting island.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return An array indexed by island id holding the shortest distance from the start,
+     *         or Integer.MAX_VALUE for islands that cannot be reached.
+     */
+    public static int[] shortestPath(CompactGraph graph, Map<String, Integer> populations, int startIsland, double alpha) {
+        if (alpha == 0 && DeltaStepping.preferredFor(graph)) {
+            return parallelShortestPath(graph, startIsland);
         }
+        long start = Metrics.start();
+        ShortestPathEngine engine = new ShortestPathEngine(graph).withPopulations(populations);
+        engine.run(startIsland, alpha);
+        int[] distances = engine.copyDistances(new int[graph.nodeCount()]);
+        Metrics.stop(Metrics.SHORTEST_PATH, start);
+        return distances;
+    }
 
-        return shortestDistances; // Return the map of shortest distances.
+    /**
+     * Modified Dijkstra’s algorithm over the compact graph, reading populations from the attribute columns.
+     *
+     * @param graph The compact island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(CompactGraph) the graph's registry}.
+     * @param startIsland The id of the starting island.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return An array indexed by island id holding the shortest distance from the start,
+     *         or Integer.MAX_VALUE for islands that cannot be reached.
+     */
+    public static int[] shortestPath(CompactGraph graph, IslandAttributes attributes, int startIsland, double alpha) {
+        if (alpha == 0 && DeltaStepping.preferredFor(graph)) {
+            return parallelShortestPath(graph, startIsland);
+        }
+        long start = Metrics.start();
+        ShortestPathEngine engine = new ShortestPathEngine(graph).withPopulationWeights(populationWeights(attributes, graph.nodeCount()));
+        engine.run(startIsland, alpha);
+        int[] distances = engine.copyDistances(new int[graph.nodeCount()]);
+        Metrics.stop(Metrics.SHORTEST_PATH, start);
+        return distances;
+    }
+
+    /**
+     * Shortest travel times from the start island by parallel delta-stepping, which {@link #shortestPath}
+     * uses for alpha 0 on graphs of at least {@link DeltaStepping#MIN_ISLANDS} islands. With alpha 0 the
+     * cost is the bare travel time, so the distances are identical to the sequential search's.
+     *
+     * @param graph The compact island graph, with no negative travel times.
+     * @param startIsland The id of the starting island.
+     * @return An array indexed by island id holding the shortest travel time from the start,
+     *         or Integer.MAX_VALUE for islands that cannot be reached.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public static int[] parallelShortestPath(CompactGraph graph, int startIsland) {
+        long start = Metrics.start();
+        DeltaStepping search = new DeltaStepping(graph);
+        search.run(startIsland);
+        int[] distances = search.copyDistances(new int[graph.nodeCount()]);
+        Metrics.stop(Metrics.SHORTEST_PATH, start);
+        return distances;
+    }
+
+    /**
+     * Calculates shortest paths from several start islands at once, spreading the searches across cores.
+     *
+     * @param graph The island graph.
+     * @param populations A Map with island populations.
+     * @param startIslands The starting points for calculating shortest paths.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return A Map from each start island to the Map of shortest distances from it.
+     */
+    public static Map<String, Map<String, Integer>> shortestPaths(Map<String, List<DataLoader.Edge>> graph, Map<String, Integer> populations, Collection<String> startIslands, double alpha) {
+        BatchShortestPaths batch = new BatchShortestPaths(CompactGraph.fromMap(graph), populations);
+        long start = Metrics.start();
+        Map<String, Map<String, Integer>> distances = batch.shortestPaths(startIslands, alpha);
+        Metrics.stop(Metrics.SHORTEST_PATHS, start);
+        return distances;
+    }
+
+    /**
+     * Finds the quickest route between two islands by travel time, searching from both ends.
+     *
+     * @param graph The island graph.
+     * @param startIsland The island the route starts from.
+     * @param targetIsland The island the route ends at.
+     * @return A List representing the sequence of islands on the route, empty if the target cannot be reached.
+     */
+    public static List<String> shortestRoute(Map<String, List<DataLoader.Edge>> graph, String startIsland, String targetIsland) {
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        long start = Metrics.start();
+        List<String> route = new PointToPointRouter(compact).bidirectional(compact.id(startIsland), compact.id(targetIsland)).islandNames(compact);
+        Metrics.stop(Metrics.SHORTEST_ROUTE, start);
+        return route;
+    }
+
+    /**
+     * Resolves the population weight of every island once, so the search does not look it up per edge.
+     * The weight is the island's population divided by the largest population (integer division),
+     * with a population of 1 assumed for islands missing from the populations map.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @return An array indexed by island id holding each island's population weight.
+     */
+    static int[] populationWeights(CompactGraph graph, Map<String, Integer> populations) {
+        return populationWeights(IslandAttributes.fromMaps(IslandRegistry.of(graph), populations, null, null, null), graph.nodeCount());
+    }
+
+    /**
+     * Resolves population weights from the population column, as {@link #populationWeights(CompactGraph, Map)} does.
+     *
+     * @param attributes Island attributes keyed by the graph's registry.
+     * @param islandCount The number of islands in the graph.
+     * @return An array indexed by island id holding each island's population weight.
+     * @throws NoSuchElementException if no island has a population.
+     */
+    static int[] populationWeights(IslandAttributes attributes, int islandCount) {
+        if (attributes.populationCount() == 0) {
+            throw new NoSuchElementException("No island has a population");
+        }
+        int maxPopulation = attributes.maxPopulation(); // Find the maximum population to normalize.
+        int[] weights = new int[islandCount];
+        for (int island = 0; island < weights.length; island++) {
+            // Default to 1 if population data is missing.
+            int population = attributes.hasPopulation(island) ? attributes.population(island) : 1;
+            weights[island] = population / maxPopulation;
+        }
+        return weights;
+    }
+
+    // Converts an id-indexed distance array back into a Map keyed by island name.
+    static Map<String, Integer> toDistanceMap(CompactGraph graph, int[] distances) {
+        Map<String, Integer> shortestDistances = new HashMap<>();
+        for (int island = 0; island < distances.length; island++) {
+            shortestDistances.put(graph.name(island), distances[island]);
+        }
+        return shortestDistances;
     }
 
     /**
@@ -71,38 +177,164 @@ public class Algorithms {
      * @return A List representing the sequence of islands in the leader’s route.
      */
     public static List<String> leaderRoutePlan(Map<String, List<DataLoader.Edge>> graph, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, Set<String>> skills, String homeIsland) {
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        return leaderRoutePlan(compact, populations, recency, skills, compact.id(homeIsland));
+    }
+
+    /**
+     * Finds an efficient route for a leader to share knowledge over the compact graph.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param skills A Map with skill sets of each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A List representing the sequence of islands in the leader’s route.
+     */
+    public static List<String> leaderRoutePlan(CompactGraph graph, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, Set<String>> skills, int homeIsland) {
+        // Each row is read once, so search it straight into the walk's scratch row instead of caching it.
+        ShortestPathEngine engine = new ShortestPathEngine(graph).withPopulations(populations);
+        IslandAttributes attributes = IslandAttributes.fromMaps(IslandRegistry.of(graph), populations, recency, null, null);
+        return collect(new LeaderRouteCursor(new EngineRows(engine, 1.5), attributes, recency, homeIsland));
+    }
+
+    /**
+     * Finds an efficient route for a leader to share knowledge, reading distances from an oracle.
+     * Reusing one oracle across plans from different home islands avoids recomputing the same rows.
+     *
+     * @param distances A DistanceOracle built with alpha 1.5 over the island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param skills A Map with skill sets of each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A List representing the sequence of islands in the leader’s route.
+     */
+    public static List<String> leaderRoutePlan(DistanceOracle distances, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, Set<String>> skills, int homeIsland) {
+        return collect(leaderRouteEvents(distances, populations, recency, homeIsland));
+    }
+
+    /**
+     * Finds an efficient route for a leader to share knowledge, reading populations and recency from the
+     * attribute columns. Recency is updated there for every island visited.
+     *
+     * @param distances A DistanceOracle built with alpha 1.5 over the island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(CompactGraph) the graph's registry}.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A List representing the sequence of islands in the leader’s route.
+     * @throws IllegalArgumentException if the registry was not made from the oracle's graph.
+     */
+    public static List<String> leaderRoutePlan(DistanceOracle distances, IslandAttributes attributes, int homeIsland) {
+        return collect(leaderRouteEvents(distances, attributes, homeIsland));
+    }
+
+    /**
+     * Finds an efficient route for a leader to share knowledge, reading distances from a stored matrix.
+     * Rows are read straight from the mapped file, so planning needs no graph and no searches.
+     *
+     * @param distances A DistanceMatrixStore computed with alpha 1.5 over the island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param skills A Map with skill sets of each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A List representing the sequence of islands in the leader’s route.
+     */
+    public static List<String> leaderRoutePlan(DistanceMatrixStore distances, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, Set<String>> skills, int homeIsland) {
+        return collect(leaderRouteEvents(distances, populations, recency, homeIsland));
+    }
+
+    // Collects a leader's route into a list of island names, timed as leaderRoutePlan.
+    private static List<String> collect(RouteCursor cursor) {
+        long start = Metrics.start();
         List<String> route = new ArrayList<>(); // Stores the route sequence.
-        Set<String> visited = new HashSet<>();  // Tracks visited islands.
-        String currentIsland = homeIsland;      // Start from home island.
+        cursor.drainTo(RouteSink.collect(route));
+        Metrics.stop(Metrics.LEADER_ROUTE_PLAN, start);
+        return route;
+    }
 
-        // Continue until all islands have been visited.
-        while (visited.size() < populations.size()) {
-            visited.add(currentIsland);   // Mark the current island as visited.
-            route.add(currentIsland);     // Add it to the route.
-            recency.put(currentIsland, recency.getOrDefault(currentIsland, 0) + 1); // Update recency.
+    /**
+     * Plans the leader's route as {@link #leaderRoutePlan(DistanceOracle, Map, Map, Map, int)} does, one stop at a
+     * time. Each island's recency is updated when its stop is emitted, so a route stopped early updates only the
+     * islands it reached.
+     *
+     * @param distances A DistanceOracle built with alpha 1.5 over the island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A cursor emitting a STOP event for each island in the leader's route.
+     */
+    public static RouteCursor leaderRouteEvents(DistanceOracle distances, Map<String, Integer> populations, Map<String, Integer> recency, int homeIsland) {
+        IslandAttributes attributes = IslandAttributes.fromMaps(IslandRegistry.of(distances.graph()), populations, recency, null, null);
+        return new LeaderRouteCursor(distances, attributes, recency, homeIsland);
+    }
 
-            // Get shortest paths from the current island
-            Map<String, Integer> distances = shortestPath(graph, populations, currentIsland, 1.5);
-            String nextIsland = null;
-            double minScore = Double.MAX_VALUE; // Track the island with minimum score.
+    /**
+     * Plans the leader's route one stop at a time, reading populations and recency from the attribute columns.
+     *
+     * @param distances A DistanceOracle built with alpha 1.5 over the island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(CompactGraph) the graph's registry}.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A cursor emitting a STOP event for each island in the leader's route.
+     * @throws IllegalArgumentException if the registry was not made from the oracle's graph.
+     */
+    public static RouteCursor leaderRouteEvents(DistanceOracle distances, IslandAttributes attributes, int homeIsland) {
+        return new LeaderRouteCursor(distances, attributes, null, homeIsland);
+    }
 
-            // Find the next island to visit based on population and recency priority.
-            for (String island : populations.keySet()) {
-                if (!visited.contains(island)) {
-                    int recencyPriority = recency.getOrDefault(island, 0);
-                    double score = distances.get(island) * (1 + recencyPriority / 10.0);
-                    if (score < minScore) {
-                        minScore = score;
-                        nextIsland = island;
-                    }
-                }
-            }
+    /**
+     * Plans the leader's route one stop at a time, reading distances from a stored matrix.
+     *
+     * @param distances A DistanceMatrixStore computed with alpha 1.5 over the island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A cursor emitting a STOP event for each island in the leader's route.
+     */
+    public static RouteCursor leaderRouteEvents(DistanceMatrixStore distances, Map<String, Integer> populations, Map<String, Integer> recency, int homeIsland) {
+        IslandAttributes attributes = IslandAttributes.fromMaps(IslandRegistry.of(distances), populations, recency, null, null);
+        return new LeaderRouteCursor(distances, attributes, recency, homeIsland);
+    }
 
-            // If no next island is found, break out of the loop.
-            if (nextIsland == null) break;
-            currentIsland = nextIsland; // Move to the next island.
-        }
+    /**
+     * Plans the leader's route one stop at a time from a stored matrix, reading populations and recency from
+     * the attribute columns.
+     *
+     * @param distances A DistanceMatrixStore computed with alpha 1.5 over the island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(DistanceMatrixStore) the matrix's registry}.
+     * @param homeIsland The id of the starting island for the leader.
+     * @return A cursor emitting a STOP event for each island in the leader's route.
+     * @throws IllegalArgumentException if the registry was not made from the matrix.
+     */
+    public static RouteCursor leaderRouteEvents(DistanceMatrixStore distances, IslandAttributes attributes, int homeIsland) {
+        return new LeaderRouteCursor(distances, attributes, null, homeIsland);
+    }
 
+    /**
+     * Plans the leader's route with {@link TourPlanner} instead of the greedy walk: the same recency-weighted
+     * distances, improved by local search and parallel restarts. Recency is updated for every island visited,
+     * as in {@link #leaderRoutePlan(DistanceOracle, Map, Map, Map, int)}.
+     *
+     * @param distances A DistanceOracle built with alpha 1.5 over the island graph.
+     * @param populations A Map with island populations.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param skills A Map with skill sets of each island.
+     * @param homeIsland The id of the starting island for the leader.
+     * @param timeBudgetMillis The time after which no new restart starts.
+     * @return A List representing the sequence of islands in the leader’s route.
+     */
+    public static List<String> leaderRouteTour(DistanceOracle distances, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, Set<String>> skills, int homeIsland, long timeBudgetMillis) {
+        long start = Metrics.start();
+        CompactGraph graph = distances.graph();
+        int[] islands = populations.keySet().stream().mapToInt(graph::id).filter(id -> id >= 0).toArray();
+        double[] weights = TourPlanner.recencyWeights(graph, recency);
+        int[] tour = new TourPlanner(distances).withTimeBudget(timeBudgetMillis).plan(homeIsland, islands, weights);
+
+        List<String> route = new ArrayList<>(tour.length);
+        for (int island : tour) {
+            String name = graph.name(island);
+            route.add(name);
+            recency.put(name, recency.getOrDefault(name, 0) + 1);
+        }
+        Metrics.stop(Metrics.LEADER_ROUTE_TOUR, start);
         return route;
     }
 
@@ -116,141 +348,406 @@ public class Algorithms {
      * @return A list of strings detailing the route taken by the canoes, including return trips.
      */
     public static List<String> distributeNaturalResource(Map<String, List<DataLoader.Edge>> graph, Map<String, Map<String, Integer>> resources, String source, int canoes) {
-        
-        // Initializes data structures
-        PriorityQueue<IslandState> queue = new PriorityQueue<>(Comparator.comparingInt(s -> s.time));   // Queue where shortest travel time is prioritized
-        Map<String, Integer> shortestPaths = new HashMap<>();                                           // Store shortest path time to each island
-        Map<String, Boolean> visited = new HashMap<>();
-        Map<String, Integer> resourceDistribution = new HashMap<>();                                                 // Track visited islands
-        List<String> route = new ArrayList<>();                                                         // Store the route sequence.
-        
-        // Initializes variables
-        int totalTime = 0;              // Total time taken to distribute the resource
-        int remainingCanoes = canoes;   // Number of canoes remaining before returning to the source
-        
-        for (String island : graph.keySet()) { 
-           shortestPaths.put(island, Integer.MAX_VALUE); 
-           visited.put(island, false); 
-           resourceDistribution.put(island, 0); 
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        return distributeNaturalResource(compact, resources, compact.id(source), canoes);
+    }
+
+    /**
+     * Distributes an island's natural resource to all other islands over the compact graph.
+     *
+     * @param graph The compact island graph.
+     * @param resources A Map with the type and quantity of an island's natural resource.
+     * @param source The id of the starting island whose resource will be distributed.
+     * @param canoes The number of canoes that will distribute the resource.
+     * @return A list of strings detailing the route taken by the canoes, including return trips.
+     */
+    public static List<String> distributeNaturalResource(CompactGraph graph, Map<String, Map<String, Integer>> resources, int source, int canoes) {
+        long start = Metrics.start();
+        List<String> route = new ArrayList<>();     // Store the route sequence.
+        naturalResourceEvents(graph, resources, source, canoes).drainTo(event -> {
+            if (event.type() == RouteEvent.Type.TOTAL_TIME) {
+                System.out.println(event.text());   // Outputs total time for distribution
+            } else {
+                route.add(event.text());
+            }
+            return true;
+        });
+        Metrics.stop(Metrics.DISTRIBUTE_NATURAL_RESOURCE, start);
+        return route;
+    }
+
+    /**
+     * Distributes an island's natural resource to all other islands, one step at a time. The search advances
+     * only as far as the events taken so far require.
+     *
+     * @param graph The compact island graph.
+     * @param resources A Map with the type and quantity of an island's natural resource.
+     * @param source The id of the starting island whose resource will be distributed.
+     * @param canoes The number of canoes that will distribute the resource.
+     * @return A cursor emitting VISIT and RELOAD events, then the TOTAL_TIME of the distribution.
+     */
+    public static RouteCursor naturalResourceEvents(CompactGraph graph, Map<String, Map<String, Integer>> resources, int source, int canoes) {
+        return new NaturalResourceCursor(graph, source, canoes);
+    }
+
+    // Method to distribute a resource from the start island to other islands
+    public static List<String> distributeResource(Map<String, List<DataLoader.Edge>> graph, Map<String, Map<String, Integer>> resources, String startIsland, String resource, int numCanoes, int canoeCapacity) {
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        return distributeResource(compact, resources, compact.id(startIsland), resource, numCanoes, canoeCapacity);
+    }
+
+    // Method to distribute a resource from the start island (by id) to other islands of the compact graph
+    public static List<String> distributeResource(CompactGraph graph, Map<String, Map<String, Integer>> resources, int startIsland, String resource, int numCanoes, int canoeCapacity) {
+        long start = Metrics.start();
+        List<String> distributionRoute = new ArrayList<>();
+        resourceEvents(graph, resources, startIsland, resource, numCanoes, canoeCapacity).drainTo(event -> {
+            if (event.type() == RouteEvent.Type.MISSING) {
+                System.out.println(event.text());
+            } else {
+                distributionRoute.add(event.text());
+            }
+            return true;
+        });
+        Metrics.stop(Metrics.DISTRIBUTE_RESOURCE, start);
+        return distributionRoute;
+    }
+
+    /**
+     * Distributes a resource from the start island to other islands, one delivery at a time.
+     *
+     * @param graph The compact island graph.
+     * @param resources A Map with the type and quantity of an island's natural resource.
+     * @param startIsland The id of the starting island holding the resource.
+     * @param resource The resource to be distributed.
+     * @param numCanoes The number of canoes in the fleet.
+     * @param canoeCapacity The units one canoe carries per trip.
+     * @return A cursor emitting a DELIVER event per delivery, or a single MISSING event if the start island
+     *         does not hold the resource.
+     */
+    public static RouteCursor resourceEvents(CompactGraph graph, Map<String, Map<String, Integer>> resources, int startIsland, String resource, int numCanoes, int canoeCapacity) {
+        IslandAttributes attributes = IslandAttributes.fromMaps(IslandRegistry.of(graph), null, null, null, resources);
+        return new ResourceCursor(graph, attributes, startIsland, resource, canoeCapacity);
+    }
+
+    /**
+     * Distributes a resource from the start island one delivery at a time, reading its stock from the
+     * attribute columns.
+     *
+     * @param graph The compact island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(CompactGraph) the graph's registry}.
+     * @param startIsland The id of the starting island holding the resource.
+     * @param resource The resource to be distributed.
+     * @param numCanoes The number of canoes in the fleet.
+     * @param canoeCapacity The units one canoe carries per trip.
+     * @return A cursor emitting a DELIVER event per delivery, or a single MISSING event if the start island
+     *         does not hold the resource.
+     * @throws IllegalArgumentException if the registry was not made from the graph.
+     */
+    public static RouteCursor resourceEvents(CompactGraph graph, IslandAttributes attributes, int startIsland, String resource, int numCanoes, int canoeCapacity) {
+        if (attributes.registry().graphIslands() != graph.nodeCount()) {
+            throw new IllegalArgumentException("Attributes are keyed by a registry of " + attributes.registry().graphIslands()
+                    + " islands, but the graph has " + graph.nodeCount());
+        }
+        return new ResourceCursor(graph, attributes, startIsland, resource, canoeCapacity);
+    }
+
+    /**
+     * Plans a fleet-scale distribution of a resource from the start island, meeting each island's demand
+     * with capacitated canoe trips that return to the start island to reload.
+     *
+     * @param graph The island graph.
+     * @param resources A Map with the type and quantity of an island's natural resource.
+     * @param startIsland The starting island holding the resource.
+     * @param resource The resource to be distributed.
+     * @param demands A Map from island name to the units of the resource it needs.
+     * @param numCanoes The number of canoes in the fleet.
+     * @param canoeCapacity The units one canoe carries per trip.
+     * @return A FleetPlan with every canoe's trips, loads and times.
+     */
+    public static FleetPlan planResourceDistribution(Map<String, List<DataLoader.Edge>> graph, Map<String, Map<String, Integer>> resources, String startIsland, String resource, Map<String, Integer> demands, int numCanoes, int canoeCapacity) {
+        CompactGraph compact = CompactGraph.fromMap(graph);
+        return planResourceDistribution(compact, resources, compact.id(startIsland), resource, demands, numCanoes, canoeCapacity);
+    }
+
+    /**
+     * Plans a fleet-scale distribution of a resource over the compact graph. If the start island does not
+     * hold the resource, nothing is delivered and the whole demand is reported as undelivered.
+     *
+     * @param graph The compact island graph.
+     * @param resources A Map with the type and quantity of an island's natural resource.
+     * @param startIsland The id of the starting island holding the resource.
+     * @param resource The resource to be distributed.
+     * @param demands A Map from island name to the units of the resource it needs.
+     * @param numCanoes The number of canoes in the fleet.
+     * @param canoeCapacity The units one canoe carries per trip.
+     * @return A FleetPlan with every canoe's trips, loads and times.
+     */
+    public static FleetPlan planResourceDistribution(CompactGraph graph, Map<String, Map<String, Integer>> resources, int startIsland, String resource, Map<String, Integer> demands, int numCanoes, int canoeCapacity) {
+        long start = Metrics.start();
+        Map<String, Integer> stock = resources.getOrDefault(graph.name(startIsland), Collections.emptyMap());
+        int supply = stock.getOrDefault(resource, 0);
+        FleetSolver solver = new FleetSolver(graph);
+        FleetPlan plan = solver.solve(startIsland, solver.demandArray(demands), supply, numCanoes, canoeCapacity);
+        Metrics.stop(Metrics.PLAN_RESOURCE_DISTRIBUTION, start);
+        return plan;
+    }
+
+    /**
+     * Rows searched on demand by one engine and never kept, for a walk that reads each row once.
+     */
+    private static final class EngineRows implements DistanceMatrix {
+        private final ShortestPathEngine engine;
+        private final double alpha;
+
+        EngineRows(ShortestPathEngine engine, double alpha) {
+            this.engine = engine;
+            this.alpha = alpha;
         }
-        
-        // Adds source island to queue and sets shortest path time to 0
-        queue.add(new IslandState(source, 0));
-        shortestPaths.put(source, 0);
-
-        // Continues distributing resource until all islands are visited
-        while (!queue.isEmpty()) {
-            // Retrieves next island to visit with the shortest travel time
-            IslandState current = queue.poll();
-            String currentIsland = current.island;
-
-            // Skips the island if 'true' is returned, since it has already been visited
-            if (visited.getOrDefault(currentIsland, false)) {
-                continue;
+
+        @Override
+        public int size() {
+            return engine.graph().nodeCount();
+        }
+
+        @Override
+        public int distance(int from, int to) {
+            search(from);
+            return engine.distance(to);
+        }
+
+        @Override
+        public int[] copyRow(int from, int[] into) {
+            search(from);
+            return engine.copyDistances(into);
+        }
+
+        // Searches from the island unless the engine's last search already did.
+        private void search(int from) {
+            if (engine.source() != from) {
+                engine.run(from, alpha);
             }
+        }
+    }
+
+    /**
+     * The leader's greedy walk: from each island, on to the unvisited island with the lowest
+     * recency-weighted distance.
+     */
+    private static final class LeaderRouteCursor extends RouteCursor {
+        private final DistanceMatrix distances;
+        private final IslandAttributes attributes;
+        private final IslandRegistry registry;
+        private final Map<String, Integer> recencyMap;         // Caller's recency map kept in step, or null.
+        private final int[] row;
+        private final boolean[] visited;                        // Tracks visited islands.
+        private int visitedCount;
+        private int currentIsland;                              // Next island to stop at, or -1 once the route ends.
+
+        LeaderRouteCursor(DistanceMatrix distances, IslandAttributes attributes, Map<String, Integer> recencyMap, int homeIsland) {
+            if (attributes.registry().graphIslands() != distances.size()) {
+                throw new IllegalArgumentException("Attributes are keyed by a registry of " + attributes.registry().graphIslands()
+                        + " islands, but the distances cover " + distances.size());
+            }
+            this.distances = distances;
+            this.attributes = attributes;
+            this.registry = attributes.registry();
+            this.recencyMap = recencyMap;
+            this.row = new int[distances.size()];
+            this.visited = new boolean[distances.size()];
+            this.currentIsland = homeIsland;    // Start from home island.
+        }
 
-            // Visits the island, updates the route and total time
-            visited.put(currentIsland, true);
-            route.add("Visited " + currentIsland);
-            totalTime += current.time;
-            
-
-            // Decrements the number of stocked canoes on each visit to an island
-            remainingCanoes--;
-            // Returns to the source island to reload canoes if all canoes are used up
-            if (remainingCanoes == 0) {
-                route.add("Returning to " + source + " to reload");
-                totalTime += shortestPaths.get(currentIsland);                  // Adds return time to total time   
-                queue.add(new IslandState(source, shortestPaths.get(source)));  // Adds source island back to queue
-                remainingCanoes = canoes;                                       // Resets the number of canoes
-                continue;                                                       // Begins distributing resource again
+        @Override
+        protected RouteEvent advance() {
+            // Continue until all islands have been visited.
+            if (currentIsland < 0 || visitedCount >= attributes.populationCount()) {
+                return null;
             }
+            int stop = currentIsland;
+            String currentName = registry.name(stop);
+            visited[stop] = true;   // Mark the current island as visited.
+            visitedCount++;
+            int visits = attributes.incrementRecency(stop); // Update recency.
+            if (recencyMap != null) {
+                recencyMap.put(currentName, visits);
+            }
+
+            // Get shortest paths from the current island
+            distances.copyRow(stop, row);
+            int nextIsland = -1;
+            double minScore = Double.MAX_VALUE; // Track the island with minimum score.
 
-            // Processes each island directly connected to the current island
-            for (DataLoader.Edge edge : graph.getOrDefault(currentIsland, new ArrayList<>())) {
-                // Calculates cumulative travel time to reach the connected island, adding the time it takes to get from
-                // the current island to the connected island and the time it takes to get from the source to the connected island
-                int newTime = current.time + edge.travelTime;
-                
-                // Checks if the new time is shorter than the current shortest path time to the connected island
-                if (newTime < shortestPaths.getOrDefault(edge.destination, Integer.MAX_VALUE)) {
-                    shortestPaths.put(edge.destination, newTime);               // Updates the shortest path time to the connected island
-                    queue.add(new IslandState(edge.destination, newTime));      // Adds the connected island to the queue with the new time
+            // Find the next island to visit based on population and recency priority.
+            // Islands interned beyond the distances have no lanes and are never candidates.
+            for (int i = 0; i < attributes.populationCount(); i++) {
+                int id = attributes.populatedIsland(i);
+                if (id < row.length && !visited[id]) {
+                    double score = row[id] * (1 + attributes.recency(id) / 10.0);
+                    if (score < minScore) {
+                        minScore = score;
+                        nextIsland = id;
+                    }
                 }
             }
+
+            // If no next island is found, the route ends after this stop.
+            currentIsland = nextIsland; // Move to the next island.
+            return RouteEvent.stop(stop, currentName);
         }
+    }
 
-        // Outputs total time for distribution and returns the route taken
-        System.out.println("Total path timelength: " + totalTime);
-        return route;
+    /**
+     * Dijkstra from the source, visiting islands in order of travel time and sending the canoes back
+     * to reload each time they are all used.
+     */
+    private static final class NaturalResourceCursor extends RouteCursor {
+        private final CompactGraph graph;
+        private final int source;
+        private final String sourceName;
+        private final int canoes;
+        private final IntegerQueue queue;       // Queue where shortest travel time is prioritized
+        private final int[] shortestPaths;      // Store shortest path time to each island
+        private final boolean[] visited;        // Track visited islands
+        private RouteEvent pending;             // Reload that follows the visit just returned
+        private boolean done;
+
+        // Initializes variables
+        private int totalTime = 0;              // Total time taken to distribute the resource
+        private int remainingCanoes;            // Number of canoes remaining before returning to the source
+        private int settled = 0;                // Search counters, published to Metrics at the end
+        private int relaxed = 0;
+        private int pushes = 1;
+        private int stale = 0;
+
+        NaturalResourceCursor(CompactGraph graph, int source, int canoes) {
+            this.graph = graph;
+            this.source = source;
+            this.sourceName = graph.name(source);
+            this.canoes = canoes;
+            this.remainingCanoes = canoes;
+            this.queue = IntegerQueue.forGraph(graph);
+            this.shortestPaths = new int[graph.nodeCount()];
+            this.visited = new boolean[graph.nodeCount()];
+            Arrays.fill(shortestPaths, Integer.MAX_VALUE);
+
+            // Adds source island to queue and sets shortest path time to 0
+            queue.push(source, 0);
+            shortestPaths[source] = 0;
+        }
+
+        @Override
+        protected RouteEvent advance() {
+            if (pending != null) {
+                RouteEvent event = pending;
+                pending = null;
+                return event;
+            }
+            // Continues distributing resource until all islands are visited
+            while (!queue.isEmpty()) {
+                // Retrieves next island to visit with the shortest travel time
+                int currentIsland = queue.pop();
+                int currentTime = queue.lastKey();
+
+                // Skips the island since it has already been visited
+                if (visited[currentIsland]) {
+                    stale++;
+                    continue;
+                }
 
+                // Visits the island, updates the route and total time
+                visited[currentIsland] = true;
+                settled++;
+                RouteEvent visit = RouteEvent.visit(currentIsland, graph.name(currentIsland));
+                totalTime += currentTime;
+
+                // Decrements the number of stocked canoes on each visit to an island
+                remainingCanoes--;
+                // Returns to the source island to reload canoes if all canoes are used up
+                if (remainingCanoes == 0) {
+                    pending = RouteEvent.reload(source, sourceName);
+                    totalTime += shortestPaths[currentIsland];                      // Adds return time to total time
+                                                                                    // The source was visited first, so it is not queued again
+                    remainingCanoes = canoes;                                       // Resets the number of canoes
+                    return visit;                                                   // Begins distributing resource again
+                }
+
+                // Processes each island directly connected to the current island
+                for (int edge = graph.edgeStart(currentIsland); edge < graph.edgeEnd(currentIsland); edge++) {
+                    // Calculates cumulative travel time to reach the connected island, adding the time it takes to get from
+                    // the current island to the connected island and the time it takes to get from the source to the connected island
+                    int destination = graph.target(edge);
+                    int newTime = currentTime + graph.travelTime(edge);
+                    relaxed++;
+
+                    // Checks if the new time is shorter than the current shortest path time to the connected island
+                    if (newTime < shortestPaths[destination]) {
+                        shortestPaths[destination] = newTime;                       // Updates the shortest path time to the connected island
+                        queue.push(destination, newTime);                           // Adds the connected island to the queue with the new time
+                        pushes++;
+                    }
+                }
+                return visit;
+            }
+            if (done) {
+                return null;
+            }
+            done = true;
+            if (Metrics.ENABLED) {
+                Metrics.SEARCHES.increment();
+                Metrics.NODES_SETTLED.add(settled);
+                Metrics.EDGES_RELAXED.add(relaxed);
+                Metrics.HEAP_PUSHES.add(pushes);
+                Metrics.STALE_POPS.add(stale);
+            }
+            return RouteEvent.totalTime(totalTime);
+        }
     }
-   // Method to distribute a resource from the start island to other islands 
-   public static List<String> distributeResource(Map<String, List<DataLoader.Edge>> graph, Map<String, Map<String, Integer>> resources, String startIsland, String resource, int numCanoes, int canoeCapacity) { 
-   PriorityQueue<DataLoader.Edge> queue = new PriorityQueue<>(Comparator.comparingInt(e -> e.travelTime)); 
-   Map<String, Integer> distances = new HashMap<>(); 
-   Map<String, Boolean> visited = new HashMap<>(); 
-   Map<String, Integer> resourceDistribution = new HashMap<>(); 
-   List<String> distributionRoute = new ArrayList<>(); 
-   
-   // Initialize distances and visited maps 
-   for(String island : graph.keySet()) { 
-      distances.put(island, Integer.MAX_VALUE); visited.put(island, false); 
-      resourceDistribution.put(island, 0); 
-   } 
-   
-   // Set the distance to the start island to 0 and add it to the queue 
-   distances.put(startIsland, 0); 
-   queue.add(new DataLoader.Edge(startIsland, 0)); 
-   
-   // Dijkstra's algorithm to find the shortest paths from the start island 
-   while (!queue.isEmpty()) { 
-      DataLoader.Edge current = queue.poll(); 
-      String currentIsland = current.destination; 
-      
-      if (visited.get(currentIsland)) continue; 
-         visited.put(currentIsland, true); 
-         
-         for (DataLoader.Edge edge : graph.get(currentIsland)) { 
-            String neighbor = edge.destination; 
-            int newDist = distances.get(currentIsland) + edge.travelTime; 
-            
-            if (newDist < distances.get(neighbor)) { 
-               distances.put(neighbor, newDist); 
-               queue.add(new DataLoader.Edge(neighbor, newDist)); 
-            } 
-         } 
-      } 
-      
-      // Check if the resource is available on the start island 
-      if (!resources.containsKey(startIsland) || !resources.get(startIsland).containsKey(resource)) { 
-         System.out.println("\nResource not found on the start island."); 
-         return distributionRoute; 
-      } 
-      
-      // Distribute the resource to other islands 
-      int remainingResource = resources.get(startIsland).get(resource); 
-      
-      for (String island : distances.keySet()) { 
-         
-         if (!island.equals(startIsland) && remainingResource > 0) { 
-            int neededResource = Math.min(canoeCapacity, remainingResource); 
-            resourceDistribution.put(island, neededResource); 
-            remainingResource -= neededResource; 
-            distributionRoute.add("Deliver " + neededResource + " units of " + resource + " to " + island); 
-         } 
-      } 
-      return distributionRoute; 
-   }
-    
-    // Helper class stores the state of the island with name and travel time
-    private static class IslandState {
-        String island;
-        int time;
-
-        IslandState(String island, int time) {
-            this.island = island;
-            this.time = time;
+
+    /**
+     * Hands out the start island's stock a canoe load at a time, in island id order. Deliveries do not
+     * depend on travel times, so no search is run.
+     */
+    private static final class ResourceCursor extends RouteCursor {
+        private final CompactGraph graph;
+        private final IslandAttributes attributes;
+        private final int startIsland;
+        private final String resource;
+        private final int canoeCapacity;
+        private int island = -1;                // Next island to deliver to, or -1 before the first event.
+        private long remainingResource;
+
+        ResourceCursor(CompactGraph graph, IslandAttributes attributes, int startIsland, String resource, int canoeCapacity) {
+            this.graph = graph;
+            this.attributes = attributes;
+            this.startIsland = startIsland;
+            this.resource = resource;
+            this.canoeCapacity = canoeCapacity;
+        }
+
+        @Override
+        protected RouteEvent advance() {
+            if (island < 0) {
+                island = 0;
+                String startName = graph.name(startIsland);
+
+                // Check if the resource is available on the start island
+                if (!attributes.holds(startIsland, resource)) {
+                    island = graph.nodeCount();
+                    return RouteEvent.missing(startIsland, startName, resource);
+                }
+                remainingResource = attributes.quantity(startIsland, resource);
+            }
+
+            // Distribute the resource to other islands
+            for (; island < graph.nodeCount(); island++) {
+                if (island != startIsland && remainingResource > 0) {
+                    int neededResource = (int) Math.min(canoeCapacity, remainingResource);
+                    remainingResource -= neededResource;
+                    int current = island++;
+                    return RouteEvent.deliver(current, graph.name(current), resource, neededResource);
+                }
+            }
+            return null;
         }
     }
 }
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates seeded synthetic archipelagos for benchmarks and experiments, in the same Map form
+ * that {@link DataLoader} returns. The same shape, size and seed always give the same graph.
+ */
+public class ArchipelagoGenerator {
+
+    public enum Shape {
+        GEOMETRIC,      // Islands scattered in a square, each linked to its nearest neighbours.
+        SCALE_FREE,     // Preferential attachment: a few hub islands with many lanes.
+        GRID            // Square lattice of islands, like a regular shipping grid.
+    }
+
+    private static final int MAX_TRAVEL_TIME = 42;     // Matches the longest lane in the Polynesia data.
+    private static final int NEAREST = 4;              // Neighbours each geometric island links to.
+    private static final int ATTACHMENTS = 2;          // Lanes each new scale-free island opens.
+
+    /**
+     * Generates an island graph.
+     *
+     * @param shape The kind of archipelago.
+     * @param islands The number of islands.
+     * @param seed The random seed.
+     * @return A Map representing the island graph where each island has a list of connected edges.
+     */
+    public static Map<String, List<DataLoader.Edge>> generate(Shape shape, int islands, long seed) {
+        Random random = new Random(seed);
+        Map<String, List<DataLoader.Edge>> graph = new HashMap<>(islands * 4 / 3 + 1);
+        switch (shape) {
+            case GEOMETRIC:
+                geometric(graph, islands, random);
+                break;
+            case SCALE_FREE:
+                scaleFree(graph, islands, random);
+                break;
+            case GRID:
+                grid(graph, islands, random);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        return graph;
+    }
+
+    /**
+     * Generates a population for every island, spread log-uniformly between 100 and 99,999.
+     * Island 0 always has the single largest population, 100,000, so the population-weighted cost in
+     * {@link Algorithms#shortestPath} discounts lanes into one island only and never forms a negative cycle.
+     *
+     * @param graph The island graph.
+     * @param seed The random seed.
+     * @return A Map where each key is an island name, and the value is the population size.
+     */
+    public static Map<String, Integer> populations(Map<String, List<DataLoader.Edge>> graph, long seed) {
+        Random random = new Random(seed);
+        Map<String, Integer> populations = new HashMap<>(graph.size() * 4 / 3 + 1);
+        for (int i = 0; i < graph.size(); i++) {
+            populations.put(name(i), (int) Math.min(99_999, Math.round(Math.pow(10, 2 + 3 * random.nextDouble()))));
+        }
+        if (!graph.isEmpty()) {
+            populations.put(name(0), 100_000);
+        }
+        return populations;
+    }
+
+    /**
+     * Gives every island one natural resource with a random quantity, like {@link DataLoader#setNaturalResource()}.
+     *
+     * @param graph The island graph.
+     * @param seed The random seed.
+     * @return A Map from island name to a Map of resource name to quantity.
+     */
+    public static Map<String, Map<String, Integer>> resources(Map<String, List<DataLoader.Edge>> graph, long seed) {
+        Random random = new Random(seed);
+        Map<String, Map<String, Integer>> resources = new HashMap<>(graph.size() * 4 / 3 + 1);
+        for (int i = 0; i < graph.size(); i++) {
+            Map<String, Integer> resource = new HashMap<>();
+            resource.put("Resource " + random.nextInt(20), 500 + random.nextInt(10000));
+            resources.put(name(i), resource);
+        }
+        return resources;
+    }
+
+    // Name of the i-th generated island.
+    public static String name(int i) {
+        return "Island " + i;
+    }
+
+    // Links every island to its nearest neighbours, with travel time proportional to distance.
+    private static void geometric(Map<String, List<DataLoader.Edge>> graph, int islands, Random random) {
+        double[] x = new double[islands];
+        double[] y = new double[islands];
+        for (int i = 0; i < islands; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+        }
+
+        // Bucket islands into a grid of cells holding about two islands each.
+        int cells = Math.max(1, (int) Math.sqrt(islands / 2.0));
+        List<List<Integer>> buckets = new ArrayList<>(cells * cells);
+        for (int c = 0; c < cells * cells; c++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < islands; i++) {
+            buckets.get(cell(x[i], cells) * cells + cell(y[i], cells)).add(i);
+        }
+
+        double scale = Math.sqrt(2.0 / islands);   // Typical neighbour distance.
+        for (int i = 0; i < islands; i++) {
+            graph.putIfAbsent(name(i), new ArrayList<>());
+            int[] nearest = new int[NEAREST];
+            double[] nearestDistance = new double[NEAREST];
+            Arrays.fill(nearest, -1);
+            Arrays.fill(nearestDistance, Double.MAX_VALUE);
+            int cx = cell(x[i], cells);
+            int cy = cell(y[i], cells);
+            // Widen the search ring until no island outside it can be nearer than the candidates found.
+            for (int ring = 1; ring <= cells; ring++) {
+                for (int gx = Math.max(0, cx - ring); gx <= Math.min(cells - 1, cx + ring); gx++) {
+                    for (int gy = Math.max(0, cy - ring); gy <= Math.min(cells - 1, cy + ring); gy++) {
+                        // Inner rings were scanned already; only the cells on this ring are new.
+                        if (ring > 1 && Math.max(Math.abs(gx - cx), Math.abs(gy - cy)) != ring) continue;
+                        for (int j : buckets.get(gx * cells + gy)) {
+                            if (j == i) continue;
+                            double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                            insertNearest(nearest, nearestDistance, j, distance);
+                        }
+                    }
+                }
+                if (nearest[NEAREST - 1] >= 0 && nearestDistance[NEAREST - 1] <= (double) (ring - 1) / cells) break;
+            }
+            for (int k = 0; k < NEAREST; k++) {
+                int j = nearest[k];
+                if (j >= 0 && !linked(graph, i, j)) {
+                    int travelTime = (int) Math.min(MAX_TRAVEL_TIME, 1 + nearestDistance[k] / scale * 10);
+                    DataLoader.addEdge(graph, name(i), name(j), travelTime);
+                }
+            }
+        }
+    }
+
+    // Each new island opens lanes to existing islands chosen in proportion to their lane count.
+    private static void scaleFree(Map<String, List<DataLoader.Edge>> graph, int islands, Random random) {
+        IntArrayList endpoints = new IntArrayList(islands * ATTACHMENTS * 2);
+        graph.put(name(0), new ArrayList<>());
+        for (int i = 1; i < islands; i++) {
+            int lanes = Math.min(i, ATTACHMENTS);
+            int[] chosen = new int[lanes];
+            for (int k = 0; k < lanes; k++) {
+                int j;
+                do {
+                    j = endpoints.isEmpty() ? random.nextInt(i) : endpoints.get(random.nextInt(endpoints.size()));
+                } while (contains(chosen, k, j));
+                chosen[k] = j;
+            }
+            for (int j : chosen) {
+                DataLoader.addEdge(graph, name(i), name(j), 1 + random.nextInt(MAX_TRAVEL_TIME));
+                endpoints.add(i);
+                endpoints.add(j);
+            }
+        }
+    }
+
+    // Lays the islands out row by row on a square lattice and links horizontal and vertical neighbours.
+    private static void grid(Map<String, List<DataLoader.Edge>> graph, int islands, Random random) {
+        int side = (int) Math.ceil(Math.sqrt(islands));
+        for (int i = 0; i < islands; i++) {
+            graph.putIfAbsent(name(i), new ArrayList<>());
+            int right = i + 1;
+            int below = i + side;
+            if (right % side != 0 && right < islands) {
+                DataLoader.addEdge(graph, name(i), name(right), 1 + random.nextInt(MAX_TRAVEL_TIME));
+            }
+            if (below < islands) {
+                DataLoader.addEdge(graph, name(i), name(below), 1 + random.nextInt(MAX_TRAVEL_TIME));
+            }
+        }
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    // Keeps the nearest candidates sorted by distance, each at most once.
+    private static void insertNearest(int[] nearest, double[] nearestDistance, int candidate, double distance) {
+        int k = nearest.length - 1;
+        if (distance >= nearestDistance[k] || contains(nearest, nearest.length, candidate)) return;
+        while (k > 0 && nearestDistance[k - 1] > distance) {
+            nearest[k] = nearest[k - 1];
+            nearestDistance[k] = nearestDistance[k - 1];
+            k--;
+        }
+        nearest[k] = candidate;
+        nearestDistance[k] = distance;
+    }
+
+    // Whether a lane between the two islands already exists.
+    private static boolean linked(Map<String, List<DataLoader.Edge>> graph, int i, int j) {
+        String other = name(j);
+        for (DataLoader.Edge edge : graph.get(name(i))) {
+            if (edge.destination.equals(other)) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs shortest-path searches from many start islands at once, spread across a fork-join pool.
+ *
+ * Sources are split into chunks; each chunk borrows a {@link ShortestPathEngine} from a pool of
+ * scratch engines, so workers never share mutable search state and engines are reused across
+ * batches. Results come back as a distance matrix or through a per-source callback.
+ */
+public class BatchShortestPaths {
+
+    private static final int CHUNK = 1;     // Sources handled by one task; searches dwarf the cost of a task.
+
+    private final CompactGraph graph;
+    private final int[] populationWeights;
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<ShortestPathEngine> engines = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Receives the result of one source's search. Called from worker threads, possibly concurrently
+     * for different sources; the engine is only valid until the call returns.
+     */
+    public interface SourceResultConsumer {
+        void accept(int source, ShortestPathEngine result);
+    }
+
+    /**
+     * Creates a batch runner on the common fork-join pool.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     */
+    public BatchShortestPaths(CompactGraph graph, Map<String, Integer> populations) {
+        this(graph, populations, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a batch runner on the given pool.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param pool The pool whose workers run the searches.
+     */
+    public BatchShortestPaths(CompactGraph graph, Map<String, Integer> populations, ForkJoinPool pool) {
+        this.graph = graph;
+        this.populationWeights = Algorithms.populationWeights(graph, populations);
+        this.pool = pool;
+    }
+
+    /**
+     * Runs a search from every source and hands each result to the consumer as soon as it is ready.
+     *
+     * @param sources The ids of the start islands.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @param consumer Receives each source's result.
+     */
+    public void forEach(int[] sources, double alpha, SourceResultConsumer consumer) {
+        pool.invoke(new SearchTask(sources, 0, sources.length, alpha, consumer));
+    }
+
+    /**
+     * Runs a search from every source and collects the distances.
+     *
+     * @param sources The ids of the start islands.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return One row per source, in the order given, indexed by island id.
+     */
+    public int[][] distanceMatrix(int[] sources, double alpha) {
+        int[][] matrix = new int[sources.length][];
+        int[] rowOf = new int[graph.nodeCount()];
+        for (int i = 0; i < sources.length; i++) {
+            rowOf[sources[i]] = i;
+        }
+        forEach(sources, alpha, (source, result) -> matrix[rowOf[source]] = result.copyDistances(new int[graph.nodeCount()]));
+        // A source listed twice only fills its last row; copy it into the earlier ones.
+        for (int i = 0; i < sources.length; i++) {
+            if (matrix[i] == null) {
+                matrix[i] = matrix[rowOf[sources[i]]];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Runs a search from every start island and returns the results keyed by island name.
+     *
+     * @param startIslands The names of the start islands.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return A Map from start island to the Map of shortest distances from it.
+     */
+    public Map<String, Map<String, Integer>> shortestPaths(Collection<String> startIslands, double alpha) {
+        int[] sources = startIslands.stream().mapToInt(graph::id).toArray();
+        int[][] matrix = distanceMatrix(sources, alpha);
+        Map<String, Map<String, Integer>> results = new HashMap<>();
+        for (int i = 0; i < sources.length; i++) {
+            results.put(graph.name(sources[i]), Algorithms.toDistanceMap(graph, matrix[i]));
+        }
+        return results;
+    }
+
+    // Splits a range of sources in half until it is small enough to search with one engine.
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final double alpha;
+        private final SourceResultConsumer consumer;
+
+        SearchTask(int[] sources, int from, int to, double alpha, SourceResultConsumer consumer) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.alpha = alpha;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SearchTask(sources, from, middle, alpha, consumer),
+                          new SearchTask(sources, middle, to, alpha, consumer));
+                return;
+            }
+            ShortestPathEngine engine = engines.poll();
+            if (engine == null) {
+                engine = new ShortestPathEngine(graph).withPopulationWeights(populationWeights);
+            }
+            try {
+                for (int i = from; i < to; i++) {
+                    engine.run(sources[i], alpha);
+                    consumer.accept(sources[i], engine);
+                }
+            } finally {
+                engines.offer(engine);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Overlay graph on the boundary islands of a partitioned graph.
+ *
+ * The overlay has a lane for every lane between regions, plus a shortcut between every pair of
+ * boundary islands of the same region, weighted by their distance inside that region. A route
+ * between boundary islands in the full graph alternates between stretches inside a region and
+ * lanes between regions, so shortest distances in the overlay equal those in the full graph.
+ * The overlay is built from {@link ShardSummary shard summaries} and never needs the regions'
+ * interior islands.
+ */
+public class BoundaryOverlay {
+
+    private final int[] islands;    // Global id of each overlay node, ascending.
+    private final int[] offsets;    // Start of each overlay node's lanes.
+    private final int[] targets;    // Overlay node each lane leads to.
+    private final int[] weights;    // Travel time of each lane.
+
+    /**
+     * Builds the overlay from the summaries of every region.
+     *
+     * @param summaries One summary per region.
+     */
+    public BoundaryOverlay(List<ShardSummary> summaries) {
+        IntArrayList boundary = new IntArrayList();
+        for (ShardSummary summary : summaries) {
+            for (int island : summary.boundary()) {
+                boundary.add(island);
+            }
+        }
+        this.islands = boundary.toArray();
+        Arrays.sort(islands);
+
+        IntArrayList sources = new IntArrayList();
+        IntArrayList laneTargets = new IntArrayList();
+        IntArrayList laneWeights = new IntArrayList();
+        for (ShardSummary summary : summaries) {
+            int[] regionBoundary = summary.boundary();
+            for (int from = 0; from < regionBoundary.length; from++) {
+                int source = node(regionBoundary[from]);
+                for (int to = 0; to < regionBoundary.length; to++) {
+                    int distance = summary.boundaryDistance(from, to);
+                    if (from != to && distance != Integer.MAX_VALUE) {
+                        sources.add(source);
+                        laneTargets.add(node(regionBoundary[to]));
+                        laneWeights.add(distance);
+                    }
+                }
+            }
+            for (int lane = 0; lane < summary.cutLaneCount(); lane++) {
+                sources.add(node(summary.cutSource(lane)));
+                laneTargets.add(node(summary.cutTarget(lane)));
+                laneWeights.add(summary.cutTravelTime(lane));
+            }
+        }
+
+        this.offsets = new int[islands.length + 1];
+        for (int lane = 0; lane < sources.size(); lane++) {
+            offsets[sources.get(lane) + 1]++;
+        }
+        for (int node = 0; node < islands.length; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] fill = Arrays.copyOf(offsets, islands.length);
+        this.targets = new int[sources.size()];
+        this.weights = new int[sources.size()];
+        for (int lane = 0; lane < sources.size(); lane++) {
+            int at = fill[sources.get(lane)]++;
+            targets[at] = laneTargets.get(lane);
+            weights[at] = laneWeights.get(lane);
+        }
+    }
+
+    // Number of boundary islands in the overlay.
+    public int size() {
+        return islands.length;
+    }
+
+    // Number of lanes in the overlay, shortcuts included.
+    public int laneCount() {
+        return targets.length;
+    }
+
+    // Global id of the overlay node.
+    public int island(int node) {
+        return islands[node];
+    }
+
+    // Overlay node of a boundary island, or -1 if the island is not a boundary island.
+    public int node(int island) {
+        int node = Arrays.binarySearch(islands, island);
+        return node < 0 ? -1 : node;
+    }
+
+    /**
+     * Computes overlay distances from several boundary islands, each starting at its own distance.
+     *
+     * @param seedIslands Global ids of boundary islands to start from.
+     * @param seedDistances The starting distance of each seed; Integer.MAX_VALUE seeds are ignored.
+     * @return The distance to each overlay node, Integer.MAX_VALUE if unreachable.
+     */
+    public int[] search(int[] seedIslands, int[] seedDistances) {
+        int[] distances = new int[islands.length];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        RadixHeap queue = new RadixHeap();
+        for (int i = 0; i < seedIslands.length; i++) {
+            int node = node(seedIslands[i]);
+            if (node < 0) {
+                throw new IllegalArgumentException("Island " + seedIslands[i] + " is not a boundary island");
+            }
+            if (seedDistances[i] < distances[node]) {
+                distances[node] = seedDistances[i];
+                queue.push(node, seedDistances[i]);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.pop();
+            int nodeDistance = queue.lastKey();
+            if (nodeDistance > distances[node]) continue;
+
+            for (int lane = offsets[node]; lane < offsets[node + 1]; lane++) {
+                int destination = targets[lane];
+                int newDistance = nodeDistance + weights[lane];
+                if (newDistance < distances[destination]) {
+                    distances[destination] = newDistance;
+                    queue.push(destination, newDistance);
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * Dial's bucket queue: an {@link IntegerQueue} with one bucket per key modulo {@code maxWeight + 1}.
+ *
+ * While a search runs, every queued key lies between the last key popped and that key plus the
+ * largest edge weight, so {@code maxWeight + 1} circular buckets never hold two different keys at
+ * once. Pushing, lowering a key and popping are constant time apart from stepping the cursor past
+ * empty buckets, which costs at most the largest distance over a whole search. Buckets are
+ * intrusive doubly linked lists over island ids, so an island is queued at most once and nothing
+ * is allocated after construction. Islands with equal keys pop in the order they were last pushed.
+ */
+public class BucketQueue implements IntegerQueue {
+
+    private final int[] heads;      // First island in each bucket, or -1 if the bucket is empty.
+    private final int[] tails;      // Last island in each bucket, or -1 if the bucket is empty.
+    private final int[] next;       // Next island in the same bucket, or -1.
+    private final int[] previous;   // Previous island in the same bucket, or -1 for the first.
+    private final int[] buckets;    // Bucket holding each island, or -1 if the island is not queued.
+    private final int[] keys;       // Key of each queued island.
+    private int cursor = -1;        // Bucket of the last key popped, or of the first key pushed; -1 when cleared.
+    private int size;               // Number of islands queued.
+    private int lastKey;            // Key of the island returned by the last pop.
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity The number of islands (ids 0 to capacity - 1).
+     * @param maxWeight The largest edge weight of the graph searched.
+     */
+    public BucketQueue(int capacity, int maxWeight) {
+        heads = new int[maxWeight + 1];
+        tails = new int[maxWeight + 1];
+        next = new int[capacity];
+        previous = new int[capacity];
+        buckets = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(heads, -1);
+        Arrays.fill(tails, -1);
+        Arrays.fill(buckets, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void push(int node, int key) {
+        if (buckets[node] >= 0) {
+            unlink(node);
+        } else {
+            size++;
+        }
+        int bucket = key % heads.length;
+        if (cursor < 0) {
+            cursor = bucket;
+        }
+        keys[node] = key;
+        buckets[node] = bucket;
+        int tail = tails[bucket];
+        next[node] = -1;
+        previous[node] = tail;
+        if (tail >= 0) {
+            next[tail] = node;
+        } else {
+            heads[bucket] = node;
+        }
+        tails[bucket] = node;
+    }
+
+    @Override
+    public int pop() {
+        while (heads[cursor] < 0) {
+            cursor = cursor + 1 == heads.length ? 0 : cursor + 1;
+        }
+        int node = heads[cursor];
+        unlink(node);
+        buckets[node] = -1;
+        size--;
+        lastKey = keys[node];
+        return node;
+    }
+
+    @Override
+    public int lastKey() {
+        return lastKey;
+    }
+
+    // Removes every island, in time proportional to the number of buckets and islands queued.
+    @Override
+    public void clear() {
+        for (int bucket = 0; bucket < heads.length && size > 0; bucket++) {
+            for (int node = heads[bucket]; node >= 0; node = next[node]) {
+                buckets[node] = -1;
+                size--;
+            }
+            heads[bucket] = -1;
+            tails[bucket] = -1;
+        }
+        size = 0;
+        cursor = -1;
+    }
+
+    // Takes the island out of its bucket's list.
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before >= 0) {
+            next[before] = after;
+        } else {
+            heads[buckets[node]] = after;
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        } else {
+            tails[buckets[node]] = before;
+        }
+    }
+}
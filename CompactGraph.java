@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable compressed-sparse-row (CSR) form of the island graph.
+ *
+ * Island names are interned to dense int ids once, and the outgoing edges of island {@code i}
+ * live in {@code targets[offsets[i] .. offsets[i + 1])} with the matching {@code travelTimes}.
+ * This keeps every edge in three flat arrays instead of one object per edge.
+ */
+public class CompactGraph {
+
+    private final String[] names;               // Island name for each id.
+    private volatile Map<String, Integer> ids;  // Interned island name to id, built on first lookup.
+    private final int[] offsets;                // Start of each island's edges, length = nodeCount + 1.
+    private final int[] targets;                // Destination id of each edge.
+    private final int[] travelTimes;            // Travel time of each edge.
+    private final int maxTravelTime;            // Largest travel time in the graph.
+    private final boolean negativeTravelTimes;  // Whether any edge has a negative travel time.
+
+    CompactGraph(String[] names, int[] offsets, int[] targets, int[] travelTimes) {
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.travelTimes = travelTimes;
+        int max = 0;
+        boolean negative = false;
+        for (int travelTime : travelTimes) {
+            max = Math.max(max, travelTime);
+            negative |= travelTime < 0;
+        }
+        this.maxTravelTime = max;
+        this.negativeTravelTimes = negative;
+    }
+
+    /**
+     * Builds a compact graph from the map form returned by {@link DataLoader#getIslandGraph()}.
+     * Ids are assigned in the map's iteration order and each island keeps its edge order.
+     *
+     * @param graph The island graph.
+     * @return The compact graph holding the same islands and edges.
+     */
+    public static CompactGraph fromMap(Map<String, List<DataLoader.Edge>> graph) {
+        Map<String, Integer> ids = new HashMap<>();
+        String[] names = new String[graph.size()];
+        int nodeCount = 0;
+        int edgeCount = 0;
+
+        // Intern every island that owns edges first, so ids follow the map's iteration order.
+        for (String island : graph.keySet()) {
+            ids.put(island, nodeCount);
+            names[nodeCount++] = island;
+        }
+        // Intern destinations that have no edges of their own.
+        for (List<DataLoader.Edge> edges : graph.values()) {
+            for (DataLoader.Edge edge : edges) {
+                if (!ids.containsKey(edge.destination)) {
+                    if (nodeCount == names.length) {
+                        names = Arrays.copyOf(names, names.length * 2 + 1);
+                    }
+                    ids.put(edge.destination, nodeCount);
+                    names[nodeCount++] = edge.destination;
+                }
+                edgeCount++;
+            }
+        }
+
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[edgeCount];
+        int[] travelTimes = new int[edgeCount];
+        int position = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node] = position;
+            List<DataLoader.Edge> edges = graph.get(names[node]);
+            if (edges == null) continue;
+            for (DataLoader.Edge edge : edges) {
+                targets[position] = ids.get(edge.destination);
+                travelTimes[position] = edge.travelTime;
+                position++;
+            }
+        }
+        offsets[nodeCount] = position;
+
+        return new CompactGraph(Arrays.copyOf(names, nodeCount), offsets, targets, travelTimes);
+    }
+
+    /**
+     * Builds a compact graph from a flat list of directed edges, keeping each island's edges in list order.
+     *
+     * @param names Island name for each id.
+     * @param sources Source id of each edge.
+     * @param targets Destination id of each edge.
+     * @param travelTimes Travel time of each edge.
+     * @param edgeCount Number of edges used from the arrays.
+     * @return The compact graph holding the edges.
+     */
+    static CompactGraph fromEdgeList(String[] names, int[] sources, int[] targets, int[] travelTimes, int edgeCount) {
+        int nodeCount = names.length;
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+
+        // Stable counting sort of the edges by source island.
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] sortedTargets = new int[edgeCount];
+        int[] sortedTravelTimes = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int position = next[sources[e]]++;
+            sortedTargets[position] = targets[e];
+            sortedTravelTimes[position] = travelTimes[e];
+        }
+        return new CompactGraph(names, offsets, sortedTargets, sortedTravelTimes);
+    }
+
+    /**
+     * Converts the compact graph back into the map form used by the original API.
+     *
+     * @return A Map where each island has a list of connected edges.
+     */
+    public Map<String, List<DataLoader.Edge>> toMap() {
+        Map<String, List<DataLoader.Edge>> graph = new HashMap<>();
+        for (int node = 0; node < names.length; node++) {
+            List<DataLoader.Edge> edges = new ArrayList<>(degree(node));
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                edges.add(new DataLoader.Edge(names[targets[e]], travelTimes[e]));
+            }
+            graph.put(names[node], edges);
+        }
+        return graph;
+    }
+
+    /**
+     * Builds the graph with every edge reversed, for searches that run backwards from a target.
+     *
+     * @return A compact graph with the same island ids in which each edge u to v becomes v to u.
+     */
+    public CompactGraph reverse() {
+        // Each edge's old source becomes its new target; fromEdgeList regroups them by new source.
+        int[] sources = new int[targets.length];
+        for (int node = 0; node < names.length; node++) {
+            Arrays.fill(sources, offsets[node], offsets[node + 1], node);
+        }
+        return fromEdgeList(names, targets, sources, travelTimes, targets.length);
+    }
+
+    // Number of islands in the graph.
+    public int nodeCount() {
+        return names.length;
+    }
+
+    // Number of directed edges in the graph (each bidirectional route counts twice).
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // Id of the named island, or -1 if it is not in the graph.
+    public int id(String island) {
+        Map<String, Integer> ids = this.ids;
+        if (ids == null) {
+            // Built lazily so loading a large graph does not pay for the dictionary until it is needed.
+            ids = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int i = 0; i < names.length; i++) {
+                ids.put(names[i], i);
+            }
+            this.ids = ids;
+        }
+        Integer id = ids.get(island);
+        return id == null ? -1 : id;
+    }
+
+    // Name of the island with the given id.
+    public String name(int id) {
+        return names[id];
+    }
+
+    // Index of the first edge leaving the island.
+    public int edgeStart(int node) {
+        return offsets[node];
+    }
+
+    // Index one past the last edge leaving the island.
+    public int edgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    // Number of edges leaving the island.
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Destination id of the edge.
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    // Travel time of the edge.
+    public int travelTime(int edge) {
+        return travelTimes[edge];
+    }
+
+    // Largest travel time of any edge, 0 for a graph without edges.
+    public int maxTravelTime() {
+        return maxTravelTime;
+    }
+
+    // Whether any edge has a negative travel time, which integer queues cannot search.
+    public boolean hasNegativeTravelTimes() {
+        return negativeTravelTimes;
+    }
+}
@@ -0,0 +1,601 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contraction hierarchy over the island graph's travel times (alpha = 0) for fast point-to-point queries.
+ *
+ * Preprocessing contracts islands one at a time in order of importance, adding a shortcut edge
+ * u-&gt;x through each contracted island v whenever u-&gt;v-&gt;x might be the only shortest path.
+ * A query then searches upwards from both ends, along edges towards more important islands only,
+ * which settles a tiny fraction of the graph. Shortcuts remember the island they bypass, so routes
+ * can be unpacked into the original islands.
+ *
+ * A built hierarchy is immutable and can be shared between threads; each thread answers queries
+ * through its own {@link Query}. Hierarchies can be written to disk and loaded back at startup.
+ */
+public class ContractionHierarchy {
+
+    private static final int MAGIC = 0x49534348;            // "ISCH"
+    private static final int VERSION = 1;
+    public static final int DEFAULT_WITNESS_LIMIT = 500;    // Islands a witness search may settle.
+
+    private final String[] names;       // Island name for each id.
+    private final int[] ranks;          // Contraction order; higher ranks are more important.
+    // Upward edges u->x with rank[x] > rank[u], grouped by u.
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;      // Island a shortcut bypasses, or -1 for an original edge.
+    // Downward edges u->x with rank[u] > rank[x], grouped by x so they can be searched backwards.
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final int[] downWeights;
+    private final int[] downMiddles;
+    private volatile Map<String, Integer> ids;
+
+    private ContractionHierarchy(String[] names, int[] ranks,
+                                 int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddles,
+                                 int[] downOffsets, int[] downSources, int[] downWeights, int[] downMiddles) {
+        this.names = names;
+        this.ranks = ranks;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+    }
+
+    /**
+     * Builds a hierarchy with the default witness search limit.
+     *
+     * @param graph The compact island graph.
+     * @return The contraction hierarchy.
+     */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return build(graph, DEFAULT_WITNESS_LIMIT);
+    }
+
+    /**
+     * Builds a hierarchy. A smaller witness limit preprocesses faster but may add shortcuts that are
+     * not needed; distances stay exact either way.
+     *
+     * @param graph The compact island graph.
+     * @param witnessLimit The number of islands a witness search may settle before giving up.
+     * @return The contraction hierarchy.
+     */
+    public static ContractionHierarchy build(CompactGraph graph, int witnessLimit) {
+        return new Builder(graph, witnessLimit).build();
+    }
+
+    // Number of islands in the hierarchy.
+    public int nodeCount() {
+        return names.length;
+    }
+
+    // Number of upward and downward edges, shortcuts included.
+    public int edgeCount() {
+        return upTargets.length + downSources.length;
+    }
+
+    // Name of the island with the given id.
+    public String name(int id) {
+        return names[id];
+    }
+
+    // Id of the named island, or -1 if it is not in the hierarchy.
+    public int id(String island) {
+        Map<String, Integer> ids = this.ids;
+        if (ids == null) {
+            ids = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int i = 0; i < names.length; i++) {
+                ids.put(names[i], i);
+            }
+            this.ids = ids;
+        }
+        Integer id = ids.get(island);
+        return id == null ? -1 : id;
+    }
+
+    // Creates scratch state for answering queries on one thread.
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * Writes the hierarchy so it can be loaded with {@link #read(Path)} instead of rebuilt.
+     *
+     * @param path The file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.length);
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            writeInts(out, ranks);
+            writeInts(out, upOffsets);
+            writeInts(out, upTargets);
+            writeInts(out, upWeights);
+            writeInts(out, upMiddles);
+            writeInts(out, downOffsets);
+            writeInts(out, downSources);
+            writeInts(out, downWeights);
+            writeInts(out, downMiddles);
+        }
+    }
+
+    /**
+     * Loads a hierarchy written by {@link #write(Path)}.
+     *
+     * @param path The hierarchy file.
+     * @return The contraction hierarchy.
+     * @throws IOException if the file cannot be read or is not a hierarchy file.
+     */
+    public static ContractionHierarchy read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a contraction hierarchy");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported version " + version);
+            }
+            String[] names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+            }
+            return new ContractionHierarchy(names, readInts(in),
+                    readInts(in), readInts(in), readInts(in), readInts(in),
+                    readInts(in), readInts(in), readInts(in), readInts(in));
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Per-thread query state: two upward searches with epoch-stamped scratch arrays.
+     */
+    public class Query {
+        private final int[] forwardDistances = new int[names.length];
+        private final int[] backwardDistances = new int[names.length];
+        private final int[] forwardParents = new int[names.length];     // Previous island of the upward search from the source.
+        private final int[] backwardParents = new int[names.length];    // Next island of the upward search from the target.
+        private final int[] forwardStamps = new int[names.length];
+        private final int[] backwardStamps = new int[names.length];
+        private final IndexedMinHeap forwardHeap = new IndexedMinHeap(names.length);
+        private final IndexedMinHeap backwardHeap = new IndexedMinHeap(names.length);
+        private int epoch;
+        private int meet;
+        private int settled;
+
+        /**
+         * Computes the travel time between two islands without building the route.
+         *
+         * @param source The id of the starting island.
+         * @param target The id of the destination island.
+         * @return The shortest travel time, or Integer.MAX_VALUE if the target is unreachable.
+         */
+        public int distance(int source, int target) {
+            return search(source, target);
+        }
+
+        /**
+         * Computes the shortest route between two islands, with every shortcut unpacked.
+         *
+         * @param source The id of the starting island.
+         * @param target The id of the destination island.
+         * @return The shortest route, or an unreachable route.
+         */
+        public IslandRoute route(int source, int target) {
+            int distance = search(source, target);
+            if (distance == Integer.MAX_VALUE) {
+                return IslandRoute.unreachable(settled);
+            }
+
+            // Hierarchy-level path: upward from the source to the meeting island, then down to the target.
+            IntArrayList hops = new IntArrayList();
+            for (int node = meet; node >= 0; node = forwardParents[node]) {
+                hops.add(node);
+            }
+            int[] path = new int[hops.size()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = hops.get(path.length - 1 - i);
+            }
+            hops.clear();
+            for (int node = meet; node >= 0; node = backwardParents[node]) {
+                hops.add(node);
+            }
+
+            IntArrayList islands = new IntArrayList();
+            islands.add(source);
+            for (int i = 0; i + 1 < path.length; i++) {
+                unpack(path[i], path[i + 1], islands);
+            }
+            for (int i = 0; i + 1 < hops.size(); i++) {
+                unpack(hops.get(i), hops.get(i + 1), islands);
+            }
+            return new IslandRoute(distance, islands.toArray(), settled);
+        }
+
+        // Number of islands settled by the last query.
+        public int settledCount() {
+            return settled;
+        }
+
+        private int search(int source, int target) {
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(forwardStamps, 0);
+                Arrays.fill(backwardStamps, 0);
+                epoch = 1;
+            }
+            forwardHeap.clear();
+            backwardHeap.clear();
+            settled = 0;
+            meet = -1;
+            long best = Integer.MAX_VALUE;
+
+            forwardStamps[source] = epoch;
+            forwardDistances[source] = 0;
+            forwardParents[source] = -1;
+            forwardHeap.push(source, 0);
+            backwardStamps[target] = epoch;
+            backwardDistances[target] = 0;
+            backwardParents[target] = -1;
+            backwardHeap.push(target, 0);
+
+            // Each side may stop once its smallest key cannot beat the best meeting point.
+            while (true) {
+                boolean forwardOpen = !forwardHeap.isEmpty() && forwardHeap.minKey() < best;
+                boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.minKey() < best;
+                if (!forwardOpen && !backwardOpen) break;
+                boolean forward = forwardOpen && (!backwardOpen || forwardHeap.minKey() <= backwardHeap.minKey());
+
+                IndexedMinHeap heap = forward ? forwardHeap : backwardHeap;
+                int[] distances = forward ? forwardDistances : backwardDistances;
+                int[] parents = forward ? forwardParents : backwardParents;
+                int[] stamps = forward ? forwardStamps : backwardStamps;
+                int[] otherDistances = forward ? backwardDistances : forwardDistances;
+                int[] otherStamps = forward ? backwardStamps : forwardStamps;
+                int[] offsets = forward ? upOffsets : downOffsets;
+                int[] ends = forward ? upTargets : downSources;
+                int[] weights = forward ? upWeights : downWeights;
+
+                int node = heap.pop();
+                settled++;
+                int nodeDistance = distances[node];
+                if (otherStamps[node] == epoch && (long) nodeDistance + otherDistances[node] < best) {
+                    best = (long) nodeDistance + otherDistances[node];
+                    meet = node;
+                }
+                for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                    int next = ends[edge];
+                    int newDistance = nodeDistance + weights[edge];
+                    if (stamps[next] != epoch || newDistance < distances[next]) {
+                        stamps[next] = epoch;
+                        distances[next] = newDistance;
+                        parents[next] = node;
+                        heap.push(next, newDistance);
+                    }
+                }
+            }
+            return meet < 0 ? Integer.MAX_VALUE : (int) best;
+        }
+
+        // Appends the original islands of edge from->to, excluding from, expanding shortcuts depth first.
+        private void unpack(int from, int to, IntArrayList islands) {
+            IntArrayList stack = new IntArrayList();
+            stack.add(from);
+            stack.add(to);
+            while (!stack.isEmpty()) {
+                int x = stack.removeLast();
+                int u = stack.removeLast();
+                int middle = middle(u, x);
+                if (middle < 0) {
+                    islands.add(x);
+                } else {
+                    // Push the second half first so the first half is expanded first.
+                    stack.add(middle);
+                    stack.add(x);
+                    stack.add(u);
+                    stack.add(middle);
+                }
+            }
+        }
+
+        // Island bypassed by the lightest edge u->x, or -1 for an original edge.
+        private int middle(int u, int x) {
+            int middle = -1;
+            int weight = Integer.MAX_VALUE;
+            if (ranks[u] < ranks[x]) {
+                for (int edge = upOffsets[u]; edge < upOffsets[u + 1]; edge++) {
+                    if (upTargets[edge] == x && upWeights[edge] < weight) {
+                        weight = upWeights[edge];
+                        middle = upMiddles[edge];
+                    }
+                }
+            } else {
+                for (int edge = downOffsets[x]; edge < downOffsets[x + 1]; edge++) {
+                    if (downSources[edge] == u && downWeights[edge] < weight) {
+                        weight = downWeights[edge];
+                        middle = downMiddles[edge];
+                    }
+                }
+            }
+            return middle;
+        }
+    }
+
+    /**
+     * Contracts the graph island by island, keeping a mutable copy of every island's edges.
+     */
+    private static class Builder {
+        private final CompactGraph graph;
+        private final int witnessLimit;
+        private final int n;
+        // Outgoing and incoming edges of each island, original edges and shortcuts alike.
+        private final IntArrayList[] outTargets;
+        private final IntArrayList[] outWeights;
+        private final IntArrayList[] outMiddles;
+        private final IntArrayList[] inSources;
+        private final IntArrayList[] inWeights;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbors;   // Contracted neighbours, spreads contraction evenly over the graph.
+        // Witness search scratch state.
+        private final int[] witnessDistances;
+        private final int[] witnessStamps;
+        private final IndexedMinHeap witnessHeap;
+        private int witnessEpoch;
+
+        Builder(CompactGraph graph, int witnessLimit) {
+            this.graph = graph;
+            this.witnessLimit = witnessLimit;
+            this.n = graph.nodeCount();
+            outTargets = new IntArrayList[n];
+            outWeights = new IntArrayList[n];
+            outMiddles = new IntArrayList[n];
+            inSources = new IntArrayList[n];
+            inWeights = new IntArrayList[n];
+            for (int v = 0; v < n; v++) {
+                outTargets[v] = new IntArrayList(graph.degree(v));
+                outWeights[v] = new IntArrayList(graph.degree(v));
+                outMiddles[v] = new IntArrayList(graph.degree(v));
+                inSources[v] = new IntArrayList(4);
+                inWeights[v] = new IntArrayList(4);
+            }
+            contracted = new boolean[n];
+            deletedNeighbors = new int[n];
+            witnessDistances = new int[n];
+            witnessStamps = new int[n];
+            witnessHeap = new IndexedMinHeap(n);
+        }
+
+        ContractionHierarchy build() {
+            for (int u = 0; u < n; u++) {
+                for (int edge = graph.edgeStart(u); edge < graph.edgeEnd(u); edge++) {
+                    if (graph.target(edge) != u) {
+                        addEdge(u, graph.target(edge), graph.travelTime(edge), -1);
+                    }
+                }
+            }
+
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.push(v, priority(v));
+            }
+            int[] ranks = new int[n];
+            int rank = 0;
+            while (!order.isEmpty()) {
+                int v = order.pop();
+                // Priorities go stale as neighbours are contracted; re-check lazily before contracting.
+                double priority = priority(v);
+                if (!order.isEmpty() && priority > order.minKey()) {
+                    order.push(v, priority);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                ranks[v] = rank++;
+                for (int i = 0; i < outTargets[v].size(); i++) {
+                    touchNeighbor(outTargets[v].get(i), order);
+                }
+                for (int i = 0; i < inSources[v].size(); i++) {
+                    touchNeighbor(inSources[v].get(i), order);
+                }
+            }
+            return assemble(ranks);
+        }
+
+        private void touchNeighbor(int neighbor, IndexedMinHeap order) {
+            if (!contracted[neighbor] && order.contains(neighbor)) {
+                deletedNeighbors[neighbor]++;
+                order.push(neighbor, order.key(neighbor) + 1);
+            }
+        }
+
+        // Edge difference plus contracted neighbours; lower is contracted sooner.
+        private double priority(int v) {
+            int shortcuts = contract(v, true);
+            int degree = 0;
+            for (int i = 0; i < outTargets[v].size(); i++) {
+                if (!contracted[outTargets[v].get(i)]) degree++;
+            }
+            for (int i = 0; i < inSources[v].size(); i++) {
+                if (!contracted[inSources[v].get(i)]) degree++;
+            }
+            return shortcuts - degree + deletedNeighbors[v];
+        }
+
+        /**
+         * Finds the shortcuts needed to contract v: for every uncontracted u->v->x, a shortcut u->x is
+         * needed unless a witness path avoiding v is at most as short.
+         *
+         * @param v The island to contract.
+         * @param simulate Whether to only count the shortcuts instead of adding them.
+         * @return The number of shortcuts needed.
+         */
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            IntArrayList targets = outTargets[v];
+            IntArrayList weights = outWeights[v];
+            for (int i = 0; i < inSources[v].size(); i++) {
+                int u = inSources[v].get(i);
+                if (contracted[u]) continue;
+                int toV = inWeights[v].get(i);
+
+                int maxOut = -1;
+                for (int j = 0; j < targets.size(); j++) {
+                    int x = targets.get(j);
+                    if (!contracted[x] && x != u) {
+                        maxOut = Math.max(maxOut, weights.get(j));
+                    }
+                }
+                if (maxOut < 0) continue;
+
+                witnessSearch(u, v, toV + maxOut);
+                for (int j = 0; j < targets.size(); j++) {
+                    int x = targets.get(j);
+                    if (contracted[x] || x == u) continue;
+                    int viaV = toV + weights.get(j);
+                    if (witnessStamps[x] != witnessEpoch || witnessDistances[x] > viaV) {
+                        shortcuts++;
+                        if (!simulate) {
+                            addEdge(u, x, viaV, v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        // Bounded Dijkstra from the source over uncontracted islands, never passing through the excluded one.
+        private void witnessSearch(int source, int excluded, int maxDistance) {
+            witnessEpoch++;
+            witnessHeap.clear();
+            witnessStamps[source] = witnessEpoch;
+            witnessDistances[source] = 0;
+            witnessHeap.push(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.minKey() <= maxDistance && settled < witnessLimit) {
+                int node = witnessHeap.pop();
+                settled++;
+                int nodeDistance = witnessDistances[node];
+                IntArrayList targets = outTargets[node];
+                IntArrayList weights = outWeights[node];
+                for (int j = 0; j < targets.size(); j++) {
+                    int next = targets.get(j);
+                    if (next == excluded || contracted[next]) continue;
+                    int newDistance = nodeDistance + weights.get(j);
+                    if (witnessStamps[next] != witnessEpoch || newDistance < witnessDistances[next]) {
+                        witnessStamps[next] = witnessEpoch;
+                        witnessDistances[next] = newDistance;
+                        witnessHeap.push(next, newDistance);
+                    }
+                }
+            }
+        }
+
+        // Adds edge u->x, or lowers the weight of an existing one.
+        private void addEdge(int u, int x, int weight, int middle) {
+            IntArrayList targets = outTargets[u];
+            for (int j = 0; j < targets.size(); j++) {
+                if (targets.get(j) == x) {
+                    if (weight < outWeights[u].get(j)) {
+                        outWeights[u].set(j, weight);
+                        outMiddles[u].set(j, middle);
+                        IntArrayList sources = inSources[x];
+                        for (int i = 0; i < sources.size(); i++) {
+                            if (sources.get(i) == u) {
+                                inWeights[x].set(i, weight);
+                            }
+                        }
+                    }
+                    return;
+                }
+            }
+            targets.add(x);
+            outWeights[u].add(weight);
+            outMiddles[u].add(middle);
+            inSources[x].add(u);
+            inWeights[x].add(weight);
+        }
+
+        // Splits every edge into the upward and downward search graphs.
+        private ContractionHierarchy assemble(int[] ranks) {
+            int[] upOffsets = new int[n + 1];
+            int[] downOffsets = new int[n + 1];
+            for (int u = 0; u < n; u++) {
+                for (int j = 0; j < outTargets[u].size(); j++) {
+                    int x = outTargets[u].get(j);
+                    if (ranks[x] > ranks[u]) {
+                        upOffsets[u + 1]++;
+                    } else {
+                        downOffsets[x + 1]++;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] += upOffsets[v];
+                downOffsets[v + 1] += downOffsets[v];
+            }
+            int[] upTargets = new int[upOffsets[n]];
+            int[] upWeights = new int[upOffsets[n]];
+            int[] upMiddles = new int[upOffsets[n]];
+            int[] downSources = new int[downOffsets[n]];
+            int[] downWeights = new int[downOffsets[n]];
+            int[] downMiddles = new int[downOffsets[n]];
+            int[] upNext = Arrays.copyOf(upOffsets, n);
+            int[] downNext = Arrays.copyOf(downOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int j = 0; j < outTargets[u].size(); j++) {
+                    int x = outTargets[u].get(j);
+                    if (ranks[x] > ranks[u]) {
+                        int position = upNext[u]++;
+                        upTargets[position] = x;
+                        upWeights[position] = outWeights[u].get(j);
+                        upMiddles[position] = outMiddles[u].get(j);
+                    } else {
+                        int position = downNext[x]++;
+                        downSources[position] = u;
+                        downWeights[position] = outWeights[u].get(j);
+                        downMiddles[position] = outMiddles[u].get(j);
+                    }
+                }
+            }
+
+            String[] names = new String[n];
+            for (int v = 0; v < n; v++) {
+                names[v] = graph.name(v);
+            }
+            return new ContractionHierarchy(names, ranks, upOffsets, upTargets, upWeights, upMiddles,
+                                            downOffsets, downSources, downWeights, downMiddles);
+        }
+    }
+}
@@ -47,6 +47,15 @@ public class DataLoader {
         return graph;
     }
 
+    /**
+     * Generates the island graph in compact (CSR) form, with island names interned to int ids.
+     *
+     * @return A CompactGraph holding the same islands and routes as {@link #getIslandGraph()}.
+     */
+    public static CompactGraph getCompactIslandGraph() {
+        return CompactGraph.fromMap(getIslandGraph());
+    }
+
     /**
      * Generates population data for each island.
      * 
@@ -137,7 +146,7 @@ public class DataLoader {
    }
 
     // Adds a bidirectional edge between two islands with a given travel time.
-    private static void addEdge(Map<String, List<Edge>> graph, String islandA, String islandB, int travelTime) {        
+    static void addEdge(Map<String, List<Edge>> graph, String islandA, String islandB, int travelTime) {        
         graph.putIfAbsent(islandA, new ArrayList<>());
         graph.get(islandA).add(new Edge(islandB, travelTime));
 
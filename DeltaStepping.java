@@ -0,0 +1,384 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel single-source shortest paths over bare travel times, by delta-stepping (Meyer and Sanders),
+ * for a single search over a graph too large for one core to settle quickly.
+ *
+ * Tentative distances are grouped into buckets delta wide, which are settled in order. Within a
+ * bucket, the islands are relaxed in parallel along their light edges (travel time at most delta)
+ * until the bucket stops changing, and then once along their heavy edges, which can only reach
+ * later buckets. Distances are lowered with a compare-and-set on the distance array, so workers
+ * never lock. The result is the exact shortest travel time, the same as {@link ShortestPathEngine}
+ * with alpha 0; only the order in which islands are settled differs.
+ *
+ * Edges are copied once per instance with each island's light edges first. A delta of 0, the
+ * default, tunes it from the travel times: see {@link #tuneDelta}. A search is not thread-safe; it
+ * uses its pool's workers itself.
+ */
+public class DeltaStepping {
+
+    /**
+     * Islands from which {@link Algorithms#shortestPath} runs alpha-0 searches with delta-stepping,
+     * set with -Dnavigation.deltaStepping.minIslands. Smaller graphs settle faster on one core.
+     */
+    public static final int MIN_ISLANDS = Integer.getInteger("navigation.deltaStepping.minIslands", 1_000_000);
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int CHUNK = 512;           // Frontier islands relaxed by one task.
+    private static final int SAMPLE = 1 << 16;      // Travel times sampled to tune delta.
+
+    private final CompactGraph graph;
+    private final ForkJoinPool pool;
+    private final int[] distances;          // Tentative distance of each island; lowered only by casMin.
+    private final int[] frontierStamps;     // Phase in which each island was last relaxed.
+    private final int[] queuedStamps;       // Phase in which each island was last queued for a bucket.
+    private final int[] settledStamps;      // Bucket phase in which each island was last settled.
+    private int phase;
+    private int bucketPhase;                // Phase in which the current bucket was taken.
+
+    private int delta;
+    private int[] lightEnds;                // End of each island's light edges in the split arrays.
+    private int[] splitTargets;             // Edge targets, light edges first for each island.
+    private int[] splitTimes;
+
+    private IntArrayList[] buckets;         // Cyclic: bucket b is kept in slot b % buckets.length.
+    private IntArrayList[] improved = new IntArrayList[0];  // Islands each task lowered, by task.
+    private IntArrayList[] settled = new IntArrayList[0];   // Islands each task settled, by task.
+    private int settledCount;
+
+    /**
+     * Creates a search over the graph on the common fork-join pool, with delta tuned to its travel times.
+     *
+     * @param graph The compact island graph.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public DeltaStepping(CompactGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search over the graph on the given pool, with delta tuned to its travel times.
+     *
+     * @param graph The compact island graph.
+     * @param pool The pool whose workers relax the buckets.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public DeltaStepping(CompactGraph graph, ForkJoinPool pool) {
+        if (graph.hasNegativeTravelTimes()) {
+            throw new IllegalArgumentException("Delta-stepping needs non-negative travel times");
+        }
+        this.graph = graph;
+        this.pool = pool;
+        int n = graph.nodeCount();
+        this.distances = new int[n];
+        this.frontierStamps = new int[n];
+        this.queuedStamps = new int[n];
+        this.settledStamps = new int[n];
+        withDelta(0);
+    }
+
+    /**
+     * Whether {@link Algorithms#shortestPath} should search the graph with delta-stepping: it has at
+     * least {@link #MIN_ISLANDS} islands, no negative travel times, and more than one core to search with.
+     *
+     * @param graph The compact island graph.
+     * @return Whether an alpha-0 search of the graph should run in parallel.
+     */
+    public static boolean preferredFor(CompactGraph graph) {
+        return graph.nodeCount() >= MIN_ISLANDS && !graph.hasNegativeTravelTimes() && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Sets the bucket width and splits the edges into light and heavy ones accordingly.
+     *
+     * @param delta The bucket width, or 0 to tune it from the travel times.
+     * @return This search.
+     * @throws IllegalArgumentException if delta is negative.
+     */
+    public DeltaStepping withDelta(int delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Delta must not be negative: " + delta);
+        }
+        this.delta = delta == 0 ? tuneDelta(graph) : delta;
+        splitEdges();
+        // Every live distance lies within the current bucket plus the largest travel time.
+        int slots = graph.maxTravelTime() / this.delta + 2;
+        this.buckets = new IntArrayList[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            buckets[slot] = new IntArrayList();
+        }
+        return this;
+    }
+
+    // The bucket width in use.
+    public int delta() {
+        return delta;
+    }
+
+    /**
+     * Picks a bucket width from the travel times: the one below which an island has one light edge
+     * on average. Narrower buckets settle fewer islands twice; wider ones give each phase more islands
+     * to relax in parallel. For travel times spread evenly this is the max / degree that Meyer and
+     * Sanders prove work-efficient; taking it from sampled times keeps a few long lanes from inflating it.
+     *
+     * @param graph The compact island graph.
+     * @return A bucket width of at least 1.
+     */
+    public static int tuneDelta(CompactGraph graph) {
+        int edges = graph.edgeCount();
+        if (edges == 0) {
+            return 1;
+        }
+        int stride = Math.max(1, edges / SAMPLE);
+        int[] sample = new int[(edges + stride - 1) / stride];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = graph.travelTime(i * stride);
+        }
+        Arrays.sort(sample);
+        double degree = (double) edges / graph.nodeCount();
+        int rank = (int) Math.min(sample.length - 1, sample.length / degree);
+        return Math.max(1, sample[rank]);
+    }
+
+    /**
+     * Computes the shortest travel time from the source to every island.
+     *
+     * @param source The id of the starting island.
+     */
+    public void run(int source) {
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        for (IntArrayList bucket : buckets) {
+            bucket.clear();
+        }
+        settledCount = 0;
+        distances[source] = 0;
+        buckets[0].add(source);
+
+        IntArrayList frontier = new IntArrayList();
+        IntArrayList next = new IntArrayList();
+        IntArrayList settledIslands = new IntArrayList();
+        for (int bucket = nextBucket(0); bucket >= 0; bucket = nextBucket(bucket + 1)) {
+            // Take the bucket's islands, leaving an empty list in its slot.
+            int slot = bucket % buckets.length;
+            IntArrayList taken = buckets[slot];
+            buckets[slot] = frontier;
+            frontier = taken;
+
+            // Light edges can lead back into this bucket; relax until it stays empty.
+            nextPhase();
+            bucketPhase = phase;
+            int tasks = 0;
+            while (!frontier.isEmpty()) {
+                nextPhase();
+                int count = relax(frontier, bucket, true);
+                tasks = Math.max(tasks, count);
+                frontier.clear();
+                distribute(count, bucket, next);
+                IntArrayList swap = frontier;
+                frontier = next;
+                next = swap;
+            }
+
+            // Heavy edges only reach later buckets, so one pass over the settled islands suffices.
+            settledIslands.clear();
+            for (int task = 0; task < tasks; task++) {
+                for (int i = 0; i < settled[task].size(); i++) {
+                    settledIslands.add(settled[task].get(i));
+                }
+                settled[task].clear();
+            }
+            settledCount += settledIslands.size();
+            nextPhase();
+            distribute(relax(settledIslands, bucket, false), bucket, null);
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics.SEARCHES.increment();
+            Metrics.NODES_SETTLED.add(settledCount);
+        }
+    }
+
+    // Shortest travel time to the island from the last source, or Integer.MAX_VALUE if unreached.
+    public int distance(int node) {
+        return distances[node];
+    }
+
+    // Number of islands settled by the last search.
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Copies the last search's distances into the array.
+     *
+     * @param into An array of at least nodeCount elements.
+     * @return The same array, with Integer.MAX_VALUE for unreached islands.
+     */
+    public int[] copyDistances(int[] into) {
+        System.arraycopy(distances, 0, into, 0, distances.length);
+        return into;
+    }
+
+    // First non-empty bucket at or after the given one, or -1 if every bucket is empty.
+    private int nextBucket(int from) {
+        for (int offset = 0; offset < buckets.length; offset++) {
+            if (!buckets[(from + offset) % buckets.length].isEmpty()) {
+                return from + offset;
+            }
+        }
+        return -1;
+    }
+
+    // Moves the islands lowered in the last phase into their buckets; those still in the current one go to next.
+    private void distribute(int tasks, int bucket, IntArrayList next) {
+        for (int task = 0; task < tasks; task++) {
+            IntArrayList islands = improved[task];
+            for (int i = 0; i < islands.size(); i++) {
+                int island = islands.get(i);
+                int target = distances[island] / delta;
+                if (target == bucket && next != null) {
+                    next.add(island);
+                } else {
+                    buckets[target % buckets.length].add(island);
+                }
+            }
+        }
+    }
+
+    // Relaxes the islands' light or heavy edges, on the pool if they fill more than one chunk; returns the task count.
+    private int relax(IntArrayList islands, int bucket, boolean light) {
+        int tasks = (islands.size() + CHUNK - 1) / CHUNK;
+        if (tasks > improved.length) {
+            int old = improved.length;
+            improved = Arrays.copyOf(improved, tasks);
+            settled = Arrays.copyOf(settled, tasks);
+            for (int task = old; task < tasks; task++) {
+                improved[task] = new IntArrayList();
+                settled[task] = new IntArrayList();
+            }
+        }
+        for (int task = 0; task < tasks; task++) {
+            improved[task].clear();
+        }
+        RelaxTask task = new RelaxTask(islands.toArray(), 0, islands.size(), bucket, light);
+        if (tasks > 1) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+        return tasks;
+    }
+
+    // Starts a new phase, clearing the stamps only when the phase counter wraps around.
+    private void nextPhase() {
+        phase++;
+        if (phase == Integer.MAX_VALUE) {
+            Arrays.fill(frontierStamps, 0);
+            Arrays.fill(queuedStamps, 0);
+            Arrays.fill(settledStamps, 0);
+            phase = 1;
+        }
+    }
+
+    // Copies the edges so that each island's light edges come before its heavy ones.
+    private void splitEdges() {
+        int n = graph.nodeCount();
+        lightEnds = new int[n];
+        splitTargets = new int[graph.edgeCount()];
+        splitTimes = new int[graph.edgeCount()];
+        for (int island = 0; island < n; island++) {
+            int light = graph.edgeStart(island);
+            int heavy = graph.edgeEnd(island);
+            for (int edge = graph.edgeStart(island); edge < graph.edgeEnd(island); edge++) {
+                int slot = graph.travelTime(edge) <= delta ? light++ : --heavy;
+                splitTargets[slot] = graph.target(edge);
+                splitTimes[slot] = graph.travelTime(edge);
+            }
+            lightEnds[island] = light;
+        }
+    }
+
+    // Lowers the island's distance to the candidate if it is shorter, returning whether it did.
+    private boolean casMin(int island, int candidate) {
+        int current = (int) INTS.getVolatile(distances, island);
+        while (candidate < current) {
+            if (INTS.compareAndSet(distances, island, current, candidate)) {
+                return true;
+            }
+            current = (int) INTS.getVolatile(distances, island);
+        }
+        return false;
+    }
+
+    // Claims the island's stamp for the value, returning false if another worker already holds it.
+    private static boolean claim(int[] stamps, int island, int value) {
+        int stamp = (int) INTS.getVolatile(stamps, island);
+        return stamp != value && INTS.compareAndSet(stamps, island, stamp, value);
+    }
+
+    /**
+     * Relaxes a range of the frontier, splitting it until each task holds one chunk. Each chunk
+     * writes to its own output lists, so workers never share a list.
+     */
+    private class RelaxTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int bucket;
+        private final boolean light;    // Light edges within the bucket, or heavy edges of settled islands.
+
+        RelaxTask(int[] frontier, int from, int to, int bucket, boolean light) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.bucket = bucket;
+            this.light = light;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int middle = from + ((to - from) / CHUNK + 1) / 2 * CHUNK;
+                invokeAll(new RelaxTask(frontier, from, middle, bucket, light),
+                        new RelaxTask(frontier, middle, to, bucket, light));
+                return;
+            }
+            IntArrayList lowered = improved[from / CHUNK];
+            IntArrayList settledHere = settled[from / CHUNK];
+            int relaxed = 0;
+            for (int i = from; i < to; i++) {
+                int island = frontier[i];
+                int distance = (int) INTS.getVolatile(distances, island);
+                int start;
+                int end;
+                if (light) {
+                    // Skip islands lowered into an earlier bucket, and repeats within this phase.
+                    if (distance / delta != bucket || !claim(frontierStamps, island, phase)) continue;
+                    if (claim(settledStamps, island, bucketPhase)) {
+                        settledHere.add(island);
+                    }
+                    start = graph.edgeStart(island);
+                    end = lightEnds[island];
+                } else {
+                    start = lightEnds[island];
+                    end = graph.edgeEnd(island);
+                }
+                for (int edge = start; edge < end; edge++) {
+                    int destination = splitTargets[edge];
+                    relaxed++;
+                    if (casMin(destination, distance + splitTimes[edge]) && claim(queuedStamps, destination, phase)) {
+                        lowered.add(destination);
+                    }
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.EDGES_RELAXED.add(relaxed);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Read-only travel distances between every pair of islands, indexed by island id.
+ *
+ * Implemented by {@link DistanceOracle}, which computes rows on demand, by {@link DistanceMatrixStore},
+ * which reads them from a memory-mapped file, and by plain in-memory matrices through
+ * {@link #of(int[][])}. Integer.MAX_VALUE marks an unreachable pair.
+ */
+public interface DistanceMatrix {
+
+    // Number of islands, so valid ids run from 0 to size() - 1.
+    int size();
+
+    // Distance from one island to another, or Integer.MAX_VALUE if unreachable.
+    int distance(int from, int to);
+
+    /**
+     * Copies every distance from one island into an array.
+     *
+     * @param from The id of the source island.
+     * @param into An array of at least size() elements to fill.
+     * @return The array, indexed by island id.
+     */
+    default int[] copyRow(int from, int[] into) {
+        int size = size();
+        for (int to = 0; to < size; to++) {
+            into[to] = distance(from, to);
+        }
+        return into;
+    }
+
+    /**
+     * Wraps a square matrix without copying it.
+     *
+     * @param matrix matrix[from][to] holds the distance between two islands.
+     * @return A DistanceMatrix reading from the array.
+     */
+    static DistanceMatrix of(int[][] matrix) {
+        return new DistanceMatrix() {
+            @Override
+            public int size() {
+                return matrix.length;
+            }
+
+            @Override
+            public int distance(int from, int to) {
+                return matrix[from][to];
+            }
+        };
+    }
+}
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed all-pairs distances persisted in a file and read through memory maps.
+ *
+ * A matrix is written once, by {@link #write} or {@link #compute}, and then opened by any number
+ * of readers. The rows are never copied onto the heap: {@link #distance} and {@link #copyRow} read
+ * the mapped file directly and allocate nothing, and every JVM on the host that opens the same file
+ * shares its pages through the operating system's page cache. Only the island names are loaded.
+ *
+ * The file is little-endian:
+ * <pre>
+ *   int magic "ISLD", int version, int size, int cellBytes (4 or 2), long dictionaryBytes, long rowsOffset
+ *   size x (int length, UTF-8 bytes)         island names in id order
+ *   padding to rowsOffset, a multiple of 8
+ *   size x size cells, row-major               int32, or uint16 with 0xFFFF for unreachable
+ * </pre>
+ * Files are written to a temporary sibling and moved into place, so readers never see a partial matrix.
+ */
+public class DistanceMatrixStore implements DistanceMatrix, AutoCloseable {
+
+    private static final int MAGIC = 0x49534C44;          // "ISLD"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int CHUNK_BYTES = 1 << 30;       // Largest region mapped at once.
+    private static final int UNREACHABLE_16 = 0xFFFF;     // Unreachable marker in 16-bit cells.
+
+    /**
+     * Width of each stored distance.
+     */
+    public enum Encoding {
+        INT32(4),   // Any int distance; Integer.MAX_VALUE marks unreachable pairs.
+        UINT16(2);  // Distances from 0 to 65534, at half the size.
+
+        private final int cellBytes;
+
+        Encoding(int cellBytes) {
+            this.cellBytes = cellBytes;
+        }
+
+        // Bytes each distance takes in the file.
+        public int cellBytes() {
+            return cellBytes;
+        }
+    }
+
+    private final int size;
+    private final Encoding encoding;
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final MappedByteBuffer[] chunks;    // Whole rows, rowsPerChunk of them per chunk.
+    private final int rowsPerChunk;
+    private final int rowBytes;
+
+    private DistanceMatrixStore(int size, Encoding encoding, String[] names, MappedByteBuffer[] chunks, int rowsPerChunk) {
+        this.size = size;
+        this.encoding = encoding;
+        this.names = names;
+        this.chunks = chunks;
+        this.rowsPerChunk = rowsPerChunk;
+        this.rowBytes = size * encoding.cellBytes;
+        this.ids = new HashMap<>(size * 4 / 3 + 1);
+        for (int id = 0; id < size; id++) {
+            ids.put(names[id], id);
+        }
+    }
+
+    /**
+     * Writes every distance of the matrix, with the graph's island names as the dictionary.
+     *
+     * @param graph The compact graph the matrix was computed on.
+     * @param matrix The distances to store.
+     * @param path The file to create or replace.
+     * @param encoding The width of each stored distance.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a distance does not fit the encoding.
+     */
+    public static void write(CompactGraph graph, DistanceMatrix matrix, Path path, Encoding encoding) throws IOException {
+        int size = graph.nodeCount();
+        if (matrix.size() != size) {
+            throw new IllegalArgumentException("Matrix has " + matrix.size() + " islands but the graph has " + size);
+        }
+        Path temporary = temporary(path);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long rowsOffset = writeHeader(channel, graph, encoding);
+            int[] row = new int[size];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(size * encoding.cellBytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int from = 0; from < size; from++) {
+                matrix.copyRow(from, row);
+                writeRow(channel, buffer, row, encoding, rowsOffset + (long) from * buffer.capacity());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        publish(temporary, path);
+    }
+
+    /**
+     * Computes the matrix with one search per island, as {@link Algorithms#shortestPath} would, and
+     * writes each row as soon as it is ready. Searches run in parallel on the common fork-join pool,
+     * and only one row per worker is held in memory.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @param path The file to create or replace.
+     * @param encoding The width of each stored distance.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a distance does not fit the encoding.
+     */
+    public static void compute(CompactGraph graph, Map<String, Integer> populations, double alpha, Path path, Encoding encoding) throws IOException {
+        int size = graph.nodeCount();
+        int[] sources = new int[size];
+        for (int island = 0; island < size; island++) {
+            sources[island] = island;
+        }
+        Path temporary = temporary(path);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long rowsOffset = writeHeader(channel, graph, encoding);
+            int rowBytes = size * encoding.cellBytes;
+            ThreadLocal<int[]> rows = ThreadLocal.withInitial(() -> new int[size]);
+            ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(rowBytes).order(ByteOrder.LITTLE_ENDIAN));
+            new BatchShortestPaths(graph, populations).forEach(sources, alpha, (source, result) -> {
+                try {
+                    writeRow(channel, buffers.get(), result.copyDistances(rows.get()), encoding, rowsOffset + (long) source * rowBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temporary);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        publish(temporary, path);
+    }
+
+    /**
+     * Maps a matrix file for reading.
+     *
+     * @param path A file written by {@link #write} or {@link #compute}.
+     * @return The matrix, backed by the file.
+     * @throws IOException if the file cannot be read or is not a distance matrix file.
+     */
+    public static DistanceMatrixStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is not a distance matrix file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a distance matrix file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported version " + version);
+            }
+            int size = header.getInt();
+            int cellBytes = header.getInt();
+            Encoding encoding = cellBytes == 4 ? Encoding.INT32 : cellBytes == 2 ? Encoding.UINT16 : null;
+            if (encoding == null) {
+                throw new IOException(path + " has unsupported cell size " + cellBytes);
+            }
+            long dictionaryBytes = header.getLong();
+            long rowsOffset = header.getLong();
+            long rowBytes = (long) size * cellBytes;
+            if (channel.size() < rowsOffset + rowBytes * size) {
+                throw new IOException(path + " is truncated");
+            }
+
+            String[] names = new String[size];
+            long position = HEADER_BYTES;
+            int id = 0;
+            while (id < size) {
+                // Map the dictionary in chunks so very large dictionaries stay addressable.
+                long length = Math.min(CHUNK_BYTES, HEADER_BYTES + dictionaryBytes - position);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+                while (id < size && chunk.remaining() >= 4) {
+                    int nameLength = chunk.getInt(chunk.position());
+                    if (chunk.remaining() < 4 + nameLength) break;
+                    chunk.getInt();
+                    byte[] bytes = new byte[nameLength];
+                    chunk.get(bytes);
+                    names[id++] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                if (chunk.position() == 0) {
+                    throw new IOException(path + " has a truncated dictionary");
+                }
+                position += chunk.position();
+            }
+
+            int rowsPerChunk = (int) Math.max(1, Math.min(size, CHUNK_BYTES / Math.max(1, rowBytes)));
+            MappedByteBuffer[] chunks = new MappedByteBuffer[size == 0 ? 0 : (size + rowsPerChunk - 1) / rowsPerChunk];
+            for (int i = 0; i < chunks.length; i++) {
+                int rows = Math.min(rowsPerChunk, size - i * rowsPerChunk);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, rowsOffset + i * rowsPerChunk * rowBytes, rows * rowBytes);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            // The mappings stay valid after the channel is closed.
+            return new DistanceMatrixStore(size, encoding, names, chunks, rowsPerChunk);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        MappedByteBuffer chunk = chunks[from / rowsPerChunk];
+        int index = (from % rowsPerChunk) * rowBytes + to * encoding.cellBytes;
+        if (encoding == Encoding.INT32) {
+            return chunk.getInt(index);
+        }
+        int distance = chunk.getShort(index) & 0xFFFF;
+        return distance == UNREACHABLE_16 ? Integer.MAX_VALUE : distance;
+    }
+
+    @Override
+    public int[] copyRow(int from, int[] into) {
+        MappedByteBuffer chunk = chunks[from / rowsPerChunk];
+        int index = (from % rowsPerChunk) * rowBytes;
+        if (encoding == Encoding.INT32) {
+            for (int to = 0; to < size; to++, index += 4) {
+                into[to] = chunk.getInt(index);
+            }
+        } else {
+            for (int to = 0; to < size; to++, index += 2) {
+                int distance = chunk.getShort(index) & 0xFFFF;
+                into[to] = distance == UNREACHABLE_16 ? Integer.MAX_VALUE : distance;
+            }
+        }
+        return into;
+    }
+
+    // Width of the stored distances.
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    // Name of the island.
+    public String name(int island) {
+        return names[island];
+    }
+
+    // Id of the island, or -1 if the matrix does not cover it.
+    public int id(String island) {
+        Integer id = ids.get(island);
+        return id == null ? -1 : id;
+    }
+
+    // The mappings are released by the garbage collector; closing only documents the end of use.
+    @Override
+    public void close() {
+    }
+
+    // Writes the header and dictionary; returns the offset of the first row.
+    private static long writeHeader(FileChannel channel, CompactGraph graph, Encoding encoding) throws IOException {
+        int size = graph.nodeCount();
+        byte[][] names = new byte[size][];
+        long dictionaryBytes = 0;
+        for (int id = 0; id < size; id++) {
+            names[id] = graph.name(id).getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += 4 + names[id].length;
+        }
+        long rowsOffset = HEADER_BYTES + dictionaryBytes;
+        rowsOffset += (8 - rowsOffset % 8) % 8;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(encoding.cellBytes).putLong(dictionaryBytes).putLong(rowsOffset);
+        for (byte[] name : names) {
+            if (buffer.remaining() < 4) flush(channel, buffer);
+            buffer.putInt(name.length);
+            int written = 0;
+            while (written < name.length) {
+                if (!buffer.hasRemaining()) flush(channel, buffer);
+                int length = Math.min(buffer.remaining(), name.length - written);
+                buffer.put(name, written, length);
+                written += length;
+            }
+        }
+        flush(channel, buffer);
+        return rowsOffset;
+    }
+
+    // Encodes the row into the buffer and writes it at the position; safe to call from several threads.
+    private static void writeRow(FileChannel channel, ByteBuffer buffer, int[] row, Encoding encoding, long position) throws IOException {
+        buffer.clear();
+        int size = buffer.capacity() / encoding.cellBytes;
+        for (int to = 0; to < size; to++) {
+            int distance = row[to];
+            if (encoding == Encoding.INT32) {
+                buffer.putInt(distance);
+            } else if (distance == Integer.MAX_VALUE) {
+                buffer.putShort((short) UNREACHABLE_16);
+            } else if (distance >= 0 && distance < UNREACHABLE_16) {
+                buffer.putShort((short) distance);
+            } else {
+                throw new IllegalArgumentException("Distance " + distance + " does not fit in 16 bits; use INT32");
+            }
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static Path temporary(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    // Moves the finished file into place, atomically where the file system allows.
+    private static void publish(Path temporary, Path path) throws IOException {
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
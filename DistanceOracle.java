@@ -0,0 +1,291 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Memoizing source-to-island distance lookups over a {@link CompactGraph}.
+ *
+ * Single-source rows are computed on demand with a {@link ShortestPathEngine} and kept in an LRU
+ * cache bounded by a memory budget. The cache is locked only to look a row up or store it; misses
+ * are searched outside the lock with engines borrowed from a pool, so concurrent callers search in
+ * parallel. Two callers missing the same row may both search it, and the second keeps the first's.
+ * The full matrix can also be precomputed up front, either with one Dijkstra run per source spread
+ * across cores or, for small dense graphs, with a blocked Floyd–Warshall. Rows are only valid for
+ * the graph, populations and alpha they were built with; call {@link #invalidate()} or
+ * {@link #rebind} when any of them change.
+ */
+public class DistanceOracle implements DistanceMatrix {
+
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;    // 64 MiB of cached rows.
+    private static final int BLOCK = 64;                        // Floyd–Warshall tile size.
+
+    private CompactGraph graph;
+    private int[] populationWeights;
+    private final double alpha;
+    private final long maxBytes;
+    private LinkedHashMap<Integer, int[]> rows;     // Cached rows in least-recently-used order.
+    private ConcurrentLinkedQueue<ShortestPathEngine> engines;  // Compute rows on a cache miss, one per caller.
+    private int generation;                         // Bumped whenever cached rows are dropped.
+    private volatile int[][] matrix;                // Full matrix once precomputed, otherwise null.
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an oracle with the default memory budget.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     */
+    public DistanceOracle(CompactGraph graph, Map<String, Integer> populations, double alpha) {
+        this(graph, populations, alpha, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates an oracle whose cached rows use at most roughly {@code maxBytes} of heap.
+     * At least one row is always kept.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @param maxBytes The memory budget for cached rows.
+     */
+    public DistanceOracle(CompactGraph graph, Map<String, Integer> populations, double alpha, long maxBytes) {
+        this.alpha = alpha;
+        this.maxBytes = maxBytes;
+        rebind(graph, populations);
+    }
+
+    /**
+     * Points the oracle at a new graph or new population data and drops every cached row.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     */
+    public synchronized void rebind(CompactGraph graph, Map<String, Integer> populations) {
+        this.graph = graph;
+        this.populationWeights = Algorithms.populationWeights(graph, populations);
+        this.engines = new ConcurrentLinkedQueue<>();
+        invalidate();
+    }
+
+    // Drops every cached row and the precomputed matrix.
+    public synchronized void invalidate() {
+        int maxRows = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / rowBytes()));
+        rows = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > maxRows;
+            }
+        };
+        matrix = null;
+        generation++;
+    }
+
+    // The graph the rows are computed on.
+    public synchronized CompactGraph graph() {
+        return graph;
+    }
+
+    // Number of islands in the graph.
+    @Override
+    public synchronized int size() {
+        return graph.nodeCount();
+    }
+
+    /**
+     * Looks up the distance between two islands, computing the source's row if it is not cached.
+     *
+     * @param from The id of the source island.
+     * @param to The id of the destination island.
+     * @return The shortest distance, or Integer.MAX_VALUE if the destination is unreachable.
+     */
+    @Override
+    public int distance(int from, int to) {
+        int[][] full = matrix;
+        if (full != null) {
+            return full[from][to];
+        }
+        return row(from)[to];
+    }
+
+    /**
+     * Returns every distance from the source island. The returned array is shared; do not modify it.
+     *
+     * @param from The id of the source island.
+     * @return An array indexed by island id.
+     */
+    public int[] row(int from) {
+        CompactGraph graph;
+        int[] populationWeights;
+        ConcurrentLinkedQueue<ShortestPathEngine> engines;
+        int generation;
+        synchronized (this) {
+            if (matrix != null) {
+                hits++;
+                if (Metrics.ENABLED) {
+                    Metrics.CACHE_HITS.increment();
+                }
+                return matrix[from];
+            }
+            int[] row = rows.get(from);
+            if (row != null) {
+                hits++;
+                if (Metrics.ENABLED) {
+                    Metrics.CACHE_HITS.increment();
+                }
+                return row;
+            }
+            misses++;
+            if (Metrics.ENABLED) {
+                Metrics.CACHE_MISSES.increment();
+            }
+            graph = this.graph;
+            populationWeights = this.populationWeights;
+            engines = this.engines;
+            generation = this.generation;
+        }
+
+        // Search outside the lock so other callers' hits and misses proceed meanwhile.
+        ShortestPathEngine engine = engines.poll();
+        if (engine == null) {
+            engine = new ShortestPathEngine(graph).withPopulationWeights(populationWeights);
+        }
+        int[] row;
+        try {
+            engine.run(from, alpha);
+            row = engine.copyDistances(new int[graph.nodeCount()]);
+        } finally {
+            engines.offer(engine);
+        }
+
+        synchronized (this) {
+            // Rows searched before an invalidate or rebind are returned but not cached.
+            if (generation == this.generation && matrix == null) {
+                int[] cached = rows.get(from);
+                if (cached != null) {
+                    return cached;
+                }
+                rows.put(from, row);
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public int[] copyRow(int from, int[] into) {
+        int[] row = row(from);
+        System.arraycopy(row, 0, into, 0, row.length);
+        return into;
+    }
+
+    /**
+     * Computes the full matrix with one search per source, spread across the common fork-join pool.
+     *
+     * @throws IllegalStateException if the matrix does not fit the memory budget.
+     */
+    public synchronized void precomputeAll() {
+        checkMatrixFits();
+        CompactGraph graph = this.graph;
+        int[] populationWeights = this.populationWeights;
+        int[][] full = new int[graph.nodeCount()][];
+        ThreadLocal<ShortestPathEngine> engines = ThreadLocal.withInitial(
+                () -> new ShortestPathEngine(graph).withPopulationWeights(populationWeights));
+        IntStream.range(0, graph.nodeCount()).parallel().forEach(source -> {
+            ShortestPathEngine local = engines.get();
+            local.run(source, alpha);
+            full[source] = local.copyDistances(new int[graph.nodeCount()]);
+        });
+        matrix = full;
+        rows.clear();
+    }
+
+    /**
+     * Computes the full matrix with a blocked Floyd–Warshall, which beats repeated Dijkstra on small
+     * dense graphs. Only plain travel times are supported, so alpha must be 0.
+     *
+     * @throws IllegalStateException if alpha is not 0 or the matrix does not fit the memory budget.
+     */
+    public synchronized void precomputeFloydWarshall() {
+        if (alpha != 0) {
+            throw new IllegalStateException("Floyd-Warshall precomputation requires alpha = 0");
+        }
+        checkMatrixFits();
+        int n = graph.nodeCount();
+        int[][] full = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(full[i], Integer.MAX_VALUE);
+            full[i][i] = 0;
+            for (int edge = graph.edgeStart(i); edge < graph.edgeEnd(i); edge++) {
+                int j = graph.target(edge);
+                full[i][j] = Math.min(full[i][j], graph.travelTime(edge));
+            }
+        }
+
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        for (int kb = 0; kb < blocks; kb++) {
+            final int k = kb;
+            // The diagonal tile depends only on itself.
+            relaxTile(full, k, k, k, n);
+            // Tiles in the pivot row and column depend on the diagonal tile.
+            IntStream.range(0, blocks).parallel().filter(b -> b != k).forEach(b -> {
+                relaxTile(full, k, b, k, n);
+                relaxTile(full, b, k, k, n);
+            });
+            // Every remaining tile depends on its pivot row and column tiles.
+            IntStream.range(0, blocks * blocks).parallel().forEach(tile -> {
+                int ib = tile / blocks;
+                int jb = tile % blocks;
+                if (ib != k && jb != k) {
+                    relaxTile(full, ib, jb, k, n);
+                }
+            });
+        }
+        matrix = full;
+        rows.clear();
+    }
+
+    // Number of lookups served from the cache or matrix.
+    public synchronized long hits() {
+        return hits;
+    }
+
+    // Number of lookups that had to run a search.
+    public synchronized long misses() {
+        return misses;
+    }
+
+    // Relaxes tile (ib, jb) through every intermediate island of pivot block kb.
+    private static void relaxTile(int[][] d, int ib, int jb, int kb, int n) {
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jEnd = Math.min(n, (jb + 1) * BLOCK);
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int[] rowK = d[k];
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int[] rowI = d[i];
+                int ik = rowI[k];
+                if (ik == Integer.MAX_VALUE) continue;
+                for (int j = jb * BLOCK; j < jEnd; j++) {
+                    int kj = rowK[j];
+                    if (kj != Integer.MAX_VALUE && ik + kj < rowI[j]) {
+                        rowI[j] = ik + kj;
+                    }
+                }
+            }
+        }
+    }
+
+    // Approximate heap footprint of one cached row.
+    private long rowBytes() {
+        return 4L * graph.nodeCount() + 64;
+    }
+
+    private void checkMatrixFits() {
+        if (rowBytes() * graph.nodeCount() > maxBytes) {
+            throw new IllegalStateException("Distance matrix for " + graph.nodeCount() + " islands exceeds the " + maxBytes + " byte budget");
+        }
+    }
+}
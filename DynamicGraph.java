@@ -0,0 +1,289 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutable island graph for lanes whose travel times change while the program runs.
+ *
+ * Lanes follow {@link DataLoader#addEdge} semantics: {@link #setLane} and {@link #removeLane} change
+ * both directions at once. Each island keeps growable lists of its outgoing and incoming edges, so
+ * an update costs O(degree). Every directed edge change is reported to the registered listeners,
+ * which is how {@link DynamicShortestPaths} trees repair themselves. Parallel lanes between the same
+ * two islands are collapsed to the fastest one. A dynamic graph is not thread-safe.
+ */
+public class DynamicGraph {
+
+    /**
+     * Receives every change to a directed edge, after the graph has been updated.
+     */
+    public interface EdgeListener {
+
+        /**
+         * @param from The id of the edge's source island.
+         * @param to The id of the edge's destination island.
+         * @param oldTravelTime The travel time before the change, or -1 if the edge was absent.
+         * @param newTravelTime The travel time after the change, or -1 if the edge was removed.
+         */
+        void edgeChanged(int from, int to, int oldTravelTime, int newTravelTime);
+    }
+
+    private final List<String> names = new ArrayList<>();          // Island name for each id.
+    private final Map<String, Integer> ids = new HashMap<>();       // Island name to id.
+    private IntArrayList[] targets = new IntArrayList[16];          // Destinations of each island's outgoing edges.
+    private IntArrayList[] travelTimes = new IntArrayList[16];      // Travel times matching targets.
+    private IntArrayList[] sources = new IntArrayList[16];          // Origins of each island's incoming edges.
+    private IntArrayList[] incomingTimes = new IntArrayList[16];    // Travel times matching sources.
+    private final List<EdgeListener> listeners = new ArrayList<>();
+    private int edgeCount;
+
+    /**
+     * Copies a compact graph, keeping its island ids.
+     *
+     * @param graph The compact island graph; every travel time must be positive.
+     * @return A dynamic graph with the same islands and edges.
+     */
+    public static DynamicGraph fromCompactGraph(CompactGraph graph) {
+        DynamicGraph dynamic = new DynamicGraph();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            dynamic.addIsland(graph.name(node));
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int current = dynamic.travelTime(node, graph.target(edge));
+                if (current < 0 || graph.travelTime(edge) < current) {
+                    dynamic.setEdge(node, graph.target(edge), graph.travelTime(edge));
+                }
+            }
+        }
+        return dynamic;
+    }
+
+    /**
+     * Copies the map form returned by {@link DataLoader#getIslandGraph()}, with ids in map order.
+     *
+     * @param graph The island graph.
+     * @return A dynamic graph with the same islands and edges.
+     */
+    public static DynamicGraph fromMap(Map<String, List<DataLoader.Edge>> graph) {
+        return fromCompactGraph(CompactGraph.fromMap(graph));
+    }
+
+    // Registers a listener for every later edge change.
+    public void addListener(EdgeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Stops notifying the listener.
+    public void removeListener(EdgeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the id of the island, adding it without any lanes if it is new.
+     *
+     * @param island The island name.
+     * @return The island's id.
+     */
+    public int addIsland(String island) {
+        Integer id = ids.get(island);
+        if (id != null) {
+            return id;
+        }
+        int node = names.size();
+        if (node == targets.length) {
+            int capacity = node * 2;
+            targets = Arrays.copyOf(targets, capacity);
+            travelTimes = Arrays.copyOf(travelTimes, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            incomingTimes = Arrays.copyOf(incomingTimes, capacity);
+        }
+        targets[node] = new IntArrayList(4);
+        travelTimes[node] = new IntArrayList(4);
+        sources[node] = new IntArrayList(4);
+        incomingTimes[node] = new IntArrayList(4);
+        names.add(island);
+        ids.put(island, node);
+        return node;
+    }
+
+    /**
+     * Adds a lane between two islands or changes its travel time, in both directions.
+     * Islands that are not yet in the graph are added.
+     *
+     * @param source The name of one island.
+     * @param destination The name of the other island.
+     * @param travelTime The new travel time; must be positive.
+     */
+    public void setLane(String source, String destination, int travelTime) {
+        int from = addIsland(source);
+        int to = addIsland(destination);
+        setEdge(from, to, travelTime);
+        setEdge(to, from, travelTime);
+    }
+
+    /**
+     * Removes the lane between two islands in both directions. Missing lanes are ignored.
+     *
+     * @param source The name of one island.
+     * @param destination The name of the other island.
+     */
+    public void removeLane(String source, String destination) {
+        int from = id(source);
+        int to = id(destination);
+        if (from < 0 || to < 0) return;
+        removeEdge(from, to);
+        removeEdge(to, from);
+    }
+
+    /**
+     * Adds a directed edge or changes its travel time and notifies the listeners.
+     *
+     * @param from The id of the source island.
+     * @param to The id of the destination island.
+     * @param travelTime The new travel time; must be positive.
+     * @return The previous travel time, or -1 if the edge was absent.
+     */
+    public int setEdge(int from, int to, int travelTime) {
+        if (travelTime <= 0) {
+            throw new IllegalArgumentException("Travel time must be positive, got " + travelTime);
+        }
+        int index = indexOf(targets[from], to);
+        int old;
+        if (index >= 0) {
+            old = travelTimes[from].get(index);
+            if (old == travelTime) return old;
+            travelTimes[from].set(index, travelTime);
+            incomingTimes[to].set(indexOf(sources[to], from), travelTime);
+        } else {
+            old = -1;
+            targets[from].add(to);
+            travelTimes[from].add(travelTime);
+            sources[to].add(from);
+            incomingTimes[to].add(travelTime);
+            edgeCount++;
+        }
+        for (EdgeListener listener : listeners) {
+            listener.edgeChanged(from, to, old, travelTime);
+        }
+        return old;
+    }
+
+    /**
+     * Removes a directed edge and notifies the listeners.
+     *
+     * @param from The id of the source island.
+     * @param to The id of the destination island.
+     * @return The removed edge's travel time, or -1 if there was no such edge.
+     */
+    public int removeEdge(int from, int to) {
+        int index = indexOf(targets[from], to);
+        if (index < 0) return -1;
+        int old = travelTimes[from].get(index);
+        swapRemove(targets[from], travelTimes[from], index);
+        swapRemove(sources[to], incomingTimes[to], indexOf(sources[to], from));
+        edgeCount--;
+        for (EdgeListener listener : listeners) {
+            listener.edgeChanged(from, to, old, -1);
+        }
+        return old;
+    }
+
+    // Travel time of the directed edge, or -1 if there is none.
+    public int travelTime(int from, int to) {
+        int index = indexOf(targets[from], to);
+        return index < 0 ? -1 : travelTimes[from].get(index);
+    }
+
+    // Number of islands in the graph.
+    public int nodeCount() {
+        return names.size();
+    }
+
+    // Number of directed edges in the graph (each lane counts twice).
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    // Id of the named island, or -1 if it is not in the graph.
+    public int id(String island) {
+        Integer id = ids.get(island);
+        return id == null ? -1 : id;
+    }
+
+    // Name of the island with the given id.
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    // Number of edges leaving the island.
+    public int degree(int node) {
+        return targets[node].size();
+    }
+
+    // Destination of the island's i-th outgoing edge.
+    public int targetAt(int node, int i) {
+        return targets[node].get(i);
+    }
+
+    // Travel time of the island's i-th outgoing edge.
+    public int travelTimeAt(int node, int i) {
+        return travelTimes[node].get(i);
+    }
+
+    // Number of edges arriving at the island.
+    public int inDegree(int node) {
+        return sources[node].size();
+    }
+
+    // Origin of the island's i-th incoming edge.
+    public int sourceAt(int node, int i) {
+        return sources[node].get(i);
+    }
+
+    // Travel time of the island's i-th incoming edge.
+    public int incomingTravelTimeAt(int node, int i) {
+        return incomingTimes[node].get(i);
+    }
+
+    /**
+     * Snapshots the current graph, for the algorithms that work on an immutable {@link CompactGraph}.
+     *
+     * @return A compact graph with the same island ids and edges.
+     */
+    public CompactGraph toCompactGraph() {
+        int n = names.size();
+        int[] offsets = new int[n + 1];
+        int[] edgeTargets = new int[edgeCount];
+        int[] edgeTimes = new int[edgeCount];
+        int position = 0;
+        for (int node = 0; node < n; node++) {
+            offsets[node] = position;
+            for (int i = 0; i < targets[node].size(); i++) {
+                edgeTargets[position] = targets[node].get(i);
+                edgeTimes[position] = travelTimes[node].get(i);
+                position++;
+            }
+        }
+        offsets[n] = position;
+        return new CompactGraph(names.toArray(new String[0]), offsets, edgeTargets, edgeTimes);
+    }
+
+    private static int indexOf(IntArrayList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    // Removes the entry at the index from both parallel lists by moving the last entry into its place.
+    private static void swapRemove(IntArrayList nodes, IntArrayList times, int index) {
+        int lastNode = nodes.removeLast();
+        int lastTime = times.removeLast();
+        if (index < nodes.size()) {
+            nodes.set(index, lastNode);
+            times.set(index, lastTime);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.Arrays;
+
+/**
+ * Single-source shortest-path tree over a {@link DynamicGraph} that repairs itself when edges change.
+ *
+ * Follows Ramalingam and Reps: each island counts its tight incoming edges, the edges that lie on
+ * some shortest path. When an edge gets faster, a Dijkstra search spreads the improvement outward
+ * from its destination. When a tight edge gets slower or is removed, the islands left without any
+ * tight incoming edge are collected as the affected set, seeded with their best distance through
+ * unaffected neighbours, and settled with a Dijkstra search restricted to that set. Either way the
+ * work is proportional to the islands whose distance changes and their edges, not the whole graph.
+ *
+ * Distances are plain travel times (alpha = 0). The tree registers itself with the graph on
+ * construction; call {@link #detach()} once it is no longer needed. A tree is not thread-safe.
+ */
+public class DynamicShortestPaths implements DynamicGraph.EdgeListener {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final DynamicGraph graph;
+    private final int source;
+    private int[] distances;            // Shortest travel time from the source, UNREACHABLE if none.
+    private int[] predecessors;         // Previous island on one shortest path, -1 for the source and unreached islands.
+    private int[] tightCounts;          // Incoming edges u to v with distance[u] + travelTime = distance[v].
+    private int[] stamps;               // Epoch in which each island was last marked affected or changed.
+    private IndexedMinHeap heap;
+    private final IntArrayList changed = new IntArrayList();    // Islands whose distance the current update rewrote.
+    private int epoch;
+    private int lastChanged;            // Islands rewritten by the last update.
+
+    /**
+     * Computes the tree from scratch and starts following the graph's changes.
+     *
+     * @param graph The dynamic island graph.
+     * @param source The id of the starting island.
+     */
+    public DynamicShortestPaths(DynamicGraph graph, int source) {
+        this.graph = graph;
+        this.source = source;
+        allocate(graph.nodeCount());
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(predecessors, -1);
+
+        nextEpoch();
+        distances[source] = 0;
+        mark(source);
+        heap.push(source, 0);
+        propagateDecrease();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            recount(node);
+        }
+        lastChanged = changed.size();
+        graph.addListener(this);
+    }
+
+    // Stops following the graph's changes; the tree keeps its last distances.
+    public void detach() {
+        graph.removeListener(this);
+    }
+
+    // Id of the starting island.
+    public int source() {
+        return source;
+    }
+
+    // Shortest travel time from the source to the island, or Integer.MAX_VALUE if unreachable.
+    public int distance(int node) {
+        return node < distances.length ? distances[node] : UNREACHABLE;
+    }
+
+    // Previous island on a shortest path to the island, or -1 for the source and unreachable islands.
+    public int predecessor(int node) {
+        return node < predecessors.length ? predecessors[node] : -1;
+    }
+
+    // Number of islands whose distance the last update recomputed.
+    public int lastChangedCount() {
+        return lastChanged;
+    }
+
+    /**
+     * Copies every distance into the array.
+     *
+     * @param into An array of at least nodeCount elements.
+     * @return The same array, with Integer.MAX_VALUE for unreachable islands.
+     */
+    public int[] copyDistances(int[] into) {
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            into[node] = distance(node);
+        }
+        return into;
+    }
+
+    /**
+     * Follows the tree back from the target to the source.
+     *
+     * @param target The id of the destination island.
+     * @return The shortest route, or an unreachable route. No search runs, so its settled count is 0.
+     */
+    public IslandRoute route(int target) {
+        if (distance(target) == UNREACHABLE) {
+            return IslandRoute.unreachable(0);
+        }
+        return IslandRoute.fromPredecessors(this::predecessor, target, distances[target], 0);
+    }
+
+    /**
+     * Repairs the tree after one directed edge changed. Called by the graph.
+     *
+     * @param from The id of the edge's source island.
+     * @param to The id of the edge's destination island.
+     * @param oldTravelTime The travel time before the change, or -1 if the edge was absent.
+     * @param newTravelTime The travel time after the change, or -1 if the edge was removed.
+     */
+    @Override
+    public void edgeChanged(int from, int to, int oldTravelTime, int newTravelTime) {
+        if (graph.nodeCount() > distances.length) {
+            grow(graph.nodeCount());
+        }
+        nextEpoch();
+        changed.clear();
+        int fromDistance = distances[from];
+        if (to == source || fromDistance == UNREACHABLE) {
+            // Edges into the source or out of an unreachable island never lie on a shortest path.
+            lastChanged = 0;
+            return;
+        }
+
+        boolean wasTight = oldTravelTime >= 0 && (long) fromDistance + oldTravelTime == distances[to];
+        long newDistance = newTravelTime >= 0 ? (long) fromDistance + newTravelTime : Long.MAX_VALUE;
+        if (newDistance < distances[to]) {
+            // The edge now offers a shorter path: spread the improvement from its destination.
+            distances[to] = (int) newDistance;
+            predecessors[to] = from;
+            mark(to);
+            heap.push(to, newDistance);
+            propagateDecrease();
+        } else if (newDistance == distances[to] && !wasTight) {
+            tightCounts[to]++;
+        } else if (wasTight && newDistance > distances[to]) {
+            if (--tightCounts[to] == 0) {
+                repairIncrease(to);
+            } else if (predecessors[to] == from) {
+                recount(to);
+            }
+        }
+
+        // Tight counts and predecessors can only have changed at rewritten islands and their successors.
+        for (int i = 0; i < changed.size(); i++) {
+            int node = changed.get(i);
+            recount(node);
+            for (int e = 0; e < graph.degree(node); e++) {
+                recount(graph.targetAt(node, e));
+            }
+        }
+        lastChanged = changed.size();
+    }
+
+    // Settles the queued islands, lowering the distance of any island a shorter path reaches.
+    private void propagateDecrease() {
+        while (!heap.isEmpty()) {
+            int node = heap.pop();
+            int nodeDistance = distances[node];
+            for (int e = 0; e < graph.degree(node); e++) {
+                int next = graph.targetAt(node, e);
+                long newDistance = (long) nodeDistance + graph.travelTimeAt(node, e);
+                if (newDistance < distances[next]) {
+                    distances[next] = (int) newDistance;
+                    predecessors[next] = node;
+                    mark(next);
+                    heap.push(next, newDistance);
+                }
+            }
+        }
+    }
+
+    // Recomputes the islands that lost every shortest path when the island's last tight edge got slower.
+    private void repairIncrease(int start) {
+        // Phase 1: collect the affected islands, those left with no tight incoming edge from outside the set.
+        mark(start);
+        for (int i = 0; i < changed.size(); i++) {
+            int node = changed.get(i);
+            int nodeDistance = distances[node];
+            for (int e = 0; e < graph.degree(node); e++) {
+                int next = graph.targetAt(node, e);
+                if (next == source || stamps[next] == epoch) continue;
+                if ((long) nodeDistance + graph.travelTimeAt(node, e) == distances[next] && --tightCounts[next] == 0) {
+                    mark(next);
+                }
+            }
+        }
+
+        // Phase 2: seed each affected island with its best path through unaffected neighbours.
+        for (int i = 0; i < changed.size(); i++) {
+            int node = changed.get(i);
+            long best = UNREACHABLE;
+            int bestPredecessor = -1;
+            for (int e = 0; e < graph.inDegree(node); e++) {
+                int previous = graph.sourceAt(node, e);
+                if (stamps[previous] == epoch || distances[previous] == UNREACHABLE) continue;
+                long candidate = (long) distances[previous] + graph.incomingTravelTimeAt(node, e);
+                if (candidate < best) {
+                    best = candidate;
+                    bestPredecessor = previous;
+                }
+            }
+            distances[node] = (int) best;
+            predecessors[node] = bestPredecessor;
+            if (best != UNREACHABLE) {
+                heap.push(node, best);
+            }
+        }
+
+        // Phase 3: Dijkstra restricted to the affected islands; unaffected distances are already final.
+        while (!heap.isEmpty()) {
+            int node = heap.pop();
+            int nodeDistance = distances[node];
+            for (int e = 0; e < graph.degree(node); e++) {
+                int next = graph.targetAt(node, e);
+                if (stamps[next] != epoch) continue;
+                long newDistance = (long) nodeDistance + graph.travelTimeAt(node, e);
+                if (newDistance < distances[next]) {
+                    distances[next] = (int) newDistance;
+                    predecessors[next] = node;
+                    heap.push(next, newDistance);
+                }
+            }
+        }
+    }
+
+    // Recounts the island's tight incoming edges, moving its predecessor to a tight edge if needed.
+    private void recount(int node) {
+        if (node == source) return;
+        int count = 0;
+        int tightPredecessor = -1;
+        boolean predecessorTight = false;
+        if (distances[node] != UNREACHABLE) {
+            for (int e = 0; e < graph.inDegree(node); e++) {
+                int previous = graph.sourceAt(node, e);
+                if (distances[previous] != UNREACHABLE
+                        && (long) distances[previous] + graph.incomingTravelTimeAt(node, e) == distances[node]) {
+                    count++;
+                    tightPredecessor = previous;
+                    predecessorTight |= previous == predecessors[node];
+                }
+            }
+        }
+        tightCounts[node] = count;
+        if (!predecessorTight) {
+            predecessors[node] = tightPredecessor;
+        }
+    }
+
+    // Records the island as rewritten by the current update, once.
+    private void mark(int node) {
+        if (stamps[node] != epoch) {
+            stamps[node] = epoch;
+            changed.add(node);
+        }
+    }
+
+    private void allocate(int capacity) {
+        distances = new int[capacity];
+        predecessors = new int[capacity];
+        tightCounts = new int[capacity];
+        stamps = new int[capacity];
+        heap = new IndexedMinHeap(capacity);
+    }
+
+    // Makes room for islands added to the graph since the tree was built; they start unreachable.
+    private void grow(int nodeCount) {
+        int capacity = Math.max(nodeCount, distances.length * 2);
+        int old = distances.length;
+        distances = Arrays.copyOf(distances, capacity);
+        predecessors = Arrays.copyOf(predecessors, capacity);
+        tightCounts = Arrays.copyOf(tightCounts, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+        Arrays.fill(distances, old, capacity, UNREACHABLE);
+        Arrays.fill(predecessors, old, capacity, -1);
+        heap = new IndexedMinHeap(capacity);
+    }
+
+    // Starts a new update, clearing the stamps only when the epoch counter wraps around.
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+}
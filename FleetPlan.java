@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link FleetSolver}: the trips each canoe makes from the source island, with loads and times.
+ *
+ * Every trip leaves the source, delivers to its islands in order along shortest paths and returns
+ * to the source to reload. A canoe's trips run back to back, so each departure is the previous
+ * trip's return time.
+ */
+public class FleetPlan {
+
+    /**
+     * One canoe trip: out from the source, a delivery at each island, then back to the source.
+     */
+    public static class Trip {
+        private final int canoe;
+        private final int departure;
+        private final int[] islands;    // Island ids in visiting order.
+        private final int[] loads;      // Units delivered at each island.
+        private final int travelTime;   // Time from leaving the source until back at the source.
+
+        Trip(int canoe, int departure, int[] islands, int[] loads, int travelTime) {
+            this.canoe = canoe;
+            this.departure = departure;
+            this.islands = islands;
+            this.loads = loads;
+            this.travelTime = travelTime;
+        }
+
+        // Index of the canoe making the trip, from 0.
+        public int canoe() {
+            return canoe;
+        }
+
+        // Time the canoe leaves the source.
+        public int departure() {
+            return departure;
+        }
+
+        // Time the canoe is back at the source.
+        public int returnTime() {
+            return departure + travelTime;
+        }
+
+        // Time from leaving the source until back at the source.
+        public int travelTime() {
+            return travelTime;
+        }
+
+        // Island ids in visiting order.
+        public int[] islands() {
+            return islands.clone();
+        }
+
+        // Units delivered at each island, in visiting order.
+        public int[] loads() {
+            return loads.clone();
+        }
+
+        // Units carried out of the source.
+        public int load() {
+            int total = 0;
+            for (int load : loads) {
+                total += load;
+            }
+            return total;
+        }
+    }
+
+    private final List<Trip> trips;
+    private final int delivered;
+    private final int undelivered;
+
+    FleetPlan(List<Trip> trips, int delivered, int undelivered) {
+        this.trips = Collections.unmodifiableList(trips);
+        this.delivered = delivered;
+        this.undelivered = undelivered;
+    }
+
+    // Every trip, ordered by canoe and then departure.
+    public List<Trip> trips() {
+        return trips;
+    }
+
+    // Units delivered by all trips.
+    public int delivered() {
+        return delivered;
+    }
+
+    // Demanded units left undelivered, for lack of supply or because the island cannot be reached.
+    public int undelivered() {
+        return undelivered;
+    }
+
+    // Sum of every trip's travel time.
+    public long totalTravelTime() {
+        long total = 0;
+        for (Trip trip : trips) {
+            total += trip.travelTime;
+        }
+        return total;
+    }
+
+    // Time the last canoe is back at the source.
+    public int makespan() {
+        int makespan = 0;
+        for (Trip trip : trips) {
+            makespan = Math.max(makespan, trip.returnTime());
+        }
+        return makespan;
+    }
+
+    /**
+     * Describes the plan in the log style of {@link Algorithms#distributeResource}.
+     *
+     * @param graph The compact graph the plan was computed on.
+     * @param resource The name of the resource being delivered.
+     * @return A list of strings detailing each trip, its deliveries and its return.
+     */
+    public List<String> describe(CompactGraph graph, String resource) {
+        List<String> lines = new ArrayList<>();
+        for (Trip trip : trips) {
+            lines.add("Canoe " + (trip.canoe + 1) + " departs at " + trip.departure);
+            for (int i = 0; i < trip.islands.length; i++) {
+                lines.add("Deliver " + trip.loads[i] + " units of " + resource + " to " + graph.name(trip.islands[i]));
+            }
+            lines.add("Canoe " + (trip.canoe + 1) + " returns at " + trip.returnTime());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,461 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Capacitated multi-trip canoe routing: delivers each island's demand from one source island with
+ * a fleet of canoes that return to the source to reload.
+ *
+ * Islands whose demand exceeds a canoe's capacity first get dedicated full-load trips. The rest are
+ * routed with Clarke–Wright savings, then improved by local search: 2-opt inside each trip, run in
+ * parallel across trips, and relocation of islands between trips. Both only consider each island's
+ * nearest delivery islands, so a plan for 10,000 islands never needs the full distance matrix.
+ * Finally the trips are spread over the canoes longest first, each going to the canoe that is
+ * back at the source earliest.
+ *
+ * Travel times are plain shortest-path times (alpha = 0). Legs between islands that are not near
+ * each other are found on demand with a bidirectional search and cached for the rest of the solve.
+ */
+public class FleetSolver {
+
+    public static final int DEFAULT_NEIGHBOURS = 16;   // Nearest delivery islands kept per island.
+    private static final int DEPOT = -1;                // Stands for the source island in a trip.
+    private static final int MAX_ROUNDS = 10;           // Local search rounds if improvements keep coming.
+
+    private final CompactGraph graph;
+    private final CompactGraph reverse;
+    private final int neighbourCount;
+
+    /**
+     * Creates a solver with {@link #DEFAULT_NEIGHBOURS} candidate neighbours per island.
+     *
+     * @param graph The compact island graph.
+     */
+    public FleetSolver(CompactGraph graph) {
+        this(graph, DEFAULT_NEIGHBOURS);
+    }
+
+    /**
+     * Creates a solver. More neighbours let the heuristics consider more merges and moves, at more cost.
+     *
+     * @param graph The compact island graph.
+     * @param neighbourCount The number of nearest delivery islands considered per island.
+     */
+    public FleetSolver(CompactGraph graph, int neighbourCount) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.neighbourCount = Math.max(1, neighbourCount);
+    }
+
+    /**
+     * Plans the deliveries. If supply runs short, islands nearest the source are served first.
+     *
+     * @param source The id of the island holding the resource.
+     * @param demands Units wanted by each island, indexed by island id; the source's entry is ignored.
+     * @param supply Units available at the source.
+     * @param canoes The number of canoes in the fleet.
+     * @param canoeCapacity Units one canoe carries per trip.
+     * @return The plan of trips.
+     */
+    public FleetPlan solve(int source, int[] demands, int supply, int canoes, int canoeCapacity) {
+        if (canoes <= 0 || canoeCapacity <= 0) {
+            throw new IllegalArgumentException("Fleet needs at least one canoe with positive capacity");
+        }
+        return new Instance(source, demands, supply, canoeCapacity).solve(canoes);
+    }
+
+    /**
+     * Resolves island demands by name for {@link #solve(int, int[], int, int, int)}.
+     *
+     * @param demands A Map from island name to units wanted; unknown islands are ignored.
+     * @return An array indexed by island id.
+     */
+    public int[] demandArray(Map<String, Integer> demands) {
+        int[] array = new int[graph.nodeCount()];
+        demands.forEach((island, demand) -> {
+            int id = graph.id(island);
+            if (id >= 0 && demand != null) {
+                array[id] = demand;
+            }
+        });
+        return array;
+    }
+
+    // State of one solve. Customers are the islands routed by the heuristics, numbered from 0.
+    private class Instance {
+        final int source;
+        final int capacity;
+        final int[] fromSource;     // Travel time from the source to each island.
+        final int[] toSource;       // Travel time from each island back to the source.
+        final List<int[]> fullLoads = new ArrayList<>();    // Dedicated trips as {island, load}.
+        int delivered;
+        int undelivered;
+
+        int customers;
+        int[] island;               // Island id of each customer.
+        int[] demand;               // Units each customer receives.
+        int[] neighbours;           // neighbours[c * neighbourCount + i] = i-th nearest customer to c.
+        int[] neighbourDistances;   // Travel time from c to that customer.
+        int[] neighbourFound;       // Number of neighbours found for c.
+        final Map<Long, Integer> legs = new ConcurrentHashMap<>();  // Other legs, keyed by island pair.
+        final ThreadLocal<PointToPointRouter> routers;
+
+        // Trips as doubly linked lists of customers; DEPOT ends every list.
+        int[] next;
+        int[] previous;
+        int[] tripOf;
+        int[] tripLoad;             // Load of each trip, indexed by the trip id in tripOf.
+
+        Instance(int source, int[] demands, int supply, int capacity) {
+            this.source = source;
+            this.capacity = capacity;
+            int n = graph.nodeCount();
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            engine.run(source, 0);
+            fromSource = engine.copyDistances(new int[n]);
+            ShortestPathEngine backward = new ShortestPathEngine(reverse);
+            backward.run(source, 0);
+            toSource = backward.copyDistances(new int[n]);
+            routers = ThreadLocal.withInitial(() -> new PointToPointRouter(graph));
+            allocate(demands, supply);
+        }
+
+        // Hands out the supply nearest islands first and splits it into full loads and customers.
+        void allocate(int[] demands, int supply) {
+            List<Integer> wanting = new ArrayList<>();
+            for (int v = 0; v < demands.length; v++) {
+                if (v == source || demands[v] <= 0) continue;
+                if (fromSource[v] == Integer.MAX_VALUE || toSource[v] == Integer.MAX_VALUE) {
+                    undelivered += demands[v];
+                } else {
+                    wanting.add(v);
+                }
+            }
+            wanting.sort(Comparator.comparingInt(v -> fromSource[v]));
+
+            int[] customerIsland = new int[wanting.size()];
+            int[] customerDemand = new int[wanting.size()];
+            int remaining = Math.max(0, supply);
+            for (int v : wanting) {
+                int amount = Math.min(demands[v], remaining);
+                remaining -= amount;
+                undelivered += demands[v] - amount;
+                delivered += amount;
+                while (amount > capacity) {
+                    fullLoads.add(new int[] {v, capacity});
+                    amount -= capacity;
+                }
+                if (amount > 0) {
+                    customerIsland[customers] = v;
+                    customerDemand[customers] = amount;
+                    customers++;
+                }
+            }
+            island = Arrays.copyOf(customerIsland, customers);
+            demand = Arrays.copyOf(customerDemand, customers);
+        }
+
+        FleetPlan solve(int canoes) {
+            findNeighbours();
+            buildSavingsTrips();
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                long gain = twoOptAll() + relocateAll();
+                if (gain == 0) break;
+            }
+            return schedule(canoes);
+        }
+
+        // Finds each customer's nearest customers with a Dijkstra search that stops once enough are settled.
+        void findNeighbours() {
+            int[] customerOf = new int[graph.nodeCount()];
+            Arrays.fill(customerOf, -1);
+            for (int c = 0; c < customers; c++) {
+                customerOf[island[c]] = c;
+            }
+            neighbours = new int[customers * neighbourCount];
+            neighbourDistances = new int[customers * neighbourCount];
+            neighbourFound = new int[customers];
+            ThreadLocal<NearestSearch> searches = ThreadLocal.withInitial(() -> new NearestSearch(graph.nodeCount()));
+            IntStream.range(0, customers).parallel().forEach(c -> searches.get().run(c, customerOf));
+        }
+
+        // Clarke–Wright: start with one trip per customer and join trips in order of travel time saved.
+        void buildSavingsTrips() {
+            next = new int[customers];
+            previous = new int[customers];
+            tripOf = new int[customers];
+            tripLoad = new int[customers];
+            Arrays.fill(next, DEPOT);
+            Arrays.fill(previous, DEPOT);
+            for (int c = 0; c < customers; c++) {
+                tripOf[c] = c;
+                tripLoad[c] = demand[c];
+            }
+
+            // Saving of going i -> j directly instead of i -> source -> j, for each neighbour pair.
+            long[] savings = new long[customers * neighbourCount];
+            int count = 0;
+            for (int i = 0; i < customers; i++) {
+                for (int k = 0; k < neighbourFound[i]; k++) {
+                    int j = neighbours[i * neighbourCount + k];
+                    long saving = (long) toSource[island[i]] + fromSource[island[j]] - neighbourDistances[i * neighbourCount + k];
+                    if (saving > 0) {
+                        // Largest saving first; the low half keeps the pair's index.
+                        savings[count++] = ((long) (Integer.MAX_VALUE - (int) Math.min(saving, Integer.MAX_VALUE)) << 32) | (i * neighbourCount + k);
+                    }
+                }
+            }
+            Arrays.sort(savings, 0, count);
+
+            for (int s = 0; s < count; s++) {
+                int pair = (int) savings[s];
+                int i = pair / neighbourCount;
+                int j = neighbours[pair];
+                int from = tripOf[i];
+                int to = tripOf[j];
+                if (next[i] != DEPOT || previous[j] != DEPOT || from == to) continue;
+                if (tripLoad[from] + tripLoad[to] > capacity) continue;
+                next[i] = j;
+                previous[j] = i;
+                tripLoad[from] += tripLoad[to];
+                for (int c = j; c != DEPOT; c = next[c]) {
+                    tripOf[c] = from;
+                }
+            }
+        }
+
+        // Improves every trip with 2-opt, trips in parallel; each trip only touches its own customers.
+        long twoOptAll() {
+            AtomicLong gain = new AtomicLong();
+            int[] position = new int[customers];
+            IntStream.range(0, customers).parallel()
+                    .filter(c -> previous[c] == DEPOT)
+                    .forEach(head -> gain.addAndGet(twoOpt(head, position)));
+            return gain.get();
+        }
+
+        // 2-opt on one trip: add the edge from a customer to a near customer and reverse the stretch between.
+        long twoOpt(int head, int[] position) {
+            IntArrayList list = new IntArrayList();
+            for (int c = head; c != DEPOT; c = next[c]) {
+                list.add(c);
+            }
+            int[] trip = list.toArray();
+            int m = trip.length;
+            if (m < 3) return 0;
+            for (int p = 0; p < m; p++) {
+                position[trip[p]] = p;
+            }
+
+            long total = 0;
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int i = 0; i < m - 1; i++) {
+                    int u = trip[i];
+                    for (int k = 0; k < neighbourFound[u]; k++) {
+                        int v = neighbours[u * neighbourCount + k];
+                        if (tripOf[v] != tripOf[u]) continue;
+                        int q = position[v];
+                        if (q <= i + 1) continue;
+                        // Replace u -> trip[i+1] and v -> after with u -> v and trip[i+1] -> after.
+                        int first = trip[i + 1];
+                        int after = q + 1 < m ? trip[q + 1] : DEPOT;
+                        long delta = (long) neighbourDistances[u * neighbourCount + k] + leg(first, after)
+                                - leg(u, first) - leg(v, after);
+                        for (int r = i + 1; r < q; r++) {
+                            delta += leg(trip[r + 1], trip[r]) - leg(trip[r], trip[r + 1]);
+                        }
+                        if (delta < 0) {
+                            for (int a = i + 1, b = q; a < b; a++, b--) {
+                                int swap = trip[a];
+                                trip[a] = trip[b];
+                                trip[b] = swap;
+                            }
+                            for (int r = i + 1; r <= q; r++) {
+                                position[trip[r]] = r;
+                            }
+                            total -= delta;
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            for (int p = 0; p < m; p++) {
+                previous[trip[p]] = p == 0 ? DEPOT : trip[p - 1];
+                next[trip[p]] = p == m - 1 ? DEPOT : trip[p + 1];
+            }
+            return total;
+        }
+
+        // Moves single customers next to a near customer, within or between trips, when it saves time.
+        long relocateAll() {
+            long total = 0;
+            for (int c = 0; c < customers; c++) {
+                for (int k = 0; k < neighbourFound[c]; k++) {
+                    int n = neighbours[c * neighbourCount + k];
+                    if (tripOf[n] != tripOf[c] && tripLoad[tripOf[n]] + demand[c] > capacity) continue;
+                    int before = previous[c];
+                    int after = next[c];
+                    long removal = (long) leg(before, c) + leg(c, after) - leg(before, after);
+                    // Try c just after n, then just before n.
+                    if (before != n) {
+                        int following = next[n];
+                        long insertion = (long) leg(n, c) + leg(c, following) - leg(n, following);
+                        if (insertion < removal) {
+                            total += removal - insertion;
+                            moveAfter(c, n);
+                            break;
+                        }
+                    }
+                    if (after != n) {
+                        int preceding = previous[n];
+                        long insertion = (long) leg(preceding, c) + leg(c, n) - leg(preceding, n);
+                        if (insertion < removal) {
+                            total += removal - insertion;
+                            moveBefore(c, n);
+                            break;
+                        }
+                    }
+                }
+            }
+            return total;
+        }
+
+        void moveAfter(int c, int n) {
+            unlink(c);
+            int following = next[n];
+            link(c, n, following);
+            tripOf[c] = tripOf[n];
+            tripLoad[tripOf[n]] += demand[c];
+        }
+
+        void moveBefore(int c, int n) {
+            unlink(c);
+            int preceding = previous[n];
+            link(c, preceding, n);
+            tripOf[c] = tripOf[n];
+            tripLoad[tripOf[n]] += demand[c];
+        }
+
+        void unlink(int c) {
+            if (previous[c] != DEPOT) next[previous[c]] = next[c];
+            if (next[c] != DEPOT) previous[next[c]] = previous[c];
+            tripLoad[tripOf[c]] -= demand[c];
+        }
+
+        void link(int c, int before, int after) {
+            previous[c] = before;
+            next[c] = after;
+            if (before != DEPOT) next[before] = c;
+            if (after != DEPOT) previous[after] = c;
+        }
+
+        // Travel time of a leg between customers, where DEPOT stands for the source island.
+        int leg(int from, int to) {
+            if (from == DEPOT) return to == DEPOT ? 0 : fromSource[island[to]];
+            if (to == DEPOT) return toSource[island[from]];
+            int base = from * neighbourCount;
+            for (int k = 0; k < neighbourFound[from]; k++) {
+                if (neighbours[base + k] == to) return neighbourDistances[base + k];
+            }
+            long key = ((long) island[from] << 32) | island[to];
+            Integer known = legs.get(key);
+            if (known != null) return known;
+            int distance = routers.get().bidirectional(island[from], island[to]).distance();
+            legs.put(key, distance);
+            return distance;
+        }
+
+        // Collects the trips and gives each, longest first, to the canoe that is back earliest.
+        FleetPlan schedule(int canoes) {
+            List<int[][]> pending = new ArrayList<>();     // {islands, loads, {travelTime}} per trip.
+            for (int[] full : fullLoads) {
+                pending.add(new int[][] {{full[0]}, {full[1]}, {fromSource[full[0]] + toSource[full[0]]}});
+            }
+            for (int head = 0; head < customers; head++) {
+                if (previous[head] != DEPOT) continue;
+                IntArrayList islands = new IntArrayList();
+                IntArrayList loads = new IntArrayList();
+                int time = 0;
+                int last = DEPOT;
+                for (int c = head; c != DEPOT; c = next[c]) {
+                    time += leg(last, c);
+                    islands.add(island[c]);
+                    loads.add(demand[c]);
+                    last = c;
+                }
+                time += leg(last, DEPOT);
+                pending.add(new int[][] {islands.toArray(), loads.toArray(), {time}});
+            }
+            pending.sort((a, b) -> Integer.compare(b[2][0], a[2][0]));
+
+            // Canoes by the time they are back at the source, then by index.
+            PriorityQueue<long[]> fleet = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            for (int canoe = 0; canoe < canoes; canoe++) {
+                fleet.add(new long[] {0, canoe});
+            }
+            List<FleetPlan.Trip> trips = new ArrayList<>(pending.size());
+            for (int[][] trip : pending) {
+                long[] canoe = fleet.poll();
+                trips.add(new FleetPlan.Trip((int) canoe[1], (int) canoe[0], trip[0], trip[1], trip[2][0]));
+                canoe[0] += trip[2][0];
+                fleet.add(canoe);
+            }
+            trips.sort(Comparator.comparingInt(FleetPlan.Trip::canoe).thenComparingInt(FleetPlan.Trip::departure));
+            return new FleetPlan(trips, delivered, undelivered);
+        }
+
+        // Per-thread scratch for the nearest-customer searches, reset between searches with an epoch stamp.
+        private class NearestSearch {
+            final int[] distances;
+            final int[] stamps;
+            final IndexedMinHeap heap;
+            int epoch;
+
+            NearestSearch(int nodeCount) {
+                distances = new int[nodeCount];
+                stamps = new int[nodeCount];
+                heap = new IndexedMinHeap(nodeCount);
+            }
+
+            void run(int customer, int[] customerOf) {
+                epoch++;
+                heap.clear();
+                int start = island[customer];
+                int base = customer * neighbourCount;
+                int found = 0;
+                stamps[start] = epoch;
+                distances[start] = 0;
+                heap.push(start, 0);
+                while (!heap.isEmpty() && found < neighbourCount) {
+                    int node = heap.pop();
+                    int other = customerOf[node];
+                    if (other >= 0 && other != customer) {
+                        neighbours[base + found] = other;
+                        neighbourDistances[base + found] = distances[node];
+                        found++;
+                    }
+                    for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                        int target = graph.target(edge);
+                        int distance = distances[node] + graph.travelTime(edge);
+                        if (stamps[target] != epoch || distance < distances[target]) {
+                            stamps[target] = epoch;
+                            distances[target] = distance;
+                            heap.push(target, distance);
+                        }
+                    }
+                }
+                neighbourFound[customer] = found;
+            }
+        }
+    }
+}
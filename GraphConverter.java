@@ -0,0 +1,27 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts a CSV or TSV route file into the binary graph format read by {@link GraphFileLoader#readBinary}.
+ *
+ * Usage: {@code java GraphConverter routes.csv routes.islg}
+ */
+public class GraphConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java GraphConverter <routes.csv|routes.tsv> <output.islg>");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        long start = System.nanoTime();
+        CompactGraph graph = GraphFileLoader.loadCompactGraph(input);
+        GraphFileLoader.writeBinary(graph, output);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Converted " + graph.nodeCount() + " islands and " + graph.edgeCount() + " edges to " + output + " in " + elapsedMillis + " ms");
+    }
+}
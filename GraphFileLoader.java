@@ -0,0 +1,392 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads island graphs, populations and natural resources from files instead of the tables
+ * hard-coded in {@link DataLoader}.
+ *
+ * Text files are CSV or TSV (a line containing a tab is split on tabs, otherwise on commas) and are
+ * streamed one line at a time. Blank lines and lines starting with '#' are skipped, as is a header
+ * line before the first data line whose numeric column does not parse. Fields may be wrapped in
+ * double quotes.
+ * <ul>
+ *   <li>Routes: {@code islandA,islandB,travelTime}, one bidirectional route per line.</li>
+ *   <li>Populations: {@code island,population}.</li>
+ *   <li>Resources: {@code island,resource,quantity}, or just {@code island} for an island with none.</li>
+ * </ul>
+ *
+ * Graphs can also be stored in a compact little-endian binary form that is read back through a
+ * memory-mapped {@link FileChannel}:
+ * <pre>
+ *   int magic "ISLG", int version, int nodeCount, int edgeCount, long nameBytes
+ *   nodeCount x (int length, UTF-8 bytes)    island names in id order
+ *   padding to a multiple of 4 bytes
+ *   int[nodeCount + 1] offsets, int[edgeCount] targets, int[edgeCount] travelTimes
+ * </pre>
+ */
+public class GraphFileLoader {
+
+    private static final int MAGIC = 0x49534C47;          // "ISLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int CHUNK_BYTES = 1 << 30;       // Largest region mapped at once.
+
+    /**
+     * Streams a route file into the map form returned by {@link DataLoader#getIslandGraph()}.
+     *
+     * @param path The CSV or TSV route file.
+     * @return A Map representing the island graph where each island has a list of connected edges.
+     * @throws IOException if the file cannot be read or a line is malformed.
+     */
+    public static Map<String, List<DataLoader.Edge>> loadGraph(Path path) throws IOException {
+        Map<String, List<DataLoader.Edge>> graph = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean dataSeen = false;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = fields(line);
+                if (fields == null) continue;
+                Integer travelTime = number(fields, 2, 3, path, lineNumber, !dataSeen);
+                if (travelTime == null) continue;
+                dataSeen = true;
+                DataLoader.addEdge(graph, fields[0], fields[1], travelTime);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Streams a route file straight into a compact graph, without building the map form first.
+     * Island ids follow the order in which islands first appear in the file.
+     *
+     * @param path The CSV or TSV route file.
+     * @return The compact island graph.
+     * @throws IOException if the file cannot be read or a line is malformed.
+     */
+    public static CompactGraph loadCompactGraph(Path path) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        IntArrayList sources = new IntArrayList();
+        IntArrayList targets = new IntArrayList();
+        IntArrayList travelTimes = new IntArrayList();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean dataSeen = false;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = fields(line);
+                if (fields == null) continue;
+                Integer travelTime = number(fields, 2, 3, path, lineNumber, !dataSeen);
+                if (travelTime == null) continue;
+                dataSeen = true;
+                int a = intern(fields[0], ids, names);
+                int b = intern(fields[1], ids, names);
+                // Each route is bidirectional, matching DataLoader.addEdge.
+                sources.add(a);
+                targets.add(b);
+                travelTimes.add(travelTime);
+                sources.add(b);
+                targets.add(a);
+                travelTimes.add(travelTime);
+            }
+        }
+        return CompactGraph.fromEdgeList(names.toArray(new String[0]), sources.toArray(), targets.toArray(), travelTimes.toArray(), sources.size());
+    }
+
+    /**
+     * Streams a population file into the map form returned by {@link DataLoader#getIslandPopulations()}.
+     *
+     * @param path The CSV or TSV population file.
+     * @return A Map where each key is an island name, and the value is the population size.
+     * @throws IOException if the file cannot be read or a line is malformed.
+     */
+    public static Map<String, Integer> loadPopulations(Path path) throws IOException {
+        Map<String, Integer> populations = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean dataSeen = false;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = fields(line);
+                if (fields == null) continue;
+                Integer population = number(fields, 1, 2, path, lineNumber, !dataSeen);
+                if (population == null) continue;
+                dataSeen = true;
+                populations.put(fields[0], population);
+            }
+        }
+        return populations;
+    }
+
+    /**
+     * Streams a resource file into the map form returned by {@link DataLoader#setNaturalResource()}.
+     *
+     * @param path The CSV or TSV resource file.
+     * @return A Map from island name to a Map of resource name to quantity.
+     * @throws IOException if the file cannot be read or a line is malformed.
+     */
+    public static Map<String, Map<String, Integer>> loadResources(Path path) throws IOException {
+        Map<String, Map<String, Integer>> resources = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean dataSeen = false;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = fields(line);
+                if (fields == null) continue;
+                if (fields.length == 1) {
+                    resources.putIfAbsent(fields[0], new HashMap<>());
+                    dataSeen = true;
+                    continue;
+                }
+                Integer quantity = number(fields, 2, 3, path, lineNumber, !dataSeen);
+                if (quantity == null) continue;
+                dataSeen = true;
+                resources.computeIfAbsent(fields[0], island -> new HashMap<>()).put(fields[1], quantity);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Writes a compact graph in the binary format.
+     *
+     * @param graph The compact island graph.
+     * @param path The file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writeBinary(CompactGraph graph, Path path) throws IOException {
+        int nodeCount = graph.nodeCount();
+        int edgeCount = graph.edgeCount();
+        byte[][] names = new byte[nodeCount][];
+        long nameBytes = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            names[node] = graph.name(node).getBytes(StandardCharsets.UTF_8);
+            nameBytes += 4 + names[node].length;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(edgeCount).putLong(nameBytes);
+            for (byte[] name : names) {
+                ensureRoom(channel, buffer, 4);
+                buffer.putInt(name.length);
+                int written = 0;
+                while (written < name.length) {
+                    ensureRoom(channel, buffer, 1);
+                    int length = Math.min(buffer.remaining(), name.length - written);
+                    buffer.put(name, written, length);
+                    written += length;
+                }
+            }
+            for (long pad = (4 - (HEADER_BYTES + nameBytes) % 4) % 4; pad > 0; pad--) {
+                ensureRoom(channel, buffer, 1);
+                buffer.put((byte) 0);
+            }
+            for (int node = 0; node <= nodeCount; node++) {
+                ensureRoom(channel, buffer, 4);
+                buffer.putInt(node < nodeCount ? graph.edgeStart(node) : edgeCount);
+            }
+            for (int edge = 0; edge < edgeCount; edge++) {
+                ensureRoom(channel, buffer, 4);
+                buffer.putInt(graph.target(edge));
+            }
+            for (int edge = 0; edge < edgeCount; edge++) {
+                ensureRoom(channel, buffer, 4);
+                buffer.putInt(graph.travelTime(edge));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Reads a compact graph written by {@link #writeBinary}, mapping the file instead of parsing it.
+     *
+     * @param path The binary graph file.
+     * @return The compact island graph.
+     * @throws IOException if the file cannot be read or is not a binary graph file.
+     */
+    public static CompactGraph readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is not a binary island graph");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary island graph");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported version " + version);
+            }
+            int nodeCount = header.getInt();
+            int edgeCount = header.getInt();
+            long nameBytes = header.getLong();
+            // Every name takes at least its 4-byte length, and the arrays must fit in an int index.
+            if (nodeCount < 0 || nodeCount > Integer.MAX_VALUE - 8 || edgeCount < 0 || edgeCount > Integer.MAX_VALUE - 8
+                    || nameBytes < 4L * nodeCount || nameBytes > channel.size()) {
+                throw new IOException(path + " has a corrupt header");
+            }
+            long arraysOffset = HEADER_BYTES + nameBytes + (4 - (HEADER_BYTES + nameBytes) % 4) % 4;
+            if (channel.size() < arraysOffset + 4L * (nodeCount + 1) + 8L * edgeCount) {
+                throw new IOException(path + " is truncated");
+            }
+
+            String[] names = new String[nodeCount];
+            long position = HEADER_BYTES;
+            int node = 0;
+            while (node < nodeCount) {
+                // Map the names section in chunks so very large dictionaries stay addressable.
+                long length = Math.min(CHUNK_BYTES, HEADER_BYTES + nameBytes - position);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+                while (node < nodeCount && chunk.remaining() >= 4) {
+                    int nameLength = chunk.getInt(chunk.position());
+                    if (nameLength < 0) {
+                        throw new IOException(path + " has a corrupt name table");
+                    }
+                    if (chunk.remaining() < 4L + nameLength) break;
+                    chunk.getInt();
+                    byte[] bytes = new byte[nameLength];
+                    chunk.get(bytes);
+                    names[node++] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                if (chunk.position() == 0) {
+                    throw new IOException(path + " has a truncated name table");
+                }
+                position += chunk.position();
+            }
+
+            int[] offsets = new int[nodeCount + 1];
+            int[] targets = new int[edgeCount];
+            int[] travelTimes = new int[edgeCount];
+            position = readInts(channel, arraysOffset, offsets);
+            position = readInts(channel, position, targets);
+            readInts(channel, position, travelTimes);
+
+            // Checked here so a corrupt file fails now rather than inside a later search.
+            if (offsets[0] != 0 || offsets[nodeCount] != edgeCount) {
+                throw new IOException(path + " has corrupt edge offsets");
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                if (offsets[i] > offsets[i + 1]) {
+                    throw new IOException(path + " has corrupt edge offsets");
+                }
+            }
+            for (int target : targets) {
+                if (target < 0 || target >= nodeCount) {
+                    throw new IOException(path + " has an edge to unknown island " + target);
+                }
+            }
+            return new CompactGraph(names, offsets, targets, travelTimes);
+        }
+    }
+
+    // Fills the array from the file, mapping at most CHUNK_BYTES at a time; returns the position after it.
+    private static long readInts(FileChannel channel, long position, int[] into) throws IOException {
+        int done = 0;
+        while (done < into.length) {
+            int count = Math.min(into.length - done, CHUNK_BYTES / 4);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+            chunk.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(into, done, count);
+            done += count;
+            position += 4L * count;
+        }
+        return position;
+    }
+
+    // Writes the buffer out if it has fewer than the given bytes free.
+    private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Returns the id of the island, assigning the next free id on first sight.
+    private static int intern(String island, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(island);
+        if (id == null) {
+            id = names.size();
+            ids.put(island, id);
+            names.add(island);
+        }
+        return id;
+    }
+
+    /**
+     * Parses the numeric column of a line.
+     *
+     * @return The number, or null for a header line (a line before the first data line whose column
+     *         is not numeric, which the caller allows while headerAllowed is set).
+     * @throws IOException if the line has the wrong number of fields or a non-numeric column past the header.
+     */
+    private static Integer number(String[] fields, int column, int expected, Path path, int lineNumber, boolean headerAllowed) throws IOException {
+        if (fields.length != expected) {
+            throw new IOException(path + ":" + lineNumber + ": expected " + expected + " fields but found " + fields.length);
+        }
+        try {
+            return Integer.parseInt(fields[column]);
+        } catch (NumberFormatException e) {
+            if (headerAllowed) {
+                return null;
+            }
+            throw new IOException(path + ":" + lineNumber + ": '" + fields[column] + "' is not a number", e);
+        }
+    }
+
+    // Splits a line on tabs or commas, honouring double quotes; returns null for blank and comment lines.
+    private static String[] fields(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        char delimiter = line.indexOf('\t') >= 0 ? '\t' : ',';
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == delimiter && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+}
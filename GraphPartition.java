@@ -0,0 +1,102 @@
+/**
+ * Assignment of every island to a region, as computed by {@link GraphPartitioner}.
+ *
+ * An island is a boundary island of its region if a lane leads from it to another region or
+ * into it from another region. Every route between two regions passes through boundary islands,
+ * which is what lets {@link BoundaryOverlay} stand in for the rest of the graph.
+ */
+public class GraphPartition {
+
+    private final int[] regions;        // Region of each island.
+    private final int[][] islands;      // Islands of each region, in ascending id order.
+    private final int[][] boundaries;   // Boundary islands of each region, in ascending id order.
+    private final boolean[] boundary;   // Whether each island is a boundary island.
+    private final int cutLanes;         // Lanes whose ends lie in different regions.
+
+    /**
+     * Creates a partition from an assignment of islands to regions.
+     *
+     * @param graph The compact island graph.
+     * @param regions The region of each island, from 0 to regionCount - 1.
+     * @param regionCount The number of regions.
+     */
+    public GraphPartition(CompactGraph graph, int[] regions, int regionCount) {
+        int n = graph.nodeCount();
+        if (regions.length != n) {
+            throw new IllegalArgumentException("Expected a region for each of " + n + " islands");
+        }
+        this.regions = regions.clone();
+        this.boundary = new boolean[n];
+        int cut = 0;
+        for (int node = 0; node < n; node++) {
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int target = graph.target(edge);
+                if (regions[target] != regions[node]) {
+                    boundary[node] = true;
+                    boundary[target] = true;
+                    cut++;
+                }
+            }
+        }
+        this.cutLanes = cut;
+
+        int[] sizes = new int[regionCount];
+        int[] boundarySizes = new int[regionCount];
+        for (int node = 0; node < n; node++) {
+            sizes[regions[node]]++;
+            if (boundary[node]) boundarySizes[regions[node]]++;
+        }
+        this.islands = new int[regionCount][];
+        this.boundaries = new int[regionCount][];
+        for (int region = 0; region < regionCount; region++) {
+            islands[region] = new int[sizes[region]];
+            boundaries[region] = new int[boundarySizes[region]];
+        }
+        int[] fill = new int[regionCount];
+        int[] boundaryFill = new int[regionCount];
+        for (int node = 0; node < n; node++) {
+            int region = regions[node];
+            islands[region][fill[region]++] = node;
+            if (boundary[node]) boundaries[region][boundaryFill[region]++] = node;
+        }
+    }
+
+    // Number of regions.
+    public int regionCount() {
+        return islands.length;
+    }
+
+    // Region of the island.
+    public int region(int island) {
+        return regions[island];
+    }
+
+    // Ids of the region's islands, in ascending order.
+    public int[] islands(int region) {
+        return islands[region].clone();
+    }
+
+    // Ids of the region's boundary islands, in ascending order.
+    public int[] boundaryIslands(int region) {
+        return boundaries[region].clone();
+    }
+
+    // Whether a lane joins the island to another region.
+    public boolean isBoundary(int island) {
+        return boundary[island];
+    }
+
+    // Number of lanes between different regions.
+    public int cutLaneCount() {
+        return cutLanes;
+    }
+
+    // Number of boundary islands over all regions.
+    public int boundaryCount() {
+        int count = 0;
+        for (int[] regionBoundary : boundaries) {
+            count += regionBoundary.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,408 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Multilevel k-way partitioner that splits the island graph into regions joined by few lanes.
+ *
+ * The partitioner works on the undirected view of the graph, with each pair of islands weighted
+ * by the number of lanes between them, in the three phases METIS uses:
+ * <ol>
+ *   <li>Coarsening: heavy-edge matching merges pairs of islands joined by many lanes, level by
+ *       level, until the graph is a few dozen nodes per region.</li>
+ *   <li>Initial partitioning: regions are grown breadth-first from mutually distant seeds on the
+ *       coarsest graph, always extending the lightest region; the best of several tries is kept.</li>
+ *   <li>Uncoarsening: the partition is projected back level by level, and at each level greedy
+ *       boundary refinement moves islands to the neighbouring region holding most of their lanes,
+ *       as long as every region stays within the balance limits.</li>
+ * </ol>
+ * The result depends only on the graph, region count, imbalance and seed, so separate processes
+ * partitioning the same graph agree on every island's region.
+ */
+public class GraphPartitioner {
+
+    private static final double DEFAULT_IMBALANCE = 0.05;  // Regions stay within 5% of the average weight.
+    private static final int COARSEST_PER_REGION = 30;      // Coarsening stops near this many nodes per region.
+    private static final int INITIAL_TRIES = 4;             // Initial partitions tried on the coarsest graph.
+    private static final int REFINEMENT_PASSES = 8;         // Most refinement sweeps per level.
+
+    private final int regionCount;
+    private double imbalance = DEFAULT_IMBALANCE;
+    private long seed = 1;
+
+    /**
+     * Creates a partitioner.
+     *
+     * @param regionCount The number of regions to split the graph into.
+     */
+    public GraphPartitioner(int regionCount) {
+        if (regionCount < 1) {
+            throw new IllegalArgumentException("Need at least one region");
+        }
+        this.regionCount = regionCount;
+    }
+
+    /**
+     * Sets how far a region's size may stray from the average region size.
+     *
+     * @param imbalance The allowed deviation as a fraction, 0.05 by default.
+     * @return This partitioner.
+     */
+    public GraphPartitioner withImbalance(double imbalance) {
+        this.imbalance = imbalance;
+        return this;
+    }
+
+    /**
+     * Sets the seed for matching order and initial region seeds.
+     *
+     * @param seed The random seed.
+     * @return This partitioner.
+     */
+    public GraphPartitioner withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Partitions the graph.
+     *
+     * @param graph The compact island graph.
+     * @return The region of every island.
+     */
+    public GraphPartition partition(CompactGraph graph) {
+        int n = graph.nodeCount();
+        int regions = Math.min(regionCount, Math.max(n, 1));
+        if (regions == 1) {
+            return new GraphPartition(graph, new int[n], regionCount);
+        }
+        Random random = new Random(seed);
+
+        // Coarsening.
+        List<Level> levels = new ArrayList<>();
+        Level level = Level.of(graph);
+        levels.add(level);
+        long maxNodeWeight = Math.max(1, 3L * n / (2L * regions * COARSEST_PER_REGION));
+        while (level.nodeCount > regions * COARSEST_PER_REGION) {
+            Level coarser = level.coarsen(random, maxNodeWeight);
+            if (coarser.nodeCount > level.nodeCount * 0.9) break;
+            levels.add(coarser);
+            level = coarser;
+        }
+
+        // Initial partitioning, keeping the try with the fewest cut lanes.
+        long targetWeight = (n + regions - 1) / regions;
+        long minRegionWeight = Math.max(1, (long) Math.floor((1 - imbalance) * n / regions));
+        long maxRegionWeight = (long) Math.ceil((1 + imbalance) * n / regions);
+        int[] best = null;
+        long bestCut = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < INITIAL_TRIES; attempt++) {
+            int[] parts = level.grow(regions, targetWeight, random);
+            level.refine(parts, regions, minRegionWeight, maxRegionWeight);
+            long cut = level.cut(parts);
+            if (cut < bestCut) {
+                bestCut = cut;
+                best = parts;
+            }
+        }
+
+        // Uncoarsening with refinement at every level.
+        int[] parts = best;
+        for (int i = levels.size() - 2; i >= 0; i--) {
+            Level finer = levels.get(i);
+            int[] projected = new int[finer.nodeCount];
+            for (int node = 0; node < finer.nodeCount; node++) {
+                projected[node] = parts[finer.coarseMap[node]];
+            }
+            finer.refine(projected, regions, minRegionWeight, maxRegionWeight);
+            parts = projected;
+        }
+        return new GraphPartition(graph, parts, regionCount);
+    }
+
+    /**
+     * One level of the multilevel hierarchy: an undirected graph with node and edge weights.
+     */
+    private static final class Level {
+        final int nodeCount;
+        final int[] offsets;        // Start of each node's neighbours.
+        final int[] neighbours;     // Neighbour ids, each at most once per node.
+        final int[] edgeWeights;    // Lanes merged into each neighbour entry.
+        final int[] nodeWeights;    // Islands merged into each node.
+        int[] coarseMap;            // Node of the next coarser level holding each node.
+
+        private Level(int nodeCount, int[] offsets, int[] neighbours, int[] edgeWeights, int[] nodeWeights) {
+            this.nodeCount = nodeCount;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.edgeWeights = edgeWeights;
+            this.nodeWeights = nodeWeights;
+        }
+
+        // The undirected view of the island graph, one unit of weight per lane.
+        static Level of(CompactGraph graph) {
+            int n = graph.nodeCount();
+            int[] offsets = new int[n + 1];
+            for (int node = 0; node < n; node++) {
+                for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                    offsets[node + 1]++;
+                    offsets[graph.target(edge) + 1]++;
+                }
+            }
+            for (int node = 0; node < n; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            int[] fill = Arrays.copyOf(offsets, n);
+            int[] neighbours = new int[offsets[n]];
+            for (int node = 0; node < n; node++) {
+                for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                    int target = graph.target(edge);
+                    neighbours[fill[node]++] = target;
+                    neighbours[fill[target]++] = node;
+                }
+            }
+            int[] weights = new int[neighbours.length];
+            Arrays.fill(weights, 1);
+            int[] nodeWeights = new int[n];
+            Arrays.fill(nodeWeights, 1);
+            return merged(n, offsets, neighbours, weights, nodeWeights);
+        }
+
+        // Builds a level from adjacency lists, merging repeated neighbours and dropping self-loops.
+        static Level merged(int n, int[] offsets, int[] neighbours, int[] weights, int[] nodeWeights) {
+            int[] position = new int[n];
+            Arrays.fill(position, -1);
+            int[] mergedOffsets = new int[n + 1];
+            int[] mergedNeighbours = new int[neighbours.length];
+            int[] mergedWeights = new int[neighbours.length];
+            int count = 0;
+            for (int node = 0; node < n; node++) {
+                int start = count;
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    int neighbour = neighbours[i];
+                    if (neighbour == node) continue;
+                    int at = position[neighbour];
+                    if (at >= start) {
+                        mergedWeights[at] += weights[i];
+                    } else {
+                        position[neighbour] = count;
+                        mergedNeighbours[count] = neighbour;
+                        mergedWeights[count++] = weights[i];
+                    }
+                }
+                mergedOffsets[node + 1] = count;
+            }
+            return new Level(n, mergedOffsets, Arrays.copyOf(mergedNeighbours, count), Arrays.copyOf(mergedWeights, count), nodeWeights);
+        }
+
+        // Merges heavy-edge matched pairs into the next coarser level and records the mapping.
+        Level coarsen(Random random, long maxNodeWeight) {
+            int[] order = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                order[node] = node;
+            }
+            for (int i = nodeCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            int[] match = new int[nodeCount];
+            Arrays.fill(match, -1);
+            for (int node : order) {
+                if (match[node] >= 0) continue;
+                int best = node;
+                int bestWeight = 0;
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    int neighbour = neighbours[i];
+                    if (match[neighbour] < 0 && edgeWeights[i] > bestWeight
+                            && nodeWeights[node] + nodeWeights[neighbour] <= maxNodeWeight) {
+                        best = neighbour;
+                        bestWeight = edgeWeights[i];
+                    }
+                }
+                match[node] = best;
+                match[best] = node;
+            }
+
+            coarseMap = new int[nodeCount];
+            int coarseCount = 0;
+            int adjacency = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (match[node] >= node) {
+                    coarseMap[node] = coarseCount;
+                    coarseMap[match[node]] = coarseCount++;
+                    adjacency += offsets[node + 1] - offsets[node];
+                    if (match[node] != node) {
+                        adjacency += offsets[match[node] + 1] - offsets[match[node]];
+                    }
+                }
+            }
+
+            int[] coarseOffsets = new int[coarseCount + 1];
+            int[] coarseNeighbours = new int[adjacency];
+            int[] coarseWeights = new int[adjacency];
+            int[] coarseNodeWeights = new int[coarseCount];
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (match[node] < node) continue;
+                int coarse = coarseMap[node];
+                for (int member = node; ; member = match[node]) {
+                    coarseNodeWeights[coarse] += nodeWeights[member];
+                    for (int i = offsets[member]; i < offsets[member + 1]; i++) {
+                        coarseNeighbours[count] = coarseMap[neighbours[i]];
+                        coarseWeights[count++] = edgeWeights[i];
+                    }
+                    if (member == match[node]) break;
+                }
+                coarseOffsets[coarse + 1] = count;
+            }
+            return merged(coarseCount, coarseOffsets, coarseNeighbours, coarseWeights, coarseNodeWeights);
+        }
+
+        // Grows regions breadth-first from mutually distant seeds, always extending the lightest region.
+        int[] grow(int regions, long targetWeight, Random random) {
+            int[] parts = new int[nodeCount];
+            Arrays.fill(parts, -1);
+            long[] regionWeights = new long[regions];
+            List<ArrayDeque<Integer>> frontiers = new ArrayList<>();
+            int[] hops = new int[nodeCount];
+            Arrays.fill(hops, Integer.MAX_VALUE);
+            ArrayDeque<Integer> bfs = new ArrayDeque<>();
+
+            int seed = random.nextInt(nodeCount);
+            for (int region = 0; region < regions; region++) {
+                frontiers.add(new ArrayDeque<>());
+                assign(seed, region, parts, regionWeights, frontiers);
+
+                // The next seed is the unassigned node farthest from every seed so far.
+                hops[seed] = 0;
+                bfs.add(seed);
+                while (!bfs.isEmpty()) {
+                    int node = bfs.poll();
+                    for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                        int neighbour = neighbours[i];
+                        if (hops[neighbour] > hops[node] + 1) {
+                            hops[neighbour] = hops[node] + 1;
+                            bfs.add(neighbour);
+                        }
+                    }
+                }
+                int farthest = -1;
+                for (int node = 0; node < nodeCount; node++) {
+                    if (parts[node] < 0 && (farthest < 0 || hops[node] > hops[farthest])) {
+                        farthest = node;
+                    }
+                }
+                if (farthest < 0) break;
+                seed = farthest;
+            }
+
+            int unassigned = 0;
+            while (true) {
+                int lightest = -1;
+                for (int region = 0; region < regions; region++) {
+                    if (regionWeights[region] < targetWeight && !frontiers.get(region).isEmpty()
+                            && (lightest < 0 || regionWeights[region] < regionWeights[lightest])) {
+                        lightest = region;
+                    }
+                }
+                if (lightest < 0) {
+                    // No region can grow; the lightest one restarts in a part of the graph not yet reached.
+                    while (unassigned < nodeCount && parts[unassigned] >= 0) {
+                        unassigned++;
+                    }
+                    if (unassigned == nodeCount) break;
+                    lightest = 0;
+                    for (int region = 1; region < regions; region++) {
+                        if (regionWeights[region] < regionWeights[lightest]) lightest = region;
+                    }
+                    assign(unassigned, lightest, parts, regionWeights, frontiers);
+                    continue;
+                }
+                int node = frontiers.get(lightest).poll();
+                if (parts[node] < 0) {
+                    assign(node, lightest, parts, regionWeights, frontiers);
+                }
+            }
+            return parts;
+        }
+
+        // Puts the node in the region and queues its unassigned neighbours on the region's front.
+        private void assign(int node, int region, int[] parts, long[] regionWeights, List<ArrayDeque<Integer>> frontiers) {
+            parts[node] = region;
+            regionWeights[region] += nodeWeights[node];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (parts[neighbours[i]] < 0) {
+                    frontiers.get(region).add(neighbours[i]);
+                }
+            }
+        }
+
+        // Greedy boundary refinement: moves nodes to the neighbouring region holding most of their lanes.
+        void refine(int[] parts, int regions, long minRegionWeight, long maxRegionWeight) {
+            long[] regionWeights = new long[regions];
+            for (int node = 0; node < nodeCount; node++) {
+                regionWeights[parts[node]] += nodeWeights[node];
+            }
+            int[] connection = new int[regions];
+            int[] touched = new int[regions];
+            for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+                int moves = 0;
+                for (int node = 0; node < nodeCount; node++) {
+                    int from = parts[node];
+                    int touchedCount = 0;
+                    boolean boundary = false;
+                    for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                        int region = parts[neighbours[i]];
+                        if (connection[region] == 0) touched[touchedCount++] = region;
+                        connection[region] += edgeWeights[i];
+                        boundary |= region != from;
+                    }
+                    if (boundary) {
+                        int weight = nodeWeights[node];
+                        boolean overweight = regionWeights[from] > maxRegionWeight;
+                        int best = -1;
+                        int bestGain = Integer.MIN_VALUE;
+                        for (int t = 0; t < touchedCount; t++) {
+                            int to = touched[t];
+                            if (to == from || regionWeights[to] + weight > maxRegionWeight) continue;
+                            int gain = connection[to] - connection[from];
+                            boolean improves = gain > 0
+                                    || (gain == 0 && regionWeights[to] + weight < regionWeights[from])
+                                    || overweight;
+                            if (improves && gain > bestGain) {
+                                best = to;
+                                bestGain = gain;
+                            }
+                        }
+                        if (best >= 0 && (overweight || regionWeights[from] - weight >= minRegionWeight)) {
+                            parts[node] = best;
+                            regionWeights[from] -= weight;
+                            regionWeights[best] += weight;
+                            moves++;
+                        }
+                    }
+                    for (int t = 0; t < touchedCount; t++) {
+                        connection[touched[t]] = 0;
+                    }
+                }
+                if (moves == 0) break;
+            }
+        }
+
+        // Total weight of lanes between different regions.
+        long cut(int[] parts) {
+            long cut = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    if (parts[neighbours[i]] != parts[node]) cut += edgeWeights[i];
+                }
+            }
+            return cut / 2;
+        }
+    }
+}
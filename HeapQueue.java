@@ -0,0 +1,45 @@
+/**
+ * {@link IntegerQueue} over an {@link IndexedMinHeap}, for searches that are not monotone because
+ * some travel times are negative. Costs O(log n) per operation like any comparison heap.
+ */
+public class HeapQueue implements IntegerQueue {
+
+    private final IndexedMinHeap heap;
+    private int lastKey;    // Key of the island returned by the last pop.
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity The number of islands (ids 0 to capacity - 1).
+     */
+    public HeapQueue(int capacity) {
+        heap = new IndexedMinHeap(capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    @Override
+    public void push(int node, int key) {
+        heap.push(node, key);
+    }
+
+    @Override
+    public int pop() {
+        int node = heap.pop();
+        lastKey = (int) heap.key(node);
+        return node;
+    }
+
+    @Override
+    public int lastKey() {
+        return lastKey;
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap over island ids with double priorities and decrease-key.
+ *
+ * Every island is in the heap at most once, so a search never queues stale entries, and all
+ * storage is allocated up front: pushing, popping and updating priorities allocate nothing.
+ */
+public class IndexedMinHeap {
+
+    private static final int ARITY = 4;     // Children per heap node; 4 keeps the tree shallow and cache friendly.
+
+    private final int[] heap;               // Island ids in heap order.
+    private final int[] positions;          // Position of each island in the heap, or -1 if absent.
+    private final double[] keys;            // Priority of each island currently in the heap.
+    private int size;                       // Number of islands in the heap.
+
+    /**
+     * Creates an empty heap able to hold every island id below the given capacity.
+     *
+     * @param capacity The number of islands (ids 0 to capacity - 1).
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    // Whether the heap holds no islands.
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Number of islands in the heap.
+    public int size() {
+        return size;
+    }
+
+    // Whether the island is currently in the heap.
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    // Priority of an island currently in the heap.
+    public double key(int node) {
+        return keys[node];
+    }
+
+    // Priority of the island at the top of the heap.
+    public double minKey() {
+        return keys[heap[0]];
+    }
+
+    // Island at the top of the heap, without removing it.
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Inserts the island, or moves it to the new priority if it is already in the heap.
+     *
+     * @param node The island id.
+     * @param key The island's new priority.
+     */
+    public void push(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            position = size++;
+            heap[position] = node;
+            positions[node] = position;
+            keys[node] = key;
+            siftUp(position);
+        } else {
+            double old = keys[node];
+            keys[node] = key;
+            if (key < old) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the island with the smallest priority.
+     *
+     * @return The island id; its priority stays readable through {@link #key(int)} until it is pushed again.
+     */
+    public int pop() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Removes every island, in time proportional to the heap's size.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // Moves the entry at the position towards the root until its parent is not larger.
+    private void siftUp(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (position > 0) {
+            int parent = (position - 1) / ARITY;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) break;
+            heap[position] = parentNode;
+            positions[parentNode] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    // Moves the entry at the position towards the leaves until no child is smaller.
+    private void siftDown(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (true) {
+            int firstChild = position * ARITY + 1;
+            if (firstChild >= size) break;
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int best = firstChild;
+            double bestKey = keys[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < bestKey) {
+                    best = child;
+                    bestKey = childKey;
+                }
+            }
+            if (bestKey >= key) break;
+            int bestNode = heap[best];
+            heap[position] = bestNode;
+            positions[bestNode] = position;
+            position = best;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used where a List&lt;Integer&gt; would box every element.
+ */
+public class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    public IntArrayList() {
+        this(16);
+    }
+
+    public IntArrayList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    // Appends the value, growing the backing array when full.
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    // Value at the index.
+    public int get(int index) {
+        return values[index];
+    }
+
+    // Replaces the value at the index.
+    public void set(int index, int value) {
+        values[index] = value;
+    }
+
+    // Number of values in the list.
+    public int size() {
+        return size;
+    }
+
+    // Whether the list holds no values.
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes and returns the last value.
+    public int removeLast() {
+        return values[--size];
+    }
+
+    // Removes every value, keeping the backing array.
+    public void clear() {
+        size = 0;
+    }
+
+    // Copies the values into a new array of exactly size elements.
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
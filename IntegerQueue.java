@@ -0,0 +1,69 @@
+/**
+ * Priority queue of island ids keyed by integer distances, for Dijkstra searches over integer
+ * travel times.
+ *
+ * The bucket-based queues rely on the search being monotone: keys are non-negative and no key
+ * pushed is smaller than the last key popped, or before the first pop than the first key pushed.
+ * That lets them file islands into buckets by key instead of comparing keys, which is what makes
+ * them cheaper than a comparison heap. A queue may keep an older entry for an island that was
+ * pushed again with a smaller key; callers skip such stale entries as they would with a
+ * {@link java.util.PriorityQueue}.
+ */
+public interface IntegerQueue {
+
+    // Largest edge weight served by a Dial bucket queue; heavier graphs get a radix heap.
+    int MAX_BUCKET_WEIGHT = 1 << 12;
+
+    /**
+     * Creates the queue best suited to the graph's travel times, falling back to a
+     * {@link HeapQueue} when some are negative and the search is not monotone.
+     *
+     * @param graph The compact graph to be searched.
+     * @return An empty queue for every island of the graph.
+     */
+    static IntegerQueue forGraph(CompactGraph graph) {
+        if (graph.hasNegativeTravelTimes()) {
+            return new HeapQueue(graph.nodeCount());
+        }
+        return forMaxWeight(graph.nodeCount(), graph.maxTravelTime());
+    }
+
+    /**
+     * Creates the queue best suited to the edge weights: a {@link BucketQueue} when the
+     * largest weight is small, a {@link RadixHeap} otherwise.
+     *
+     * @param capacity The number of islands (ids 0 to capacity - 1).
+     * @param maxWeight The largest edge weight of the graph searched.
+     * @return An empty queue.
+     */
+    static IntegerQueue forMaxWeight(int capacity, int maxWeight) {
+        if (maxWeight <= MAX_BUCKET_WEIGHT) {
+            return new BucketQueue(capacity, maxWeight);
+        }
+        return new RadixHeap();
+    }
+
+    // Whether the queue holds no islands.
+    boolean isEmpty();
+
+    /**
+     * Inserts the island with the key, or lowers the key of an island already queued.
+     *
+     * @param node The island id.
+     * @param key The island's distance, no smaller than the last key popped.
+     */
+    void push(int node, int key);
+
+    /**
+     * Removes and returns an island with the smallest key.
+     *
+     * @return The island id; its key is then available from {@link #lastKey()}.
+     */
+    int pop();
+
+    // Key of the island returned by the last pop.
+    int lastKey();
+
+    // Removes every island.
+    void clear();
+}
@@ -0,0 +1,236 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-island data held in columns indexed by {@link IslandRegistry} id, so algorithms read an array
+ * element where they used to hash an island name.
+ *
+ * Populations and recency are int columns. Each resource is a long column of quantities with a
+ * bitset of the islands holding it, and each skill is a bitset of the islands that have it.
+ * Resource and skill names are interned to small ids as well. Islands given a population are also
+ * remembered in the order they were given, which the leader's route uses to break ties as its
+ * population map's iteration order used to. Not thread-safe.
+ */
+public class IslandAttributes {
+
+    private final IslandRegistry registry;
+    private int[] populations;
+    private final BitSet populated = new BitSet();
+    private final IntArrayList populationOrder = new IntArrayList();   // Islands in the order their population was first set.
+    private int[] recency;
+
+    private final Map<String, Integer> skillIds = new HashMap<>();
+    private final List<BitSet> skillIslands = new ArrayList<>();        // Islands with each skill, by skill id.
+
+    private final Map<String, Integer> resourceIds = new HashMap<>();
+    private final List<long[]> quantities = new ArrayList<>();          // Quantity of each resource, by resource id.
+    private final List<BitSet> holders = new ArrayList<>();             // Islands listing each resource, even at 0.
+
+    /**
+     * Creates empty columns for the registry's islands.
+     *
+     * @param registry The registry whose ids index the columns.
+     */
+    public IslandAttributes(IslandRegistry registry) {
+        this.registry = registry;
+        this.populations = new int[registry.size()];
+        this.recency = new int[registry.size()];
+    }
+
+    /**
+     * Loads the string-keyed maps the algorithms used to take, interning every island they name.
+     *
+     * @param registry The registry whose ids index the columns.
+     * @param populations A Map with island populations, or null.
+     * @param recency A Map tracking the last visit time to each island, or null.
+     * @param skills A Map with skill sets of each island, or null.
+     * @param resources A Map with the type and quantity of each island's natural resources, or null.
+     * @return The attributes, in columns.
+     */
+    public static IslandAttributes fromMaps(IslandRegistry registry, Map<String, Integer> populations, Map<String, Integer> recency,
+                                            Map<String, Set<String>> skills, Map<String, Map<String, Integer>> resources) {
+        IslandAttributes attributes = new IslandAttributes(registry);
+        if (populations != null) {
+            populations.forEach((island, population) -> attributes.setPopulation(registry.intern(island), population));
+        }
+        if (recency != null) {
+            recency.forEach((island, visits) -> attributes.setRecency(registry.intern(island), visits));
+        }
+        if (skills != null) {
+            skills.forEach((island, islandSkills) -> {
+                int id = registry.intern(island);
+                for (String skill : islandSkills) {
+                    attributes.addSkill(id, skill);
+                }
+            });
+        }
+        if (resources != null) {
+            resources.forEach((island, stock) -> {
+                int id = registry.intern(island);
+                stock.forEach((resource, quantity) -> attributes.setResource(id, resource, quantity));
+            });
+        }
+        return attributes;
+    }
+
+    /**
+     * Copies the columns, sharing the registry, so a caller can change the copy without touching the
+     * original.
+     *
+     * @return A copy of the attributes.
+     */
+    public IslandAttributes copy() {
+        IslandAttributes copy = new IslandAttributes(registry);
+        copy.populations = populations.clone();
+        copy.populated.or(populated);
+        for (int i = 0; i < populationOrder.size(); i++) {
+            copy.populationOrder.add(populationOrder.get(i));
+        }
+        copy.recency = recency.clone();
+        copy.skillIds.putAll(skillIds);
+        for (BitSet islands : skillIslands) {
+            copy.skillIslands.add((BitSet) islands.clone());
+        }
+        copy.resourceIds.putAll(resourceIds);
+        for (long[] column : quantities) {
+            copy.quantities.add(column.clone());
+        }
+        for (BitSet islands : holders) {
+            copy.holders.add((BitSet) islands.clone());
+        }
+        return copy;
+    }
+
+    // The registry whose ids index the columns.
+    public IslandRegistry registry() {
+        return registry;
+    }
+
+    // Population of the island, or 0 if it has none.
+    public int population(int island) {
+        return island < populations.length ? populations[island] : 0;
+    }
+
+    // Whether the island was given a population.
+    public boolean hasPopulation(int island) {
+        return populated.get(island);
+    }
+
+    // Sets the island's population.
+    public void setPopulation(int island, int population) {
+        ensureCapacity(island);
+        if (!populated.get(island)) {
+            populated.set(island);
+            populationOrder.add(island);
+        }
+        populations[island] = population;
+    }
+
+    // Number of islands with a population.
+    public int populationCount() {
+        return populationOrder.size();
+    }
+
+    // The index-th island given a population, in the order they were given.
+    public int populatedIsland(int index) {
+        return populationOrder.get(index);
+    }
+
+    // Largest population of any island, or 0 if none has one.
+    public int maxPopulation() {
+        int max = 0;
+        boolean any = false;
+        for (int i = 0; i < populationOrder.size(); i++) {
+            int population = populations[populationOrder.get(i)];
+            max = any ? Math.max(max, population) : population;
+            any = true;
+        }
+        return max;
+    }
+
+    // Times the island has been visited, or 0.
+    public int recency(int island) {
+        return island < recency.length ? recency[island] : 0;
+    }
+
+    // Sets the island's recency.
+    public void setRecency(int island, int visits) {
+        ensureCapacity(island);
+        recency[island] = visits;
+    }
+
+    // Adds one visit to the island's recency and returns the new value.
+    public int incrementRecency(int island) {
+        ensureCapacity(island);
+        return ++recency[island];
+    }
+
+    // Records that the island has the skill.
+    public void addSkill(int island, String skill) {
+        Integer id = skillIds.get(skill);
+        if (id == null) {
+            id = skillIslands.size();
+            skillIds.put(skill, id);
+            skillIslands.add(new BitSet());
+        }
+        skillIslands.get(id).set(island);
+    }
+
+    // Whether the island has the skill.
+    public boolean hasSkill(int island, String skill) {
+        Integer id = skillIds.get(skill);
+        return id != null && skillIslands.get(id).get(island);
+    }
+
+    // Islands with the skill, as a copy.
+    public BitSet islandsWithSkill(String skill) {
+        Integer id = skillIds.get(skill);
+        return id == null ? new BitSet() : (BitSet) skillIslands.get(id).clone();
+    }
+
+    // Sets the quantity of a resource the island holds; a quantity of 0 still lists the resource.
+    public void setResource(int island, String resource, long quantity) {
+        Integer id = resourceIds.get(resource);
+        if (id == null) {
+            id = quantities.size();
+            resourceIds.put(resource, id);
+            quantities.add(new long[Math.max(registry.size(), island + 1)]);
+            holders.add(new BitSet());
+        }
+        long[] column = quantities.get(id);
+        if (island >= column.length) {
+            column = Arrays.copyOf(column, Math.max(registry.size(), island + 1));
+            quantities.set(id, column);
+        }
+        column[island] = quantity;
+        holders.get(id).set(island);
+    }
+
+    // Whether the island lists the resource, as containsKey did on its resource map.
+    public boolean holds(int island, String resource) {
+        Integer id = resourceIds.get(resource);
+        return id != null && holders.get(id).get(island);
+    }
+
+    // Quantity of the resource on the island, or 0.
+    public long quantity(int island, String resource) {
+        Integer id = resourceIds.get(resource);
+        if (id == null) return 0;
+        long[] column = quantities.get(id);
+        return island < column.length ? column[island] : 0;
+    }
+
+    // Grows the int columns to cover the island and every island interned so far.
+    private void ensureCapacity(int island) {
+        if (island >= populations.length) {
+            int capacity = Math.max(registry.size(), island + 1);
+            populations = Arrays.copyOf(populations, capacity);
+            recency = Arrays.copyOf(recency, capacity);
+        }
+    }
+}
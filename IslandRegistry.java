@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Interns island names to dense int ids shared by a graph and the {@link IslandAttributes} read
+ * alongside it.
+ *
+ * A registry made {@link #of(CompactGraph) from a graph} gives every island of the graph the id it
+ * has there, reading the graph's own name table, so making one costs nothing per island. Names
+ * interned later, such as islands that appear in a population map but have no lanes, get the next
+ * ids, at or above {@link #graphIslands()}; only these are stored here, and algorithms skip them
+ * like the unknown names they replace. Interning is not thread-safe; lookups are safe once
+ * interning stops.
+ */
+public class IslandRegistry {
+
+    private final IntFunction<String> graphNames;       // Name of each of the graph's islands.
+    private final ToIntFunction<String> graphIds;       // Graph id of a name, or -1.
+    private final int graphIslands;                     // Ids below this belong to the graph's islands.
+    private final List<String> extraNames = new ArrayList<>();      // Names interned beyond the graph, from graphIslands on.
+    private final Map<String, Integer> extraIds = new HashMap<>();  // Ids of extraNames.
+
+    private IslandRegistry(IntFunction<String> graphNames, ToIntFunction<String> graphIds, int graphIslands) {
+        this.graphNames = graphNames;
+        this.graphIds = graphIds;
+        this.graphIslands = graphIslands;
+    }
+
+    /**
+     * Creates a registry holding the graph's islands under their graph ids.
+     *
+     * @param graph The compact island graph.
+     * @return A registry of the graph's islands.
+     */
+    public static IslandRegistry of(CompactGraph graph) {
+        return new IslandRegistry(graph::name, graph::id, graph.nodeCount());
+    }
+
+    /**
+     * Creates a registry holding a stored matrix's islands under their matrix ids.
+     *
+     * @param distances A stored distance matrix.
+     * @return A registry of the matrix's islands.
+     */
+    public static IslandRegistry of(DistanceMatrixStore distances) {
+        return new IslandRegistry(distances::name, distances::id, distances.size());
+    }
+
+    /**
+     * Returns the island's id, giving it the next free id if it is new.
+     *
+     * @param name The island name.
+     * @return The island id.
+     */
+    public int intern(String name) {
+        int id = id(name);
+        if (id >= 0) {
+            return id;
+        }
+        id = size();
+        extraNames.add(name);
+        extraIds.put(name, id);
+        return id;
+    }
+
+    // Id of the island, or -1 if it has not been interned.
+    public int id(String name) {
+        int id = graphIds.applyAsInt(name);
+        if (id >= 0 || extraIds.isEmpty()) {
+            return id;
+        }
+        Integer extra = extraIds.get(name);
+        return extra == null ? -1 : extra;
+    }
+
+    // Name of the island.
+    public String name(int id) {
+        return id < graphIslands ? graphNames.apply(id) : extraNames.get(id - graphIslands);
+    }
+
+    // Number of interned islands, so valid ids run from 0 to size() - 1.
+    public int size() {
+        return graphIslands + extraNames.size();
+    }
+
+    // Number of islands the registry was created with; ids below it are the graph's or matrix's.
+    public int graphIslands() {
+        return graphIslands;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Result of a point-to-point query: the travel time between two islands and the islands on the way.
+ */
+public class IslandRoute {
+
+    private final int distance;     // Total travel time, or Integer.MAX_VALUE if the target is unreachable.
+    private final int[] islands;    // Island ids from source to target, empty if unreachable.
+    private final int settled;      // Islands settled by the search that produced the route.
+
+    public IslandRoute(int distance, int[] islands, int settled) {
+        this.distance = distance;
+        this.islands = islands;
+        this.settled = settled;
+    }
+
+    // Route for a target that cannot be reached.
+    static IslandRoute unreachable(int settled) {
+        return new IslandRoute(Integer.MAX_VALUE, new int[0], settled);
+    }
+
+    /**
+     * Builds a route by following a predecessor chain back from the target.
+     *
+     * @param predecessors Gives the previous island on the path to an island, -1 at the source.
+     * @param target The id of the destination island.
+     * @param distance The travel time to the target.
+     * @param settled Islands settled by the search.
+     * @return The route from the source to the target.
+     */
+    static IslandRoute fromPredecessors(IntUnaryOperator predecessors, int target, int distance, int settled) {
+        int length = 0;
+        for (int node = target; node >= 0; node = predecessors.applyAsInt(node)) {
+            length++;
+        }
+        int[] islands = new int[length];
+        for (int node = target; node >= 0; node = predecessors.applyAsInt(node)) {
+            islands[--length] = node;
+        }
+        return new IslandRoute(distance, islands, settled);
+    }
+
+    // Whether the target could be reached.
+    public boolean isReachable() {
+        return distance != Integer.MAX_VALUE;
+    }
+
+    // Total travel time from source to target.
+    public int distance() {
+        return distance;
+    }
+
+    // Island ids from source to target.
+    public int[] islands() {
+        return islands.clone();
+    }
+
+    // Number of islands settled while answering the query.
+    public int settledCount() {
+        return settled;
+    }
+
+    /**
+     * Resolves the route's island ids to names.
+     *
+     * @param graph The compact graph the route was computed on.
+     * @return A List representing the sequence of islands from source to target.
+     */
+    public List<String> islandNames(CompactGraph graph) {
+        return islandNames(graph::name);
+    }
+
+    /**
+     * Resolves the route's island ids to names.
+     *
+     * @param names Gives the name of an island id.
+     * @return A List representing the sequence of islands from source to target.
+     */
+    public List<String> islandNames(IntFunction<String> names) {
+        List<String> result = new ArrayList<>(islands.length);
+        for (int island : islands) {
+            result.add(names.apply(island));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ *
+ * Values below 64 get a bucket each; above that every power of two is split into 32 buckets, so
+ * any recorded value is reported within about 3% of its true size. Recording is one atomic
+ * increment plus two adder updates and never blocks, so many threads can record at once. Reads
+ * are not atomic snapshots; a value recorded during a read may or may not be counted.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;   // Buckets per power of two.
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // Name of the operation this histogram times.
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Records one value; negative values are recorded as 0.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // Number of recorded values.
+    public long count() {
+        return total.sum();
+    }
+
+    // Sum of all recorded values in nanoseconds.
+    public long sum() {
+        return sum.sum();
+    }
+
+    // Largest recorded value in nanoseconds.
+    public long max() {
+        return max.get();
+    }
+
+    // Mean recorded value in nanoseconds, 0 when empty.
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum() / count;
+    }
+
+    /**
+     * Estimates a percentile as the upper edge of the bucket holding it, capped at the maximum.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The estimated value in nanoseconds, 0 when empty.
+     */
+    public long percentile(double percentile) {
+        long count = count();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(lowerBound(i + 1) - 1, max());
+            }
+        }
+        return max();
+    }
+
+    // Clears every bucket.
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // Bucket of a value: exact below 64, then 32 buckets per power of two.
+    static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // Smallest value that falls in the bucket.
+    static long lowerBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return shift >= 58 ? Long.MAX_VALUE : mantissa << shift;
+    }
+}
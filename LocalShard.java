@@ -0,0 +1,173 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-process {@link Shard} holding one region of a partitioned graph as its own compact graph.
+ *
+ * Only the region's islands and the lanes between them are kept; lanes leaving the region are
+ * listed in the summary for the overlay. Boundary-to-boundary distances are computed once, at
+ * construction. Searches may run concurrently: each borrows its scratch arrays from a pool.
+ */
+public class LocalShard implements Shard {
+
+    private final int region;
+    private final int[] islands;            // Global ids of the region's islands, ascending; index = local id.
+    private final CompactGraph local;       // The region's lanes between local ids.
+    private final ShardSummary summary;
+    private final ConcurrentLinkedQueue<Search> searches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Extracts a region of the graph.
+     *
+     * @param graph The full compact island graph.
+     * @param partition The partition of the graph into regions.
+     * @param region The region this shard holds.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public LocalShard(CompactGraph graph, GraphPartition partition, int region) {
+        if (graph.hasNegativeTravelTimes()) {
+            throw new IllegalArgumentException("Sharded searches need non-negative travel times");
+        }
+        this.region = region;
+        this.islands = partition.islands(region);
+        int n = islands.length;
+
+        String[] names = new String[n];
+        int[] offsets = new int[n + 1];
+        IntArrayList targets = new IntArrayList();
+        IntArrayList travelTimes = new IntArrayList();
+        IntArrayList cutSources = new IntArrayList();
+        IntArrayList cutTargets = new IntArrayList();
+        IntArrayList cutTravelTimes = new IntArrayList();
+        for (int node = 0; node < n; node++) {
+            int island = islands[node];
+            names[node] = graph.name(island);
+            for (int edge = graph.edgeStart(island); edge < graph.edgeEnd(island); edge++) {
+                int target = graph.target(edge);
+                if (partition.region(target) == region) {
+                    targets.add(Arrays.binarySearch(islands, target));
+                    travelTimes.add(graph.travelTime(edge));
+                } else {
+                    cutSources.add(island);
+                    cutTargets.add(target);
+                    cutTravelTimes.add(graph.travelTime(edge));
+                }
+            }
+            offsets[node + 1] = targets.size();
+        }
+        this.local = new CompactGraph(names, offsets, targets.toArray(), travelTimes.toArray());
+
+        // Distances between boundary islands inside the region, one search per boundary island.
+        int[] boundary = partition.boundaryIslands(region);
+        int[] boundaryDistances = new int[boundary.length * boundary.length];
+        Search search = new Search();
+        for (int from = 0; from < boundary.length; from++) {
+            search.run(new int[] {boundary[from]}, new int[] {0});
+            for (int to = 0; to < boundary.length; to++) {
+                boundaryDistances[from * boundary.length + to] = search.distance(localId(boundary[to]));
+            }
+        }
+        searches.offer(search);
+
+        this.summary = new ShardSummary(region, graph.nodeCount(), islands.clone(), names, boundary, boundaryDistances,
+                cutSources.toArray(), cutTargets.toArray(), cutTravelTimes.toArray());
+    }
+
+    @Override
+    public ShardSummary describe() {
+        return summary;
+    }
+
+    @Override
+    public int[] search(int[] seeds, int[] seedDistances, int[] targets) {
+        if (seeds.length != seedDistances.length) {
+            throw new IllegalArgumentException("Expected a distance for each of " + seeds.length + " seeds");
+        }
+        Search search = searches.poll();
+        if (search == null) {
+            search = new Search();
+        }
+        try {
+            search.run(seeds, seedDistances);
+            if (targets == null) {
+                int[] distances = new int[islands.length];
+                for (int node = 0; node < islands.length; node++) {
+                    distances[node] = search.distance(node);
+                }
+                return distances;
+            }
+            int[] distances = new int[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                distances[i] = search.distance(localId(targets[i]));
+            }
+            return distances;
+        } finally {
+            searches.offer(search);
+        }
+    }
+
+    // Nothing to release; the shard lives as long as it is referenced.
+    @Override
+    public void close() {
+    }
+
+    // Local id of an island of this region.
+    private int localId(int island) {
+        int node = Arrays.binarySearch(islands, island);
+        if (node < 0) {
+            throw new IllegalArgumentException("Island " + island + " is not in region " + region);
+        }
+        return node;
+    }
+
+    /**
+     * Scratch state for one multi-source search, epoch-stamped like {@link ShortestPathEngine}.
+     */
+    private final class Search {
+        private final int[] distances = new int[islands.length];
+        private final int[] stamps = new int[islands.length];
+        private final RadixHeap queue = new RadixHeap();    // Unlike a bucket queue, takes seeds at any distance.
+        private int epoch;
+
+        void run(int[] seeds, int[] seedDistances) {
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            queue.clear();
+            for (int i = 0; i < seeds.length; i++) {
+                int node = localId(seeds[i]);
+                int distance = seedDistances[i];
+                if (distance < 0) {
+                    throw new IllegalArgumentException("Negative seed distance " + distance);
+                }
+                if (stamps[node] != epoch || distance < distances[node]) {
+                    stamps[node] = epoch;
+                    distances[node] = distance;
+                    queue.push(node, distance);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                int node = queue.pop();
+                int nodeDistance = queue.lastKey();
+                if (nodeDistance > distances[node]) continue;
+
+                for (int edge = local.edgeStart(node); edge < local.edgeEnd(node); edge++) {
+                    int destination = local.target(edge);
+                    int newDistance = nodeDistance + local.travelTime(edge);
+                    if (stamps[destination] != epoch || newDistance < distances[destination]) {
+                        stamps[destination] = epoch;
+                        distances[destination] = newDistance;
+                        queue.push(destination, newDistance);
+                    }
+                }
+            }
+        }
+
+        int distance(int node) {
+            return stamps[node] == epoch ? distances[node] : Integer.MAX_VALUE;
+        }
+    }
+}
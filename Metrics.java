@@ -0,0 +1,210 @@
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Built-in counters and latency histograms for the routing hot paths.
+ *
+ * Instrumentation is off unless the JVM starts with {@code -Dnavigation.metrics=true}. The flag is
+ * a static final constant, so with it off the JIT removes every {@code if (Metrics.ENABLED)} block
+ * and the hot loops pay nothing. Search loops count into local variables and publish once per
+ * search, so with it on a search costs a handful of adder updates, not one per edge.
+ *
+ * Values are readable in-process, over JMX (registered automatically when enabled) and as a
+ * Prometheus text dump from {@link #prometheus()}.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("navigation.metrics");
+
+    private static final Map<String, LongAdder> COUNTERS = new LinkedHashMap<>();
+    private static final Map<String, String> HELP = new LinkedHashMap<>();
+    private static final Map<String, LatencyHistogram> OPERATIONS = new LinkedHashMap<>();
+
+    // Search counters, from ShortestPathEngine and the queue-based searches in Algorithms.
+    public static final LongAdder NODES_SETTLED = counter("nodes_settled", "Islands settled by shortest-path searches.");
+    public static final LongAdder EDGES_RELAXED = counter("edges_relaxed", "Edges examined by shortest-path searches.");
+    public static final LongAdder HEAP_PUSHES = counter("heap_pushes", "Entries pushed or re-keyed on search queues.");
+    public static final LongAdder STALE_POPS = counter("stale_pops", "Queue entries popped after a shorter distance was already settled.");
+    public static final LongAdder SEARCHES = counter("searches", "Shortest-path searches run.");
+
+    // DistanceOracle row cache.
+    public static final LongAdder CACHE_HITS = counter("cache_hits", "Distance rows served from the oracle cache or matrix.");
+    public static final LongAdder CACHE_MISSES = counter("cache_misses", "Distance rows the oracle had to compute.");
+
+    // Latency of each public routine in Algorithms. Event cursors are timed through the methods that
+    // drain them into lists; a raw cursor's consumer may pause or stop, so its time is not recorded.
+    public static final LatencyHistogram SHORTEST_PATH = operation("shortestPath");
+    public static final LatencyHistogram SHORTEST_PATHS = operation("shortestPaths");
+    public static final LatencyHistogram SHORTEST_ROUTE = operation("shortestRoute");
+    public static final LatencyHistogram LEADER_ROUTE_PLAN = operation("leaderRoutePlan");
+    public static final LatencyHistogram LEADER_ROUTE_TOUR = operation("leaderRouteTour");
+    public static final LatencyHistogram DISTRIBUTE_NATURAL_RESOURCE = operation("distributeNaturalResource");
+    public static final LatencyHistogram DISTRIBUTE_RESOURCE = operation("distributeResource");
+    public static final LatencyHistogram PLAN_RESOURCE_DISTRIBUTION = operation("planResourceDistribution");
+
+    private static final String PREFIX = "navigation_";
+    private static boolean registered;
+
+    static {
+        if (ENABLED) {
+            registerMBeans();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // Start time for a timed operation, or 0 when instrumentation is off.
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    // Records the time since start() in the operation's histogram when instrumentation is on.
+    public static void stop(LatencyHistogram operation, long start) {
+        if (ENABLED) {
+            operation.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registers the counters and one bean per operation with the platform MBean server.
+     * Does nothing if they are already registered.
+     */
+    public static synchronized void registerMBeans() {
+        if (registered) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Metrics(), new ObjectName("navigation:type=Metrics"));
+            for (LatencyHistogram histogram : OPERATIONS.values()) {
+                server.registerMBean(new OperationMetrics(histogram), new ObjectName("navigation:type=Operation,name=" + histogram.name()));
+            }
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBeans", e);
+        }
+    }
+
+    /**
+     * Dumps every counter and histogram in the Prometheus text exposition format.
+     * Latencies are reported as summaries in seconds.
+     *
+     * @return The metrics text.
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            String name = PREFIX + counter.getKey() + "_total";
+            text.append("# HELP ").append(name).append(' ').append(HELP.get(counter.getKey())).append('\n');
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        String name = PREFIX + "operation_seconds";
+        text.append("# HELP ").append(name).append(" Latency of Algorithms routines.\n");
+        text.append("# TYPE ").append(name).append(" summary\n");
+        for (LatencyHistogram histogram : OPERATIONS.values()) {
+            String label = "operation=\"" + histogram.name() + "\"";
+            for (double quantile : new double[] {0.5, 0.9, 0.99}) {
+                text.append(name).append('{').append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.percentile(quantile * 100))).append('\n');
+            }
+            text.append(name).append("_count{").append(label).append("} ").append(histogram.count()).append('\n');
+            text.append(name).append("_sum{").append(label).append("} ").append(seconds(histogram.sum())).append('\n');
+        }
+        return text.toString();
+    }
+
+    // Sets every counter and histogram back to zero.
+    public static void resetAll() {
+        COUNTERS.values().forEach(LongAdder::reset);
+        OPERATIONS.values().forEach(LatencyHistogram::reset);
+    }
+
+    // Every operation's histogram, by operation name.
+    public static Map<String, LatencyHistogram> operations() {
+        return Collections.unmodifiableMap(OPERATIONS);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public String prometheus() {
+        return dump();
+    }
+
+    @Override
+    public void reset() {
+        resetAll();
+    }
+
+    private static LongAdder counter(String name, String help) {
+        LongAdder counter = new LongAdder();
+        COUNTERS.put(name, counter);
+        HELP.put(name, help);
+        return counter;
+    }
+
+    private static LatencyHistogram operation(String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        OPERATIONS.put(name, histogram);
+        return histogram;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    // JMX adapter for one operation's histogram.
+    private static class OperationMetrics implements OperationMetricsMXBean {
+        private final LatencyHistogram histogram;
+
+        OperationMetrics(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.count();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.mean() / 1e3;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return histogram.percentile(50) / 1e3;
+        }
+
+        @Override
+        public double getP90Micros() {
+            return histogram.percentile(90) / 1e3;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return histogram.percentile(99) / 1e3;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return histogram.max() / 1e3;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+import java.util.Map;
+
+/**
+ * JMX view of the hot-path counters in {@link Metrics}, registered as {@code navigation:type=Metrics}.
+ */
+public interface MetricsMXBean {
+
+    // Whether instrumentation is on; it is fixed at startup by -Dnavigation.metrics=true.
+    boolean isEnabled();
+
+    // Current value of every counter, by metric name.
+    Map<String, Long> getCounters();
+
+    // Every counter and latency histogram in the Prometheus text format.
+    String prometheus();
+
+    // Sets every counter and histogram back to zero.
+    void reset();
+}
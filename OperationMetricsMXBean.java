@@ -0,0 +1,18 @@
+/**
+ * JMX view of one operation's latency histogram, registered as
+ * {@code navigation:type=Operation,name=<operation>}. Times are in microseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+}
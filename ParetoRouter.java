@@ -0,0 +1,385 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds every route between two islands that is best in some trade-off between travel time and
+ * population served, instead of folding population into the lane cost.
+ *
+ * A route serves the population of every island on it, the source included, and never visits an
+ * island twice. Route A dominates route B when A is no slower and serves at least as many people;
+ * the answer is the Pareto front of routes no other route dominates, fastest first.
+ *
+ * Every extra island on a route adds people, so without limits the front would hold almost every
+ * route. Routes are therefore limited to a travel time of at most (1 + slack) times the fastest
+ * route (see {@link #withSlack}), and never more than an absolute budget (see {@link #withTimeBudget}).
+ *
+ * A query first searches backwards from the target, giving every island a lower bound on its
+ * remaining travel time; islands that cannot reach the target within the limit are never entered.
+ * A second search forwards from the source lets the check that a route does not revisit an island
+ * stop after the few steps of the route that could have been there.
+ * The main search is label-setting: each label is a partial route with its travel time and
+ * population, labels leave a {@link RadixHeap} in order of travel time plus remaining bound, as in
+ * A*, and each island keeps the front of labels that reached it. A new label is dropped if a label
+ * already at its island dominates it, and removes the labels it dominates. Each front is capped
+ * (see {@link #withMaxLabels}): when a full front takes a new label, the label closest in
+ * population to its faster neighbour is evicted, so the front keeps its spread. The cap, and
+ * dominance between routes that visited different islands, make the front a fast approximation:
+ * every route returned exists and is within the limit, but some trade-offs may be missed. On
+ * graphs without cycles and with an unbounded cap, the front is exact.
+ *
+ * Travel times must not be negative. Scratch state is reused between queries, so a router is not
+ * thread-safe; use one per thread.
+ */
+public class ParetoRouter {
+
+    public static final int DEFAULT_MAX_LABELS = 8;
+    public static final double DEFAULT_SLACK = 0.1;     // Routes up to 10% slower than the fastest.
+
+    private final CompactGraph graph;
+    private final CompactGraph reverse;         // Same islands with every edge reversed, for the bounds.
+    private final long[] populations;           // Population of each island.
+    private int maxLabels = DEFAULT_MAX_LABELS;
+    private double slack = DEFAULT_SLACK;
+    private int timeBudget = Integer.MAX_VALUE;
+
+    // Travel times to the current target and from the current source; valid only where stamps match epoch.
+    private final int[] bounds;
+    private final int[] boundStamps;
+    private final int[] fromSource;
+    private final int[] sourceStamps;
+    private int epoch;
+
+    // Labels of the current query, indexed by label id.
+    private int[] labelIslands = new int[64];
+    private int[] labelTimes = new int[64];
+    private long[] labelPopulations = new long[64];
+    private int[] labelParents = new int[64];   // Label this one extends, -1 at the source.
+    private boolean[] labelDropped = new boolean[64];
+    private int labelCount;
+
+    private final int[][] fronts;               // Label ids at each island, by travel time; populations strictly increase.
+    private final int[] frontSizes;
+    private final IntArrayList touched = new IntArrayList();   // Islands whose fronts must be cleared.
+    private final RadixHeap queue = new RadixHeap();
+    private int settled;
+
+    /**
+     * Creates a router for the graph.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations; missing islands count as 1.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public ParetoRouter(CompactGraph graph, Map<String, Integer> populations) {
+        this(graph, IslandAttributes.fromMaps(IslandRegistry.of(graph), populations, null, null, null));
+    }
+
+    /**
+     * Creates a router for the graph, reading populations from the attribute columns.
+     *
+     * @param graph The compact island graph.
+     * @param attributes Island attributes keyed by {@link IslandRegistry#of(CompactGraph) the graph's registry};
+     *                   islands without a population count as 1.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public ParetoRouter(CompactGraph graph, IslandAttributes attributes) {
+        if (graph.hasNegativeTravelTimes()) {
+            throw new IllegalArgumentException("Pareto routing needs non-negative travel times");
+        }
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        int n = graph.nodeCount();
+        this.populations = new long[n];
+        for (int island = 0; island < n; island++) {
+            this.populations[island] = attributes.hasPopulation(island) ? attributes.population(island) : 1;
+        }
+        this.fronts = new int[n][];
+        this.frontSizes = new int[n];
+        this.bounds = new int[n];
+        this.boundStamps = new int[n];
+        this.fromSource = new int[n];
+        this.sourceStamps = new int[n];
+    }
+
+    /**
+     * Caps the labels kept per island. Smaller caps answer faster and return coarser fronts.
+     *
+     * @param maxLabels The largest front kept at one island, at least 1.
+     * @return This router.
+     */
+    public ParetoRouter withMaxLabels(int maxLabels) {
+        if (maxLabels < 1) {
+            throw new IllegalArgumentException("Need at least one label per island, got " + maxLabels);
+        }
+        this.maxLabels = maxLabels;
+        return this;
+    }
+
+    /**
+     * Limits routes to a travel time of (1 + slack) times the fastest route. Larger slack finds more
+     * trade-offs and takes longer.
+     *
+     * @param slack The fraction by which routes may be slower than the fastest, at least 0.
+     * @return This router.
+     */
+    public ParetoRouter withSlack(double slack) {
+        if (!(slack >= 0)) {
+            throw new IllegalArgumentException("Slack must not be negative, got " + slack);
+        }
+        this.slack = slack;
+        return this;
+    }
+
+    /**
+     * Ignores routes slower than the budget, however much slack is allowed.
+     *
+     * @param timeBudget The largest travel time of a route returned.
+     * @return This router.
+     */
+    public ParetoRouter withTimeBudget(int timeBudget) {
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * Finds the Pareto front of routes between two islands.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island.
+     * @return The non-dominated routes, fastest first; empty if the target cannot be reached in the budget.
+     */
+    public List<Route> routes(int source, int target) {
+        clear();
+        settled = 0;
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(boundStamps, 0);
+            Arrays.fill(sourceStamps, 0);
+            epoch = 1;
+        }
+        int limit = search(reverse, target, source, bounds, boundStamps, timeBudget, true);
+        if (limit < 0) {
+            return new ArrayList<>();
+        }
+        search(graph, source, target, fromSource, sourceStamps, limit, false);
+        addLabel(source, 0, populations[source], -1);
+        queue.push(0, bounds[source]);
+
+        while (!queue.isEmpty()) {
+            int label = queue.pop();
+            if (labelDropped[label]) continue;
+            settled++;
+            int island = labelIslands[label];
+            if (island == target) continue;     // Routes end at the target.
+
+            int time = labelTimes[label];
+            for (int edge = graph.edgeStart(island); edge < graph.edgeEnd(island); edge++) {
+                int destination = graph.target(edge);
+                if (boundStamps[destination] != epoch) continue;
+                long arrival = (long) time + graph.travelTime(edge);
+                if (arrival + bounds[destination] > limit || onRoute(label, destination)) continue;
+                int added = addLabel(destination, (int) arrival, labelPopulations[label] + populations[destination], label);
+                if (added >= 0) {
+                    queue.push(added, (int) arrival + bounds[destination]);
+                }
+            }
+        }
+
+        List<Route> routes = new ArrayList<>(frontSizes[target]);
+        for (int i = 0; i < frontSizes[target]; i++) {
+            int label = fronts[target][i];
+            routes.add(new Route(new IslandRoute(labelTimes[label], routeIslands(label), settled), labelPopulations[label]));
+        }
+        return routes;
+    }
+
+    // Number of labels settled by the last query.
+    public int settledCount() {
+        return settled;
+    }
+
+    /**
+     * Runs Dijkstra from an island up to a time limit. When asked, the limit tightens to the time
+     * limit for routes once the search reaches the island at the other end. Islands left unstamped
+     * are beyond the limit.
+     *
+     * @param graph The graph to search: reversed when searching from the target.
+     * @param origin The island to search from.
+     * @param other The island at the other end of the query.
+     * @param distances Receives the travel time of every island within the limit.
+     * @param stamps Marks the islands with a distance, by epoch.
+     * @param limit The largest distance to search to.
+     * @param findLimit Whether to tighten the limit by the slack once the other island is reached.
+     * @return The final limit, or -1 if the other island cannot be reached within it.
+     */
+    private int search(CompactGraph graph, int origin, int other, int[] distances, int[] stamps, int limit, boolean findLimit) {
+        boolean reached = false;
+        queue.clear();
+        stamps[origin] = epoch;
+        distances[origin] = 0;
+        queue.push(origin, 0);
+        while (!queue.isEmpty()) {
+            int node = queue.pop();
+            int distance = queue.lastKey();
+            if (distance > limit) break;
+            if (distance > distances[node]) continue;
+            if (node == other && !reached) {
+                reached = true;
+                if (findLimit) {
+                    limit = (int) Math.min(limit, distance + (long) (distance * slack));
+                }
+            }
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int next = graph.target(edge);
+                long newDistance = (long) distance + graph.travelTime(edge);
+                if (newDistance <= limit && (stamps[next] != epoch || newDistance < distances[next])) {
+                    stamps[next] = epoch;
+                    distances[next] = (int) newDistance;
+                    queue.push(next, (int) newDistance);
+                }
+            }
+        }
+        // Islands pushed but not settled are beyond the limit, so they are pruned like unreached ones.
+        queue.clear();
+        return reached ? limit : -1;
+    }
+
+    // Adds a label at the island unless its front dominates it; returns the label id, or -1 if dropped.
+    private int addLabel(int island, int time, long population, int parent) {
+        int[] front = fronts[island];
+        int size = frontSizes[island];
+        if (front == null) {
+            front = fronts[island] = new int[Math.min(maxLabels, 4) + 1];
+        }
+        if (size == 0) {
+            touched.add(island);
+        }
+
+        // The front is sorted by time with rising populations, so only the nearest label no slower can dominate.
+        int position = 0;
+        while (position < size && labelTimes[front[position]] < time) {
+            position++;
+        }
+        if (position > 0 && labelPopulations[front[position - 1]] >= population) {
+            return -1;
+        }
+        if (position < size && labelTimes[front[position]] == time && labelPopulations[front[position]] >= population) {
+            return -1;
+        }
+        // Labels no faster serving no more people are dominated by the new one.
+        int end = position;
+        while (end < size && labelPopulations[front[end]] <= population) {
+            labelDropped[front[end]] = true;
+            end++;
+        }
+
+        int label = newLabel(island, time, population, parent);
+        if (size - (end - position) + 1 > front.length) {
+            front = fronts[island] = Arrays.copyOf(front, Math.min(front.length * 2, maxLabels + 1));
+        }
+        System.arraycopy(front, end, front, position + 1, size - end);
+        front[position] = label;
+        size += 1 - (end - position);
+
+        if (size > maxLabels) {
+            // Evict the label adding the least population over its faster neighbour; the fastest always stays.
+            int evict = 1;
+            for (int i = 2; i < size; i++) {
+                if (labelPopulations[front[i]] - labelPopulations[front[i - 1]]
+                        < labelPopulations[front[evict]] - labelPopulations[front[evict - 1]]) {
+                    evict = i;
+                }
+            }
+            labelDropped[front[evict]] = true;
+            System.arraycopy(front, evict + 1, front, evict, size - evict - 1);
+            size--;
+        }
+        frontSizes[island] = size;
+        return labelDropped[label] ? -1 : label;
+    }
+
+    private int newLabel(int island, int time, long population, int parent) {
+        if (labelCount == labelIslands.length) {
+            int capacity = labelCount * 2;
+            labelIslands = Arrays.copyOf(labelIslands, capacity);
+            labelTimes = Arrays.copyOf(labelTimes, capacity);
+            labelPopulations = Arrays.copyOf(labelPopulations, capacity);
+            labelParents = Arrays.copyOf(labelParents, capacity);
+            labelDropped = Arrays.copyOf(labelDropped, capacity);
+        }
+        int label = labelCount++;
+        labelIslands[label] = island;
+        labelTimes[label] = time;
+        labelPopulations[label] = population;
+        labelParents[label] = parent;
+        labelDropped[label] = false;
+        return label;
+    }
+
+    // Whether the label's route already visits the island. Times fall walking back along the route,
+    // and no route is at the island before its travel time from the source, so the walk stops there.
+    private boolean onRoute(int label, int island) {
+        int earliest = fromSource[island];
+        for (int current = label; current >= 0 && labelTimes[current] >= earliest; current = labelParents[current]) {
+            if (labelIslands[current] == island) return true;
+        }
+        return false;
+    }
+
+    // Island ids of a label's route, from source to the label's island.
+    private int[] routeIslands(int label) {
+        int length = 0;
+        for (int current = label; current >= 0; current = labelParents[current]) {
+            length++;
+        }
+        int[] islands = new int[length];
+        for (int current = label; current >= 0; current = labelParents[current]) {
+            islands[--length] = labelIslands[current];
+        }
+        return islands;
+    }
+
+    private void clear() {
+        for (int i = 0; i < touched.size(); i++) {
+            frontSizes[touched.get(i)] = 0;
+        }
+        touched.clear();
+        labelCount = 0;
+        queue.clear();
+    }
+
+    /**
+     * One route of a Pareto front.
+     */
+    public static final class Route {
+        private final IslandRoute route;
+        private final long population;
+
+        Route(IslandRoute route, long population) {
+            this.route = route;
+            this.population = population;
+        }
+
+        // The islands on the route and its travel time.
+        public IslandRoute route() {
+            return route;
+        }
+
+        // Total travel time from source to target.
+        public int travelTime() {
+            return route.distance();
+        }
+
+        // Total population of the islands on the route.
+        public long population() {
+            return population;
+        }
+
+        @Override
+        public String toString() {
+            return travelTime() + " time, " + population + " people, " + Arrays.toString(route.islands());
+        }
+    }
+}
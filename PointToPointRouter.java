@@ -0,0 +1,267 @@
+import java.util.Arrays;
+
+/**
+ * Answers travel-time queries between two specific islands without settling the whole graph.
+ *
+ * Three strategies are offered, all on plain travel times (alpha = 0) and all returning the route:
+ * <ul>
+ *   <li>{@link #dijkstra}: Dijkstra that stops as soon as the target is settled.</li>
+ *   <li>{@link #bidirectional}: Dijkstra from both ends at once, stopping when the frontiers meet.</li>
+ *   <li>{@link #aStar}: A* guided by landmark (ALT) lower bounds from {@link #precomputeLandmarks}.</li>
+ * </ul>
+ * Scratch arrays are allocated once per router. A router is not thread-safe; use one per thread.
+ */
+public class PointToPointRouter {
+
+    private final CompactGraph graph;
+    private final CompactGraph reverse;         // Same islands with every edge reversed.
+    private final ShortestPathEngine engine;    // Runs the early-terminating and landmark searches.
+    private final Side forward;
+    private final Side backward;
+    private int[] landmarks = new int[0];
+    private int[][] fromLandmark = new int[0][];    // fromLandmark[i][v] = distance from landmark i to v.
+    private int[][] toLandmark = new int[0][];      // toLandmark[i][v] = distance from v to landmark i.
+
+    /**
+     * Creates a router for the graph without landmarks; {@link #aStar} then behaves like Dijkstra.
+     *
+     * @param graph The compact island graph.
+     */
+    public PointToPointRouter(CompactGraph graph) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.engine = new ShortestPathEngine(graph);
+        this.forward = new Side(graph);
+        this.backward = new Side(reverse);
+    }
+
+    /**
+     * Picks landmark islands by farthest-point selection and stores distances to and from each.
+     * A handful of landmarks (8 to 16) is usually enough; each costs two full searches and two rows.
+     *
+     * @param count The number of landmarks to pick.
+     */
+    public void precomputeLandmarks(int count) {
+        int n = graph.nodeCount();
+        count = Math.min(count, n);
+        landmarks = new int[count];
+        fromLandmark = new int[count][];
+        toLandmark = new int[count][];
+        if (count == 0) return;
+
+        ShortestPathEngine backwardEngine = new ShortestPathEngine(reverse);
+        int[] nearest = new int[n];     // Distance from each island to its nearest chosen landmark.
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        // The first landmark is the island farthest from island 0.
+        engine.run(0, 0);
+        int candidate = farthest(engine.copyDistances(new int[n]));
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = candidate;
+            engine.run(candidate, 0);
+            fromLandmark[i] = engine.copyDistances(new int[n]);
+            backwardEngine.run(candidate, 0);
+            toLandmark[i] = backwardEngine.copyDistances(new int[n]);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], fromLandmark[i][v]);
+            }
+            candidate = farthest(nearest);
+        }
+    }
+
+    // Ids of the landmark islands currently in use.
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Runs Dijkstra from the source and stops once the target is settled.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island.
+     * @return The shortest route, or an unreachable route.
+     */
+    public IslandRoute dijkstra(int source, int target) {
+        engine.run(source, target, 0);
+        if (!engine.reached(target)) {
+            return IslandRoute.unreachable(engine.settledCount());
+        }
+        return IslandRoute.fromPredecessors(engine::predecessor, target, engine.distance(target), engine.settledCount());
+    }
+
+    /**
+     * Runs Dijkstra forwards from the source and backwards from the target, always expanding the side
+     * with the smaller frontier key, until the two frontiers cannot improve the best meeting point.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island.
+     * @return The shortest route, or an unreachable route.
+     */
+    public IslandRoute bidirectional(int source, int target) {
+        if (source == target) {
+            return new IslandRoute(0, new int[] {source}, 1);
+        }
+        forward.start(source, 0);
+        backward.start(target, 0);
+        long best = Integer.MAX_VALUE;  // Shortest source-to-target distance found so far.
+        int meet = -1;                  // Island where that path crosses between the two searches.
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            if (forward.heap.minKey() + backward.heap.minKey() >= best) break;
+            Side side = forward.heap.minKey() <= backward.heap.minKey() ? forward : backward;
+            Side other = side == forward ? backward : forward;
+
+            int node = side.heap.pop();
+            side.settled++;
+            int nodeDistance = side.distances[node];
+            for (int edge = side.graph.edgeStart(node); edge < side.graph.edgeEnd(node); edge++) {
+                int next = side.graph.target(edge);
+                int newDistance = nodeDistance + side.graph.travelTime(edge);
+                side.relax(next, newDistance, node, newDistance);
+                if (other.reached(next)) {
+                    long candidate = (long) side.distances[next] + other.distances[next];
+                    if (candidate < best) {
+                        best = candidate;
+                        meet = next;
+                    }
+                }
+            }
+        }
+
+        int settled = forward.settled + backward.settled;
+        if (meet < 0) {
+            return IslandRoute.unreachable(settled);
+        }
+
+        // Forward chain from the source to the meeting island, then backward chain on to the target.
+        int forwardLength = 0;
+        for (int node = meet; node >= 0; node = forward.predecessors[node]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int node = backward.predecessors[meet]; node >= 0; node = backward.predecessors[node]) {
+            backwardLength++;
+        }
+        int[] islands = new int[forwardLength + backwardLength];
+        int position = forwardLength;
+        for (int node = meet; node >= 0; node = forward.predecessors[node]) {
+            islands[--position] = node;
+        }
+        position = forwardLength;
+        for (int node = backward.predecessors[meet]; node >= 0; node = backward.predecessors[node]) {
+            islands[position++] = node;
+        }
+        return new IslandRoute((int) best, islands, settled);
+    }
+
+    /**
+     * Runs A* from the source, ordering islands by distance so far plus the landmark lower bound
+     * on the distance left. The bound is consistent, so the first time the target is settled its
+     * distance is exact.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island.
+     * @return The shortest route, or an unreachable route.
+     */
+    public IslandRoute aStar(int source, int target) {
+        forward.start(source, lowerBound(source, target));
+        while (!forward.heap.isEmpty()) {
+            int node = forward.heap.pop();
+            forward.settled++;
+            if (node == target) {
+                return IslandRoute.fromPredecessors(v -> forward.predecessors[v], target, forward.distances[target], forward.settled);
+            }
+            int nodeDistance = forward.distances[node];
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int next = graph.target(edge);
+                int newDistance = nodeDistance + graph.travelTime(edge);
+                if (!forward.reached(next) || newDistance < forward.distances[next]) {
+                    forward.relax(next, newDistance, node, (double) newDistance + lowerBound(next, target));
+                }
+            }
+        }
+        return IslandRoute.unreachable(forward.settled);
+    }
+
+    /**
+     * Lower bound on the distance from an island to the target, from the triangle inequality over
+     * every landmark: d(v, t) is at least d(L, t) - d(L, v) and at least d(v, L) - d(t, L).
+     *
+     * @param node The id of the island.
+     * @param target The id of the destination island.
+     * @return A non-negative lower bound, 0 without landmarks.
+     */
+    public int lowerBound(int node, int target) {
+        int bound = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            int[] from = fromLandmark[i];
+            int[] to = toLandmark[i];
+            if (from[target] != Integer.MAX_VALUE && from[node] != Integer.MAX_VALUE) {
+                bound = Math.max(bound, from[target] - from[node]);
+            }
+            if (to[node] != Integer.MAX_VALUE && to[target] != Integer.MAX_VALUE) {
+                bound = Math.max(bound, to[node] - to[target]);
+            }
+        }
+        return bound;
+    }
+
+    // Island with the largest finite distance, skipping unreachable islands.
+    private static int farthest(int[] distances) {
+        int best = 0;
+        int bestDistance = -1;
+        for (int v = 0; v < distances.length; v++) {
+            if (distances[v] != Integer.MAX_VALUE && distances[v] > bestDistance) {
+                best = v;
+                bestDistance = distances[v];
+            }
+        }
+        return best;
+    }
+
+    // Scratch state for one search direction, reset between queries with an epoch stamp.
+    private static class Side {
+        final CompactGraph graph;
+        final int[] distances;
+        final int[] predecessors;
+        final int[] stamps;
+        final IndexedMinHeap heap;
+        int epoch;
+        int settled;
+
+        Side(CompactGraph graph) {
+            this.graph = graph;
+            this.distances = new int[graph.nodeCount()];
+            this.predecessors = new int[graph.nodeCount()];
+            this.stamps = new int[graph.nodeCount()];
+            this.heap = new IndexedMinHeap(graph.nodeCount());
+        }
+
+        void start(int source, double key) {
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            heap.clear();
+            settled = 0;
+            stamps[source] = epoch;
+            distances[source] = 0;
+            predecessors[source] = -1;
+            heap.push(source, key);
+        }
+
+        boolean reached(int node) {
+            return stamps[node] == epoch;
+        }
+
+        // Records a shorter distance to the island and queues it with the given key.
+        void relax(int node, int distance, int predecessor, double key) {
+            if (stamps[node] == epoch && distance >= distances[node]) return;
+            stamps[node] = epoch;
+            distances[node] = distance;
+            predecessors[node] = predecessor;
+            heap.push(node, key);
+        }
+    }
+}
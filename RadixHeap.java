@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+/**
+ * Radix heap: an {@link IntegerQueue} for integer keys of any size.
+ *
+ * Bucket {@code b > 0} holds keys whose highest bit differing from the last key popped is bit
+ * {@code b - 1}; bucket 0 holds keys equal to it. When bucket 0 runs dry, the lowest non-empty
+ * bucket is emptied into the buckets below it around its smallest key. Each entry moves down at
+ * most 32 times, so a search pays amortized O(log C) per entry for the largest edge weight C,
+ * without ever comparing two entries' keys.
+ *
+ * Entries with equal keys always share a bucket and keep their order when it is emptied, so they
+ * pop first in, first out. Pushing an island again with a smaller key adds a second entry rather
+ * than moving the first, so callers must skip stale entries on pop.
+ */
+public class RadixHeap implements IntegerQueue {
+
+    private static final int BUCKETS = 33;  // Bucket 0 plus one per bit of a non-negative int.
+
+    private final int[][] nodes = new int[BUCKETS][];   // Island ids in each bucket.
+    private final int[][] keys = new int[BUCKETS][];    // Key of each entry, parallel to nodes.
+    private final int[] sizes = new int[BUCKETS];       // Number of entries in each bucket.
+    private int first;                                  // Next entry of bucket 0 to pop.
+    private int size;                                   // Number of entries in all buckets.
+    private int last;                                   // Key buckets are measured from; never above a queued key.
+    private int lastKey;                                // Key of the island returned by the last pop.
+
+    public RadixHeap() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            nodes[bucket] = new int[16];
+            keys[bucket] = new int[16];
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void push(int node, int key) {
+        add(bucket(key), node, key);
+        size++;
+    }
+
+    @Override
+    public int pop() {
+        if (first == sizes[0]) {
+            first = 0;
+            sizes[0] = 0;
+            int bucket = 1;
+            while (sizes[bucket] == 0) {
+                bucket++;
+            }
+            int[] bucketNodes = nodes[bucket];
+            int[] bucketKeys = keys[bucket];
+            int count = sizes[bucket];
+            int min = bucketKeys[0];
+            for (int i = 1; i < count; i++) {
+                min = Math.min(min, bucketKeys[i]);
+            }
+            last = min;
+            sizes[bucket] = 0;
+            for (int i = 0; i < count; i++) {
+                add(bucket(bucketKeys[i]), bucketNodes[i], bucketKeys[i]);
+            }
+        }
+        int entry = first++;
+        size--;
+        lastKey = keys[0][entry];
+        return nodes[0][entry];
+    }
+
+    @Override
+    public int lastKey() {
+        return lastKey;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        first = 0;
+        size = 0;
+        last = 0;
+    }
+
+    // Bucket for the key: one more than the highest bit where it differs from the last key popped.
+    private int bucket(int key) {
+        return 32 - Integer.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(int bucket, int node, int key) {
+        int entry = sizes[bucket]++;
+        if (entry == nodes[bucket].length) {
+            nodes[bucket] = Arrays.copyOf(nodes[bucket], entry * 2);
+            keys[bucket] = Arrays.copyOf(keys[bucket], entry * 2);
+        }
+        nodes[bucket][entry] = node;
+        keys[bucket][entry] = key;
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * {@link Shard} served by a {@link ShardServer} in another process, reached over one socket.
+ *
+ * Requests on the connection are serialized, so concurrent callers take turns; open several
+ * RemoteShards to the same server for parallel searches. The summary is fetched once and cached.
+ */
+public class RemoteShard implements Shard {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private ShardSummary summary;
+
+    /**
+     * Connects to a shard server.
+     *
+     * @param host The server's host, usually localhost.
+     * @param port The server's port.
+     * @throws IOException if the connection fails.
+     */
+    public RemoteShard(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    @Override
+    public synchronized ShardSummary describe() throws IOException {
+        if (summary == null) {
+            out.writeByte(ShardServer.DESCRIBE);
+            out.flush();
+            awaitReply();
+            summary = ShardServer.readSummary(in);
+        }
+        return summary;
+    }
+
+    @Override
+    public synchronized int[] search(int[] seeds, int[] seedDistances, int[] targets) throws IOException {
+        out.writeByte(ShardServer.SEARCH);
+        ShardServer.writeInts(out, seeds);
+        ShardServer.writeInts(out, seedDistances);
+        ShardServer.writeInts(out, targets);
+        out.flush();
+        awaitReply();
+        return ShardServer.readInts(in);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        socket.close();
+    }
+
+    // Reads the reply status, turning a server-side error back into an exception.
+    private void awaitReply() throws IOException {
+        byte status = in.readByte();
+        if (status == ShardServer.ERROR) {
+            throw new IllegalArgumentException(in.readUTF());
+        }
+        if (status != ShardServer.OK) {
+            throw new IOException("Unexpected reply status " + status);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily generated route: each event is computed only when asked for, so a route of any length
+ * needs memory for the search alone, and a consumer that stops early skips the rest of the work.
+ *
+ * Events can be pulled as an {@link Iterator} or a sequential {@link Stream}, or pushed into a
+ * {@link RouteSink} with {@link #drainTo}. All three read the same position, so a cursor paused by
+ * a sink or left mid-iteration resumes where it stopped. Cursors are not thread-safe.
+ */
+public abstract class RouteCursor implements Iterator<RouteEvent> {
+
+    private RouteEvent next;        // Event computed by hasNext but not yet returned.
+    private boolean finished;
+
+    /**
+     * Advances the algorithm to its next event.
+     *
+     * @return The next event, or null once the route is complete.
+     */
+    protected abstract RouteEvent advance();
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = advance();
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public RouteEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RouteEvent event = next;
+        next = null;
+        return event;
+    }
+
+    /**
+     * Pushes events into the sink until the route ends or the sink asks to stop.
+     *
+     * @param sink Receives the events.
+     * @return Whether the route is complete; false if the sink stopped it, and drainTo can resume it.
+     */
+    public boolean drainTo(RouteSink sink) {
+        while (hasNext()) {
+            if (!sink.accept(next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams the remaining events. The stream shares this cursor's position.
+     *
+     * @return A sequential, ordered stream of events.
+     */
+    public Stream<RouteEvent> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
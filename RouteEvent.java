@@ -0,0 +1,116 @@
+/**
+ * One step of a route produced by the distribution and leader-route algorithms, as emitted by a
+ * {@link RouteCursor}.
+ *
+ * Events carry the island and figures as fields, so consumers need not parse text; {@link #text()}
+ * formats an event as the line the list-returning algorithms have always produced.
+ */
+public class RouteEvent {
+
+    /**
+     * What happened at this step.
+     */
+    public enum Type {
+        STOP,           // The leader stops at an island.
+        VISIT,          // A canoe visits an island.
+        RELOAD,         // The canoes return to the source island to reload.
+        DELIVER,        // A canoe delivers units of a resource to an island.
+        MISSING,        // The start island does not hold the resource; nothing is delivered.
+        TOTAL_TIME      // Total travel time of the distribution, emitted last.
+    }
+
+    private final Type type;
+    private final int island;       // Island id, or -1 for TOTAL_TIME.
+    private final String name;      // Island name, or null for TOTAL_TIME.
+    private final String resource;  // Resource delivered, for DELIVER and MISSING.
+    private final int amount;       // Units delivered for DELIVER, total time for TOTAL_TIME, else 0.
+
+    RouteEvent(Type type, int island, String name, String resource, int amount) {
+        this.type = type;
+        this.island = island;
+        this.name = name;
+        this.resource = resource;
+        this.amount = amount;
+    }
+
+    static RouteEvent stop(int island, String name) {
+        return new RouteEvent(Type.STOP, island, name, null, 0);
+    }
+
+    static RouteEvent visit(int island, String name) {
+        return new RouteEvent(Type.VISIT, island, name, null, 0);
+    }
+
+    static RouteEvent reload(int source, String sourceName) {
+        return new RouteEvent(Type.RELOAD, source, sourceName, null, 0);
+    }
+
+    static RouteEvent deliver(int island, String name, String resource, int units) {
+        return new RouteEvent(Type.DELIVER, island, name, resource, units);
+    }
+
+    static RouteEvent missing(int source, String sourceName, String resource) {
+        return new RouteEvent(Type.MISSING, source, sourceName, resource, 0);
+    }
+
+    static RouteEvent totalTime(int time) {
+        return new RouteEvent(Type.TOTAL_TIME, -1, null, null, time);
+    }
+
+    // What happened at this step.
+    public Type type() {
+        return type;
+    }
+
+    // Id of the island: the island stopped at, visited or delivered to, or the source for RELOAD and MISSING.
+    public int island() {
+        return island;
+    }
+
+    // Name of the island, or null for TOTAL_TIME.
+    public String islandName() {
+        return name;
+    }
+
+    // Resource delivered or missing, or null for other events.
+    public String resource() {
+        return resource;
+    }
+
+    // Units delivered, for DELIVER events.
+    public int units() {
+        return type == Type.DELIVER ? amount : 0;
+    }
+
+    // Total travel time, for TOTAL_TIME events.
+    public int time() {
+        return type == Type.TOTAL_TIME ? amount : 0;
+    }
+
+    /**
+     * Formats the event as the list-returning algorithms do.
+     *
+     * @return The line describing the event.
+     */
+    public String text() {
+        switch (type) {
+            case STOP:
+                return name;
+            case VISIT:
+                return "Visited " + name;
+            case RELOAD:
+                return "Returning to " + name + " to reload";
+            case DELIVER:
+                return "Deliver " + amount + " units of " + resource + " to " + name;
+            case MISSING:
+                return "\nResource not found on the start island.";
+            default:
+                return "Total path timelength: " + amount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + text().trim();
+    }
+}
@@ -0,0 +1,189 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal HTTP front end for a {@link RouteQueryService}, on the JDK's built-in server.
+ *
+ * Endpoints (GET, JSON responses):
+ * <ul>
+ *   <li>{@code /shortest-path?source=Hawaii&alpha=1.5}: distance to every island, null if unreachable.</li>
+ *   <li>{@code /route?from=Hawaii&to=Samoa}: travel time and islands of the quickest route.</li>
+ *   <li>{@code /leader-route?home=Hawaii}: the leader's knowledge-sharing route, from a fresh recency map.</li>
+ * </ul>
+ * Unknown islands give 404 and malformed parameters 400.
+ *
+ * Usage: {@code java RouteQueryServer [port]} serves the built-in Polynesia data, by default on port 8080.
+ */
+public class RouteQueryServer {
+
+    private final RouteQueryService service;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+
+    /**
+     * Binds the server; call {@link #start()} to begin serving.
+     *
+     * @param service The service answering the queries.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public RouteQueryServer(RouteQueryService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.createContext("/shortest-path", exchange -> handle(exchange, this::shortestPath));
+        server.createContext("/route", exchange -> handle(exchange, this::route));
+        server.createContext("/leader-route", exchange -> handle(exchange, this::leaderRoute));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        RouteQueryService service = new RouteQueryService(DataLoader.getCompactIslandGraph(), DataLoader.getIslandPopulations());
+        RouteQueryServer server = new RouteQueryServer(service, port);
+        server.start();
+        System.out.println("Serving route queries on port " + server.port());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stops serving; the service itself is left open.
+    public void stop() {
+        server.stop(0);
+        handlers.shutdown();
+    }
+
+    // The port the server is bound to.
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private interface Endpoint {
+        String answer(Map<String, String> parameters) throws Exception;
+    }
+
+    private String shortestPath(Map<String, String> parameters) throws Exception {
+        double alpha = Double.parseDouble(parameters.getOrDefault("alpha", "0"));
+        Map<String, Integer> distances = service.shortestPath(required(parameters, "source"), alpha).get();
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Integer> entry : distances.entrySet()) {
+            if (json.length() > 1) json.append(',');
+            quote(json, entry.getKey()).append(':');
+            json.append(entry.getValue() == Integer.MAX_VALUE ? "null" : entry.getValue().toString());
+        }
+        return json.append('}').toString();
+    }
+
+    private String route(Map<String, String> parameters) throws Exception {
+        RouteQueryService.NamedRoute named = service.namedRoute(required(parameters, "from"), required(parameters, "to")).get();
+        IslandRoute route = named.route();
+        StringBuilder json = new StringBuilder("{\"distance\":");
+        json.append(route.isReachable() ? Integer.toString(route.distance()) : "null").append(",\"islands\":");
+        return array(json, named.islandNames()).append('}').toString();
+    }
+
+    private String leaderRoute(Map<String, String> parameters) throws Exception {
+        Map<String, Integer> recency = new HashMap<>();
+        Map<String, Set<String>> skills = new HashMap<>();
+        service.snapshot().populations().keySet().forEach(island -> {
+            recency.put(island, 0);
+            skills.put(island, new HashSet<>());
+        });
+        List<String> route = service.leaderRoutePlan(required(parameters, "home"), recency, skills).get();
+        return array(new StringBuilder(), route).toString();
+    }
+
+    // Runs the endpoint and writes its JSON, or an error status with a JSON message.
+    private static void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("Only GET is supported");
+            } else {
+                body = endpoint.answer(parameters(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException e) {
+            status = e.getMessage() != null && e.getMessage().startsWith("Unknown island") ? 404 : 400;
+            body = error(e.getMessage());
+        } catch (ExecutionException e) {
+            status = 500;
+            body = error(String.valueOf(e.getCause()));
+        } catch (Exception e) {
+            status = 500;
+            body = error(String.valueOf(e));
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String error(String message) {
+        return quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    private static StringBuilder array(StringBuilder json, List<String> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) json.append(',');
+            quote(json, values.get(i));
+        }
+        return json.append(']');
+    }
+
+    // Appends the string as a JSON string literal.
+    private static StringBuilder quote(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,363 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived, thread-safe front end for route queries from many concurrent callers.
+ *
+ * The service owns an immutable {@link Snapshot} of the graph and populations. {@link #publish}
+ * swaps in a new snapshot atomically (copy-on-write), so queries never see a half-updated graph
+ * and queries already running finish on the snapshot they started with. Queries run on the
+ * service's executor and borrow scratch engines from a pool on the snapshot, so the number of
+ * engines tracks the number of queries actually running at once, whatever kind of threads the
+ * executor uses. Identical shortest-path queries (same snapshot, source and alpha) that arrive
+ * while one is in flight share its result instead of searching again.
+ *
+ * Caller-supplied maps are never modified: {@link #leaderRoutePlan} works on a copy of the recency map.
+ */
+public class RouteQueryService implements AutoCloseable {
+
+    private static final double LEADER_ALPHA = 1.5;     // Alpha used by Algorithms.leaderRoutePlan.
+
+    /**
+     * Immutable graph and population data that a set of queries runs against.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final CompactGraph graph;
+        private final Map<String, Integer> populations;
+        private final int[] populationWeights;
+        private final IslandAttributes leaderAttributes;    // Populations leader plans copy their recency into.
+        private final DistanceOracle leaderDistances;   // Shared by leader plans on this snapshot.
+        private final ConcurrentLinkedQueue<ShortestPathEngine> engines = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<PointToPointRouter> routers = new ConcurrentLinkedQueue<>();
+
+        private Snapshot(long version, CompactGraph graph, Map<String, Integer> populations) {
+            this.version = version;
+            this.graph = graph;
+            // Copied in the caller's iteration order, which decides ties in leaderRoutePlan.
+            this.populations = Collections.unmodifiableMap(new LinkedHashMap<>(populations));
+            this.populationWeights = Algorithms.populationWeights(graph, this.populations);
+            this.leaderAttributes = IslandAttributes.fromMaps(IslandRegistry.of(graph), this.populations, null, null, null);
+            this.leaderDistances = new DistanceOracle(graph, this.populations, LEADER_ALPHA);
+        }
+
+        // Increases by one with every publish.
+        public long version() {
+            return version;
+        }
+
+        // The graph queries on this snapshot run on.
+        public CompactGraph graph() {
+            return graph;
+        }
+
+        // Read-only view of the populations queries on this snapshot use.
+        public Map<String, Integer> populations() {
+            return populations;
+        }
+
+        // Runs the work with an engine from the pool, creating one if all are busy.
+        private <T> T withEngine(Function<ShortestPathEngine, T> work) {
+            ShortestPathEngine engine = engines.poll();
+            if (engine == null) {
+                engine = new ShortestPathEngine(graph).withPopulationWeights(populationWeights);
+            }
+            try {
+                return work.apply(engine);
+            } finally {
+                engines.offer(engine);
+            }
+        }
+
+        // Runs the work with a router from the pool, creating one if all are busy.
+        private <T> T withRouter(Function<PointToPointRouter, T> work) {
+            PointToPointRouter router = routers.poll();
+            if (router == null) {
+                router = new PointToPointRouter(graph);
+            }
+            try {
+                return work.apply(router);
+            } finally {
+                routers.offer(router);
+            }
+        }
+
+        private int id(String island) {
+            int id = graph.id(island);
+            if (id < 0) {
+                throw new IllegalArgumentException("Unknown island: " + island);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * A route together with its island names, resolved on the snapshot the route was computed on.
+     */
+    public static final class NamedRoute {
+        private final IslandRoute route;
+        private final List<String> islandNames;
+
+        private NamedRoute(IslandRoute route, List<String> islandNames) {
+            this.route = route;
+            this.islandNames = islandNames;
+        }
+
+        // The route, with island ids of the snapshot it was computed on.
+        public IslandRoute route() {
+            return route;
+        }
+
+        // Names of the islands from source to target, empty if the target is unreachable.
+        public List<String> islandNames() {
+            return islandNames;
+        }
+    }
+
+    // Identifies a shortest-path query for coalescing.
+    private static final class QueryKey {
+        private final long version;
+        private final int source;
+        private final double alpha;
+
+        QueryKey(long version, int source, double alpha) {
+            this.version = version;
+            this.source = source;
+            this.alpha = alpha;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof QueryKey)) return false;
+            QueryKey key = (QueryKey) other;
+            return version == key.version && source == key.source && Double.compare(alpha, key.alpha) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(version, source, alpha);
+        }
+    }
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final ConcurrentHashMap<QueryKey, CompletableFuture<int[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Creates a service with its own pool of one thread per core.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     */
+    public RouteQueryService(CompactGraph graph, Map<String, Integer> populations) {
+        this(graph, populations, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * Creates a service that runs queries on the given executor. The caller keeps ownership of the
+     * executor; {@link #close()} does not shut it down.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations.
+     * @param executor Runs the queries.
+     */
+    public RouteQueryService(CompactGraph graph, Map<String, Integer> populations, ExecutorService executor) {
+        this(graph, populations, executor, false);
+    }
+
+    private RouteQueryService(CompactGraph graph, Map<String, Integer> populations, ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        publish(graph, populations);
+    }
+
+    /**
+     * Replaces the graph and populations. Queries submitted afterwards use the new snapshot;
+     * queries already submitted finish on the old one.
+     *
+     * @param graph The compact island graph.
+     * @param populations A Map with island populations; it is copied.
+     * @return The new snapshot.
+     */
+    public synchronized Snapshot publish(CompactGraph graph, Map<String, Integer> populations) {
+        Snapshot next = new Snapshot(versions.incrementAndGet(), graph, populations);
+        snapshot.set(next);
+        return next;
+    }
+
+    // The snapshot new queries run on.
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Computes shortest distances from an island, sharing the search with any identical query in flight.
+     *
+     * @param source The name of the starting island.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return A future Map of each island's shortest distance from the source.
+     * @throws IllegalArgumentException if the island is not in the graph.
+     */
+    public CompletableFuture<Map<String, Integer>> shortestPath(String source, double alpha) {
+        Snapshot current = snapshot.get();
+        return distances(current, current.id(source), alpha)
+                .thenApply(distances -> Algorithms.toDistanceMap(current.graph, distances));
+    }
+
+    /**
+     * Computes shortest distances from an island by id, sharing the search with any identical query
+     * in flight. Callers that coalesced receive the same array, so it must not be modified.
+     *
+     * @param source The id of the starting island.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     * @return A future array indexed by island id, with Integer.MAX_VALUE for unreachable islands.
+     */
+    public CompletableFuture<int[]> shortestPath(int source, double alpha) {
+        return distances(snapshot.get(), source, alpha);
+    }
+
+    /**
+     * Finds the quickest route between two islands by travel time.
+     *
+     * @param from The name of the starting island.
+     * @param to The name of the destination island.
+     * @return A future route, unreachable if there is no path.
+     * @throws IllegalArgumentException if either island is not in the graph.
+     */
+    public CompletableFuture<IslandRoute> route(String from, String to) {
+        Snapshot current = snapshot.get();
+        int source = current.id(from);
+        int target = current.id(to);
+        return submit(() -> current.withRouter(router -> router.bidirectional(source, target)));
+    }
+
+    /**
+     * Finds the quickest route between two islands by travel time and names its islands on the same
+     * snapshot, so a publish while the query runs cannot mix ids of one graph with names of another.
+     *
+     * @param from The name of the starting island.
+     * @param to The name of the destination island.
+     * @return A future route with its island names, unreachable if there is no path.
+     * @throws IllegalArgumentException if either island is not in the graph.
+     */
+    public CompletableFuture<NamedRoute> namedRoute(String from, String to) {
+        Snapshot current = snapshot.get();
+        int source = current.id(from);
+        int target = current.id(to);
+        return submit(() -> {
+            IslandRoute route = current.withRouter(router -> router.bidirectional(source, target));
+            return new NamedRoute(route, route.islandNames(current.graph));
+        });
+    }
+
+    /**
+     * Plans a leader's knowledge-sharing route as {@link Algorithms#leaderRoutePlan} does, on a copy of
+     * the recency map so the caller's map is left untouched.
+     *
+     * @param homeIsland The starting island for the leader.
+     * @param recency A Map tracking the last visit time to each island.
+     * @param skills A Map with skill sets of each island.
+     * @return A future List representing the sequence of islands in the leader's route.
+     * @throws IllegalArgumentException if the island is not in the graph.
+     */
+    public CompletableFuture<List<String>> leaderRoutePlan(String homeIsland, Map<String, Integer> recency, Map<String, Set<String>> skills) {
+        Snapshot current = snapshot.get();
+        int home = current.id(homeIsland);
+        Map<String, Integer> recencyCopy = new HashMap<>(recency);
+        return submit(() -> {
+            // Islands outside the graph are never visited, so their recency is not needed.
+            IslandAttributes attributes = current.leaderAttributes.copy();
+            recencyCopy.forEach((island, visits) -> {
+                int id = current.graph.id(island);
+                if (id >= 0) {
+                    attributes.setRecency(id, visits);
+                }
+            });
+            return Algorithms.leaderRoutePlan(current.leaderDistances, attributes, home);
+        });
+    }
+
+    // Number of searches the service has actually run for shortest-path queries.
+    public long searchCount() {
+        return searches.get();
+    }
+
+    // Number of shortest-path queries answered by joining a search already in flight.
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Stops accepting queries and, if the service created its own executor, shuts it down after
+     * waiting briefly for running queries.
+     */
+    @Override
+    public void close() {
+        if (!ownsExecutor) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the in-flight search for the key, or starts one.
+    private CompletableFuture<int[]> distances(Snapshot current, int source, double alpha) {
+        QueryKey key = new QueryKey(current.version, source, alpha);
+        CompletableFuture<int[]> future = new CompletableFuture<>();
+        CompletableFuture<int[]> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    searches.incrementAndGet();
+                    future.complete(current.withEngine(engine -> {
+                        engine.run(source, alpha);
+                        return engine.copyDistances(new int[current.graph.nodeCount()]);
+                    }));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Runs the query on the executor.
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Receives route events pushed by {@link RouteCursor#drainTo}, one at a time as the algorithm
+ * produces them. Returning false stops the cursor early; it can be resumed later.
+ */
+@FunctionalInterface
+public interface RouteSink {
+
+    /**
+     * Takes the next event.
+     *
+     * @param event The event.
+     * @return Whether to keep going; false pauses the cursor after this event.
+     */
+    boolean accept(RouteEvent event);
+
+    /**
+     * Writes each event's text as a line, for streaming a route to a file or socket.
+     *
+     * @param out Where to write; flushing and closing are left to the caller.
+     * @return A sink that never stops early.
+     * @throws UncheckedIOException from accept if writing fails.
+     */
+    static RouteSink lines(Appendable out) {
+        return event -> {
+            try {
+                out.append(event.text()).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Adds each event's text to a list, as the list-returning algorithms do.
+     *
+     * @param lines The list to add to.
+     * @return A sink that never stops early.
+     */
+    static RouteSink collect(List<String> lines) {
+        return event -> lines.add(event.text());
+    }
+}
@@ -0,0 +1,37 @@
+import java.io.IOException;
+
+/**
+ * One region of a partitioned island graph, answering searches confined to its own islands.
+ *
+ * Islands are always named by their id in the full graph. A shard may live in the same process
+ * ({@link LocalShard}) or in another one ({@link RemoteShard}); {@link ShardedQueryExecutor}
+ * stitches shard searches together through a {@link BoundaryOverlay}.
+ */
+public interface Shard extends AutoCloseable {
+
+    /**
+     * Describes the region: its islands, its boundary islands with the distances between them
+     * inside the region, and the lanes leaving it.
+     *
+     * @return The region's summary.
+     * @throws IOException if the shard cannot be reached.
+     */
+    ShardSummary describe() throws IOException;
+
+    /**
+     * Runs a multi-source search over the region's own lanes, starting each seed island at its
+     * seed distance, and reports the distances to the target islands.
+     *
+     * @param seeds Ids of islands of this region to start from.
+     * @param seedDistances The starting distance of each seed, at least 0.
+     * @param targets Ids of islands of this region to report, or null for every island in
+     *                the order of {@link ShardSummary#islands()}.
+     * @return The distance to each target, Integer.MAX_VALUE if unreachable within the region.
+     * @throws IOException if the shard cannot be reached.
+     * @throws IllegalArgumentException if an island is not in this region.
+     */
+    int[] search(int[] seeds, int[] seedDistances, int[] targets) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
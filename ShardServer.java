@@ -0,0 +1,231 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a {@link Shard} to {@link RemoteShard} clients over a local TCP socket.
+ *
+ * Each connection is handled on its own thread and carries a sequence of requests, each a one-byte
+ * operation followed by its arguments, written with DataOutputStream. Int arrays are sent as
+ * their length followed by the elements, with length -1 for null. Every reply starts with
+ * {@link #OK} or with {@link #ERROR} and a message.
+ *
+ * Usage: {@code java ShardServer <port> <regions> <region> [archipelago]} partitions the graph
+ * into the given number of regions and serves one of them, on any free port if the port is 0.
+ * The archipelago is {@code POLYNESIA} (the default), {@code SHAPE:islands} for a generated one,
+ * or the path of a graph file. Once listening it prints {@code Listening on port <port>}.
+ */
+public class ShardServer implements AutoCloseable {
+
+    static final byte DESCRIBE = 1;     // No arguments; replies with the shard summary.
+    static final byte SEARCH = 2;       // Seeds, seed distances and targets; replies with distances.
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    static final long GENERATED_SEED = 1;   // Seed for generated archipelagos, shared by every process.
+
+    private final Shard shard;
+    private final ServerSocket socket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "shard-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Binds the server to the loopback interface; call {@link #start()} to begin serving.
+     *
+     * @param shard The shard to serve.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public ShardServer(Shard shard, int port) throws IOException {
+        this.shard = shard;
+        this.socket = new ServerSocket();
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java ShardServer <port> <regions> <region> [archipelago]");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        int regions = Integer.parseInt(args[1]);
+        int region = Integer.parseInt(args[2]);
+        CompactGraph graph = loadGraph(args.length > 3 ? args[3] : "POLYNESIA");
+        GraphPartition partition = new GraphPartitioner(regions).partition(graph);
+        ShardServer server = new ShardServer(new LocalShard(graph, partition, region), port);
+        server.start();
+        System.out.println("Listening on port " + server.port());
+        System.out.flush();
+    }
+
+    /**
+     * Loads an archipelago by name, as accepted by {@link #main}.
+     *
+     * @param archipelago {@code POLYNESIA}, {@code SHAPE:islands} or the path of a graph file.
+     * @return The compact island graph.
+     * @throws IOException if the graph file cannot be read.
+     */
+    public static CompactGraph loadGraph(String archipelago) throws IOException {
+        if (archipelago.equals("POLYNESIA")) {
+            return DataLoader.getCompactIslandGraph();
+        }
+        Path path = Paths.get(archipelago);
+        if (Files.exists(path)) {
+            return GraphFileLoader.loadCompactGraph(path);
+        }
+        int colon = archipelago.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Unknown archipelago: " + archipelago);
+        }
+        ArchipelagoGenerator.Shape shape = ArchipelagoGenerator.Shape.valueOf(archipelago.substring(0, colon));
+        int islands = Integer.parseInt(archipelago.substring(colon + 1));
+        return CompactGraph.fromMap(ArchipelagoGenerator.generate(shape, islands, GENERATED_SEED));
+    }
+
+    // Starts accepting connections on a background thread.
+    public void start() {
+        Thread acceptor = new Thread(this::accept, "shard-acceptor");
+        acceptor.start();
+    }
+
+    // The port the server is bound to.
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    // Stops accepting connections; connections already open end when their clients close them.
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        connections.shutdown();
+    }
+
+    private void accept() {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connections.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Shard server stopped accepting: " + e);
+                }
+                return;
+            }
+        }
+    }
+
+    // Answers requests on the connection until the client closes it.
+    private void serve(Socket connection) {
+        try (Socket open = connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(open.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(open.getOutputStream()))) {
+            open.setTcpNoDelay(true);
+            while (true) {
+                byte operation;
+                try {
+                    operation = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    if (operation == DESCRIBE) {
+                        ShardSummary summary = shard.describe();
+                        out.writeByte(OK);
+                        writeSummary(out, summary);
+                    } else if (operation == SEARCH) {
+                        int[] seeds = readInts(in);
+                        int[] seedDistances = readInts(in);
+                        int[] targets = readInts(in);
+                        int[] distances = shard.search(seeds, seedDistances, targets);
+                        out.writeByte(OK);
+                        writeInts(out, distances);
+                    } else {
+                        throw new IllegalArgumentException("Unknown operation " + operation);
+                    }
+                } catch (RuntimeException e) {
+                    out.writeByte(ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Shard connection failed: " + e);
+        }
+    }
+
+    static void writeSummary(DataOutputStream out, ShardSummary summary) throws IOException {
+        out.writeInt(summary.region());
+        out.writeInt(summary.totalIslands());
+        writeInts(out, summary.islands());
+        for (String name : summary.names()) {
+            out.writeUTF(name);
+        }
+        writeInts(out, summary.boundary());
+        writeInts(out, summary.boundaryDistances());
+        int lanes = summary.cutLaneCount();
+        out.writeInt(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            out.writeInt(summary.cutSource(lane));
+            out.writeInt(summary.cutTarget(lane));
+            out.writeInt(summary.cutTravelTime(lane));
+        }
+    }
+
+    static ShardSummary readSummary(DataInputStream in) throws IOException {
+        int region = in.readInt();
+        int totalIslands = in.readInt();
+        int[] islands = readInts(in);
+        String[] names = new String[islands.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        int[] boundary = readInts(in);
+        int[] boundaryDistances = readInts(in);
+        int lanes = in.readInt();
+        int[] cutSources = new int[lanes];
+        int[] cutTargets = new int[lanes];
+        int[] cutTravelTimes = new int[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            cutSources[lane] = in.readInt();
+            cutTargets[lane] = in.readInt();
+            cutTravelTimes[lane] = in.readInt();
+        }
+        return new ShardSummary(region, totalIslands, islands, names, boundary, boundaryDistances, cutSources, cutTargets, cutTravelTimes);
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * What a coordinator needs to know about a {@link Shard}: the region's islands, its boundary
+ * islands with the travel times between them inside the region, and the lanes leaving it.
+ * Islands are named by their id in the full graph.
+ */
+public class ShardSummary {
+
+    private final int region;
+    private final int totalIslands;
+    private final int[] islands;
+    private final String[] names;
+    private final int[] boundary;
+    private final int[] boundaryDistances;
+    private final int[] cutSources;
+    private final int[] cutTargets;
+    private final int[] cutTravelTimes;
+
+    /**
+     * Creates a summary. The arrays are kept, not copied.
+     *
+     * @param region The region this shard holds.
+     * @param totalIslands The number of islands in the full graph.
+     * @param islands Ids of the region's islands.
+     * @param names Name of each of the region's islands.
+     * @param boundary Ids of the region's boundary islands.
+     * @param boundaryDistances Distance inside the region from boundary island i to boundary island j
+     *                          at {@code i * boundary.length + j}, Integer.MAX_VALUE if unreachable.
+     * @param cutSources Island of this region each outgoing cut lane leaves from.
+     * @param cutTargets Island of another region each outgoing cut lane leads to.
+     * @param cutTravelTimes Travel time of each outgoing cut lane.
+     */
+    public ShardSummary(int region, int totalIslands, int[] islands, String[] names, int[] boundary, int[] boundaryDistances,
+                        int[] cutSources, int[] cutTargets, int[] cutTravelTimes) {
+        this.region = region;
+        this.totalIslands = totalIslands;
+        this.islands = islands;
+        this.names = names;
+        this.boundary = boundary;
+        this.boundaryDistances = boundaryDistances;
+        this.cutSources = cutSources;
+        this.cutTargets = cutTargets;
+        this.cutTravelTimes = cutTravelTimes;
+    }
+
+    // The region this shard holds.
+    public int region() {
+        return region;
+    }
+
+    // Number of islands in the full graph.
+    public int totalIslands() {
+        return totalIslands;
+    }
+
+    // Ids of the region's islands.
+    public int[] islands() {
+        return islands.clone();
+    }
+
+    // Name of each of the region's islands, in the order of islands().
+    public String[] names() {
+        return names.clone();
+    }
+
+    // Ids of the region's boundary islands.
+    public int[] boundary() {
+        return boundary.clone();
+    }
+
+    // Distance inside the region between two boundary islands, by their index in boundary().
+    public int boundaryDistance(int from, int to) {
+        return boundaryDistances[from * boundary.length + to];
+    }
+
+    // Number of lanes leaving the region.
+    public int cutLaneCount() {
+        return cutSources.length;
+    }
+
+    // Island of this region the cut lane leaves from.
+    public int cutSource(int lane) {
+        return cutSources[lane];
+    }
+
+    // Island of another region the cut lane leads to.
+    public int cutTarget(int lane) {
+        return cutTargets[lane];
+    }
+
+    // Travel time of the cut lane.
+    public int cutTravelTime(int lane) {
+        return cutTravelTimes[lane];
+    }
+
+    // Raw distance matrix between boundary islands, for serialization.
+    int[] boundaryDistances() {
+        return boundaryDistances;
+    }
+}
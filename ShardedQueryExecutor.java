@@ -0,0 +1,328 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers shortest-path queries over a graph split into {@link Shard shards}, one per region,
+ * without ever holding the whole graph.
+ *
+ * The executor keeps only each island's region and name and the {@link BoundaryOverlay}. A query
+ * from island s runs in three steps:
+ * <ol>
+ *   <li>s's shard searches its region from s, giving distances to the region's boundary islands.</li>
+ *   <li>The overlay search continues from those boundary islands to every boundary island.</li>
+ *   <li>Each target region's shard searches its region from its boundary islands, seeded with
+ *       their overlay distances (and from s itself in s's region).</li>
+ * </ol>
+ * Every route leaving s's region enters the target region through a boundary island, so the
+ * result equals a search of the full graph. Costs are plain travel times, as in
+ * {@link Algorithms#shortestPath} with alpha 0, and must not be negative. Searches of different
+ * regions in step 3 run in parallel. The executor is thread-safe as long as its shards are.
+ */
+public class ShardedQueryExecutor implements AutoCloseable {
+
+    private final Shard[] shards;               // Shard of each region.
+    private final ShardSummary[] summaries;     // Summary of each region.
+    private final int[] regions;                // Region of each island.
+    private final String[] names;               // Name of each island.
+    private final Map<String, Integer> ids;     // Island name to id.
+    private final BoundaryOverlay overlay;
+    private final ExecutorService executor;
+
+    /**
+     * Creates an executor over shards that together hold every region of one partition.
+     *
+     * @param shards One shard per region, in any order.
+     * @throws IOException if a shard cannot be reached.
+     * @throws IllegalArgumentException if the shards do not cover every region exactly once.
+     */
+    public ShardedQueryExecutor(List<? extends Shard> shards) throws IOException {
+        int count = shards.size();
+        this.shards = new Shard[count];
+        this.summaries = new ShardSummary[count];
+        for (Shard shard : shards) {
+            ShardSummary summary = shard.describe();
+            int region = summary.region();
+            if (region < 0 || region >= count || this.shards[region] != null) {
+                throw new IllegalArgumentException("Region " + region + " is out of range or held by two shards");
+            }
+            this.shards[region] = shard;
+            this.summaries[region] = summary;
+        }
+
+        int total = count == 0 ? 0 : summaries[0].totalIslands();
+        this.regions = new int[total];
+        this.names = new String[total];
+        this.ids = new HashMap<>(total * 4 / 3 + 1);
+        int covered = 0;
+        for (ShardSummary summary : summaries) {
+            int[] islands = summary.islands();
+            String[] regionNames = summary.names();
+            for (int i = 0; i < islands.length; i++) {
+                regions[islands[i]] = summary.region();
+                names[islands[i]] = regionNames[i];
+                ids.put(regionNames[i], islands[i]);
+            }
+            covered += islands.length;
+        }
+        if (covered != total) {
+            throw new IllegalArgumentException("Shards hold " + covered + " of " + total + " islands");
+        }
+        this.overlay = new BoundaryOverlay(List.of(summaries));
+        this.executor = Executors.newFixedThreadPool(Math.max(1, count), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Partitions the graph and serves every region from a shard in this process.
+     *
+     * @param graph The compact island graph.
+     * @param regionCount The number of regions.
+     * @return An executor over in-process shards.
+     */
+    public static ShardedQueryExecutor inProcess(CompactGraph graph, int regionCount) {
+        GraphPartition partition = new GraphPartitioner(regionCount).partition(graph);
+        List<LocalShard> shards = new ArrayList<>();
+        for (int region = 0; region < partition.regionCount(); region++) {
+            shards.add(new LocalShard(graph, partition, region));
+        }
+        try {
+            return new ShardedQueryExecutor(shards);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Local shards do no I/O.
+        }
+    }
+
+    /**
+     * Demonstrates sharded execution across processes: starts one {@link ShardServer} process per
+     * region on this machine, answers a query through them and checks it against a search of the
+     * full graph.
+     *
+     * Usage: {@code java ShardedQueryExecutor [regions] [archipelago] [source]}, by default 4 regions
+     * of the built-in Polynesia data with Hawaii as the source.
+     */
+    public static void main(String[] args) throws Exception {
+        int regionCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String archipelago = args.length > 1 ? args[1] : "POLYNESIA";
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<RemoteShard> shards = new ArrayList<>();
+        try {
+            for (int region = 0; region < regionCount; region++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "ShardServer",
+                        "0", Integer.toString(regionCount), Integer.toString(region), archipelago)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+            }
+            for (Process process : processes) {
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = output.readLine();
+                if (line == null || !line.startsWith("Listening on port ")) {
+                    throw new IOException("Shard process did not start: " + line);
+                }
+                shards.add(new RemoteShard("localhost", Integer.parseInt(line.substring("Listening on port ".length()))));
+            }
+
+            try (ShardedQueryExecutor sharded = new ShardedQueryExecutor(shards)) {
+                String source = args.length > 2 ? args[2] : archipelago.equals("POLYNESIA") ? "Hawaii" : sharded.name(0);
+                System.out.println(regionCount + " shard processes, " + sharded.overlay().size() + " boundary islands, "
+                        + sharded.overlay().laneCount() + " overlay lanes");
+                long start = System.nanoTime();
+                Map<String, Integer> distances = sharded.shortestPath(source);
+                System.out.printf("Sharded search from %s: %.1f ms%n", source, (System.nanoTime() - start) / 1e6);
+
+                CompactGraph graph = ShardServer.loadGraph(archipelago);
+                ShortestPathEngine engine = new ShortestPathEngine(graph);
+                engine.run(graph.id(source), 0);
+                boolean matches = true;
+                for (int island = 0; island < graph.nodeCount(); island++) {
+                    matches &= distances.get(graph.name(island)) == engine.distance(island);
+                }
+                System.out.println("Matches a single-process search: " + matches);
+                if (graph.nodeCount() <= 100) {
+                    System.out.println(distances);
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    // Number of regions.
+    public int regionCount() {
+        return shards.length;
+    }
+
+    // Number of islands over all regions.
+    public int islandCount() {
+        return regions.length;
+    }
+
+    // Region of the island.
+    public int region(int island) {
+        return regions[island];
+    }
+
+    // Name of the island.
+    public String name(int island) {
+        return names[island];
+    }
+
+    // The overlay on the regions' boundary islands.
+    public BoundaryOverlay overlay() {
+        return overlay;
+    }
+
+    /**
+     * Finds an island's id by name.
+     *
+     * @param island The island name.
+     * @return The island id.
+     * @throws IllegalArgumentException if no shard holds the island.
+     */
+    public int id(String island) {
+        Integer id = ids.get(island);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown island: " + island);
+        }
+        return id;
+    }
+
+    /**
+     * Computes the shortest travel time between two islands.
+     *
+     * @param from The id of the starting island.
+     * @param to The id of the destination island.
+     * @return The travel time, or Integer.MAX_VALUE if the destination is unreachable.
+     * @throws IOException if a shard cannot be reached.
+     */
+    public int distance(int from, int to) throws IOException {
+        int[] overlayDistances = overlayDistances(from);
+        int region = regions[to];
+        Seeds seeds = seeds(region, from, overlayDistances);
+        return shards[region].search(seeds.islands, seeds.distances, new int[] {to})[0];
+    }
+
+    /**
+     * Computes the shortest travel time from an island to every island.
+     *
+     * @param source The id of the starting island.
+     * @return An array indexed by island id, with Integer.MAX_VALUE for unreachable islands.
+     * @throws IOException if a shard cannot be reached.
+     */
+    public int[] distances(int source) throws IOException {
+        int[] overlayDistances = overlayDistances(source);
+        int[] distances = new int[regions.length];
+        CompletableFuture<?>[] searches = new CompletableFuture<?>[shards.length];
+        for (int region = 0; region < shards.length; region++) {
+            int current = region;
+            searches[region] = CompletableFuture.runAsync(() -> {
+                Seeds seeds = seeds(current, source, overlayDistances);
+                int[] regionDistances;
+                try {
+                    regionDistances = shards[current].search(seeds.islands, seeds.distances, null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                int[] islands = summaries[current].islands();
+                for (int i = 0; i < islands.length; i++) {
+                    distances[islands[i]] = regionDistances[i];
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(searches).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        return distances;
+    }
+
+    /**
+     * Computes the shortest travel time from an island to every island, by name.
+     *
+     * @param source The name of the starting island.
+     * @return A Map of each island's shortest distance from the source, in island id order.
+     * @throws IOException if a shard cannot be reached.
+     */
+    public Map<String, Integer> shortestPath(String source) throws IOException {
+        int[] distances = distances(id(source));
+        Map<String, Integer> result = new LinkedHashMap<>(distances.length * 4 / 3 + 1);
+        for (int island = 0; island < distances.length; island++) {
+            result.put(names[island], distances[island]);
+        }
+        return result;
+    }
+
+    // Closes every shard.
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Steps 1 and 2: distances from the source to every boundary island, indexed by overlay node.
+    private int[] overlayDistances(int source) throws IOException {
+        int region = regions[source];
+        int[] boundary = summaries[region].boundary();
+        int[] toBoundary = shards[region].search(new int[] {source}, new int[] {0}, boundary);
+        return overlay.search(boundary, toBoundary);
+    }
+
+    // Seeds for step 3 in a region: its reachable boundary islands at their overlay distances, and the source if it is there.
+    private Seeds seeds(int region, int source, int[] overlayDistances) {
+        int[] boundary = summaries[region].boundary();
+        IntArrayList islands = new IntArrayList(boundary.length + 1);
+        IntArrayList distances = new IntArrayList(boundary.length + 1);
+        for (int island : boundary) {
+            int distance = overlayDistances[overlay.node(island)];
+            if (distance != Integer.MAX_VALUE) {
+                islands.add(island);
+                distances.add(distance);
+            }
+        }
+        if (regions[source] == region) {
+            islands.add(source);
+            distances.add(0);
+        }
+        return new Seeds(islands.toArray(), distances.toArray());
+    }
+
+    private static final class Seeds {
+        final int[] islands;
+        final int[] distances;
+
+        Seeds(int[] islands, int[] distances) {
+            this.islands = islands;
+            this.distances = distances;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reusable single-source shortest-path engine over a {@link CompactGraph}.
+ *
+ * Distances, predecessors and the heap are allocated once per engine. Each query bumps an epoch
+ * stamp instead of clearing the arrays, so a query only pays for the islands it touches and
+ * steady-state queries allocate nothing. An engine is not thread-safe; use one per thread.
+ *
+ * The search applies the same cost as {@link Algorithms#shortestPath}: each edge costs its travel
+ * time minus {@code alpha} times the destination's population weight. When that cost is the bare
+ * travel time (alpha is 0 or no island has a population weight) and no travel time is negative,
+ * the engine swaps its comparison heap for an {@link IntegerQueue} sized to the largest travel time.
+ */
+public class ShortestPathEngine {
+
+    private final CompactGraph graph;
+    private final int[] distances;          // Shortest distance found for each island this epoch.
+    private final int[] predecessors;       // Previous island on the shortest path, -1 for the source.
+    private final int[] stamps;             // Epoch in which each island's distance was last written.
+    private final IndexedMinHeap heap;      // Islands waiting to be settled, by tentative distance.
+    private IntegerQueue integerQueue;      // Replaces the heap for integer costs, created on first use.
+    private boolean integerQueues = true;   // Whether integer costs may use the integer queue.
+    private int[] populationWeights;        // Population weight per island, all zero when unset.
+    private boolean weighted;               // Whether any population weight is non-zero.
+    private int epoch;                      // Current query; islands with an older stamp are unreached.
+    private int source = -1;                // Source of the last query.
+    private int settled;                    // Islands taken off the heap in the last query.
+
+    /**
+     * Creates an engine for the graph with every population weight set to zero.
+     *
+     * @param graph The compact island graph.
+     */
+    public ShortestPathEngine(CompactGraph graph) {
+        this.graph = graph;
+        this.distances = new int[graph.nodeCount()];
+        this.predecessors = new int[graph.nodeCount()];
+        this.stamps = new int[graph.nodeCount()];
+        this.heap = new IndexedMinHeap(graph.nodeCount());
+        this.populationWeights = new int[graph.nodeCount()];
+    }
+
+    /**
+     * Sets the population weight of every island, as resolved by {@link Algorithms#populationWeights}.
+     *
+     * @param populationWeights An array indexed by island id.
+     * @return This engine.
+     */
+    public ShortestPathEngine withPopulationWeights(int[] populationWeights) {
+        this.populationWeights = populationWeights;
+        this.weighted = false;
+        for (int weight : populationWeights) {
+            weighted |= weight != 0;
+        }
+        return this;
+    }
+
+    /**
+     * Resolves population weights from a populations map.
+     *
+     * @param populations A Map with island populations.
+     * @return This engine.
+     */
+    public ShortestPathEngine withPopulations(Map<String, Integer> populations) {
+        return withPopulationWeights(Algorithms.populationWeights(graph, populations));
+    }
+
+    /**
+     * Allows or forbids the integer queue. It is allowed by default; forbidding it keeps every
+     * search on the comparison heap, for comparing the two.
+     *
+     * @param enabled Whether searches with integer costs may use the integer queue.
+     * @return This engine.
+     */
+    public ShortestPathEngine withIntegerQueue(boolean enabled) {
+        this.integerQueues = enabled;
+        return this;
+    }
+
+    // The graph this engine searches.
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Computes shortest distances from the source to every reachable island.
+     *
+     * @param source The id of the starting island.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     */
+    public void run(int source, double alpha) {
+        run(source, -1, alpha);
+    }
+
+    /**
+     * Computes shortest distances from the source, stopping as soon as the target is settled.
+     * Distances of islands other than the target may be incomplete when the search stops early.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the island to stop at, or -1 to settle the whole graph.
+     * @param alpha A weighting factor for prioritizing population in travel.
+     */
+    public void run(int source, int target, double alpha) {
+        nextEpoch();
+        this.source = source;
+        this.settled = 0;
+        if (integerQueues && (alpha == 0 || !weighted) && !graph.hasNegativeTravelTimes()) {
+            runIntegers(source, target);
+            return;
+        }
+        heap.clear();
+
+        stamps[source] = epoch;
+        distances[source] = 0;
+        predecessors[source] = -1;
+        heap.push(source, 0.0);
+        int relaxed = 0;    // Counted locally and published once, see Metrics.
+        int pushes = 1;
+        int stale = 0;
+
+        while (!heap.isEmpty()) {
+            int node = heap.pop();
+            double nodeDistance = heap.key(node);
+
+            // Skip if a shorter path to this node is already recorded.
+            if (nodeDistance > distances[node]) {
+                stale++;
+                continue;
+            }
+            settled++;
+            if (node == target) break;
+
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int destination = graph.target(edge);
+                double newDistance = nodeDistance + graph.travelTime(edge) - alpha * populationWeights[destination];
+                relaxed++;
+
+                if (stamps[destination] != epoch || newDistance < distances[destination]) {
+                    stamps[destination] = epoch;
+                    distances[destination] = (int) newDistance;
+                    predecessors[destination] = node;
+                    heap.push(destination, newDistance);
+                    pushes++;
+                }
+            }
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics.SEARCHES.increment();
+            Metrics.NODES_SETTLED.add(settled);
+            Metrics.EDGES_RELAXED.add(relaxed);
+            Metrics.HEAP_PUSHES.add(pushes);
+            Metrics.STALE_POPS.add(stale);
+        }
+    }
+
+    // Dijkstra over bare travel times with the integer queue; settles islands in the same distance order as run.
+    private void runIntegers(int source, int target) {
+        if (integerQueue == null) {
+            integerQueue = IntegerQueue.forMaxWeight(graph.nodeCount(), graph.maxTravelTime());
+        }
+        IntegerQueue queue = integerQueue;
+        queue.clear();
+
+        stamps[source] = epoch;
+        distances[source] = 0;
+        predecessors[source] = -1;
+        queue.push(source, 0);
+        int relaxed = 0;
+        int pushes = 1;
+        int stale = 0;
+
+        while (!queue.isEmpty()) {
+            int node = queue.pop();
+            int nodeDistance = queue.lastKey();
+
+            // Skip if a shorter path to this node is already recorded.
+            if (nodeDistance > distances[node]) {
+                stale++;
+                continue;
+            }
+            settled++;
+            if (node == target) break;
+
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int destination = graph.target(edge);
+                int newDistance = nodeDistance + graph.travelTime(edge);
+                relaxed++;
+
+                if (stamps[destination] != epoch || newDistance < distances[destination]) {
+                    stamps[destination] = epoch;
+                    distances[destination] = newDistance;
+                    predecessors[destination] = node;
+                    queue.push(destination, newDistance);
+                    pushes++;
+                }
+            }
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics.SEARCHES.increment();
+            Metrics.NODES_SETTLED.add(settled);
+            Metrics.EDGES_RELAXED.add(relaxed);
+            Metrics.HEAP_PUSHES.add(pushes);
+            Metrics.STALE_POPS.add(stale);
+        }
+    }
+
+    // Shortest distance to the island from the last query's source, or Integer.MAX_VALUE if unreached.
+    public int distance(int node) {
+        return stamps[node] == epoch ? distances[node] : Integer.MAX_VALUE;
+    }
+
+    // Previous island on the shortest path to the island, or -1 for the source and unreached islands.
+    public int predecessor(int node) {
+        return stamps[node] == epoch ? predecessors[node] : -1;
+    }
+
+    // Whether the last query reached the island.
+    public boolean reached(int node) {
+        return stamps[node] == epoch;
+    }
+
+    // Source of the last query, or -1 before the first query.
+    public int source() {
+        return source;
+    }
+
+    // Number of islands settled by the last query.
+    public int settledCount() {
+        return settled;
+    }
+
+    /**
+     * Copies the last query's distances into the array.
+     *
+     * @param into An array of at least nodeCount elements.
+     * @return The same array, with Integer.MAX_VALUE for unreached islands.
+     */
+    public int[] copyDistances(int[] into) {
+        for (int node = 0; node < distances.length; node++) {
+            into[node] = distance(node);
+        }
+        return into;
+    }
+
+    // Starts a new query, clearing the stamps only when the epoch counter wraps around.
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.Arrays;
+
+/**
+ * Earliest-arrival routing where a lane's travel time depends on when the canoe sets out, as with
+ * tides, seasonal winds or scheduled ferries.
+ *
+ * Each lane has a travel-time profile: breakpoints of departure time and travel time, linearly
+ * interpolated between them and held constant before the first and after the last. Lanes without
+ * a profile keep the graph's fixed travel time. Profiles must be FIFO, meaning leaving later never
+ * arrives earlier, which holds when the travel time falls by at most one unit per unit of departure
+ * time. Under FIFO, Dijkstra on arrival times is exact: waiting at an island never helps.
+ *
+ * Scratch arrays are allocated once per router and reused through epochs. A router is not
+ * thread-safe; use one per thread.
+ */
+public class TimeDependentRouter {
+
+    private final CompactGraph graph;
+    private final int[][] departures;       // Breakpoint departure times of each lane, ascending; null for a fixed lane.
+    private final int[][] travelTimes;      // Travel time at each breakpoint, parallel to departures.
+
+    private final int[] arrivals;           // Earliest arrival at each island; valid only where stamps match epoch.
+    private final int[] predecessors;
+    private final int[] stamps;
+    private final RadixHeap queue = new RadixHeap();    // Arrival times start at the departure time, not 0.
+    private int epoch;
+    private int source = -1;
+    private int departure;
+    private int settled;
+
+    /**
+     * Creates a router in which every lane has its fixed travel time until given a profile.
+     *
+     * @param graph The compact island graph.
+     * @throws IllegalArgumentException if some travel time is negative.
+     */
+    public TimeDependentRouter(CompactGraph graph) {
+        if (graph.hasNegativeTravelTimes()) {
+            throw new IllegalArgumentException("Time-dependent routing needs non-negative travel times");
+        }
+        this.graph = graph;
+        int edges = graph.edgeCount();
+        this.departures = new int[edges][];
+        this.travelTimes = new int[edges][];
+        int n = graph.nodeCount();
+        this.arrivals = new int[n];
+        this.predecessors = new int[n];
+        this.stamps = new int[n];
+    }
+
+    /**
+     * Gives a lane a travel-time profile.
+     *
+     * @param edge The lane's edge index in the compact graph.
+     * @param departures Departure times of the breakpoints, strictly ascending.
+     * @param travelTimes Non-negative travel time when leaving at each breakpoint.
+     * @return This router.
+     * @throws IllegalArgumentException if the profile is empty, unsorted, negative or not FIFO.
+     */
+    public TimeDependentRouter withProfile(int edge, int[] departures, int[] travelTimes) {
+        if (departures.length == 0 || departures.length != travelTimes.length) {
+            throw new IllegalArgumentException("Expected matching, non-empty breakpoints, got " + departures.length + " and " + travelTimes.length);
+        }
+        for (int i = 0; i < departures.length; i++) {
+            if (travelTimes[i] < 0) {
+                throw new IllegalArgumentException("Negative travel time " + travelTimes[i] + " at breakpoint " + i);
+            }
+            if (i > 0 && departures[i] <= departures[i - 1]) {
+                throw new IllegalArgumentException("Breakpoint departures must be strictly ascending at " + i);
+            }
+            if (i > 0 && (long) departures[i - 1] + travelTimes[i - 1] > (long) departures[i] + travelTimes[i]) {
+                throw new IllegalArgumentException("Leaving at " + departures[i] + " arrives before leaving at " + departures[i - 1]);
+            }
+        }
+        this.departures[edge] = departures.clone();
+        this.travelTimes[edge] = travelTimes.clone();
+        return this;
+    }
+
+    /**
+     * Gives every lane from one island to another the same travel-time profile.
+     *
+     * @param from The id of the island the lane leaves.
+     * @param to The id of the island the lane reaches.
+     * @param departures Departure times of the breakpoints, strictly ascending.
+     * @param travelTimes Non-negative travel time when leaving at each breakpoint.
+     * @return This router.
+     * @throws IllegalArgumentException if there is no such lane or the profile is invalid.
+     */
+    public TimeDependentRouter withProfile(int from, int to, int[] departures, int[] travelTimes) {
+        boolean found = false;
+        for (int edge = graph.edgeStart(from); edge < graph.edgeEnd(from); edge++) {
+            if (graph.target(edge) == to) {
+                withProfile(edge, departures, travelTimes);
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("No lane from " + graph.name(from) + " to " + graph.name(to));
+        }
+        return this;
+    }
+
+    /**
+     * Computes a lane's travel time for a departure time.
+     *
+     * @param edge The lane's edge index in the compact graph.
+     * @param time The departure time.
+     * @return The travel time, rounded down.
+     */
+    public int travelTime(int edge, int time) {
+        int[] points = departures[edge];
+        if (points == null) {
+            return graph.travelTime(edge);
+        }
+        int[] values = travelTimes[edge];
+        if (time <= points[0]) return values[0];
+        int last = points.length - 1;
+        if (time >= points[last]) return values[last];
+        int upper = Arrays.binarySearch(points, time);
+        if (upper >= 0) return values[upper];
+        upper = -upper - 1;
+        int lower = upper - 1;
+        // Rounding the interpolation down keeps arrival times FIFO: departure plus travel time never falls.
+        long span = (long) points[upper] - points[lower];
+        return (int) (values[lower] + Math.floorDiv(((long) values[upper] - values[lower]) * ((long) time - points[lower]), span));
+    }
+
+    /**
+     * Computes the earliest arrival at every island when leaving the source at a given time.
+     *
+     * @param source The id of the starting island.
+     * @param departure The departure time from the source.
+     */
+    public void run(int source, int departure) {
+        run(source, -1, departure);
+    }
+
+    /**
+     * Computes the earliest arrival at the target, stopping as soon as it is known.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island, or -1 to reach every island.
+     * @param departure The departure time from the source.
+     */
+    public void run(int source, int target, int departure) {
+        if (departure < 0) {
+            throw new IllegalArgumentException("Negative departure time " + departure);
+        }
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        this.source = source;
+        this.departure = departure;
+        settled = 0;
+        queue.clear();
+
+        stamps[source] = epoch;
+        arrivals[source] = departure;
+        predecessors[source] = -1;
+        queue.push(source, departure);
+
+        while (!queue.isEmpty()) {
+            int node = queue.pop();
+            int time = queue.lastKey();
+            if (time > arrivals[node]) continue;
+            settled++;
+            if (node == target) break;
+
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                int destination = graph.target(edge);
+                long arrival = (long) time + travelTime(edge, time);
+                if (arrival > Integer.MAX_VALUE - 1) continue;
+                if (stamps[destination] != epoch || arrival < arrivals[destination]) {
+                    stamps[destination] = epoch;
+                    arrivals[destination] = (int) arrival;
+                    predecessors[destination] = node;
+                    queue.push(destination, (int) arrival);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the earliest-arriving route between two islands.
+     *
+     * @param source The id of the starting island.
+     * @param target The id of the destination island.
+     * @param departure The departure time from the source.
+     * @return The route, with its travel time from departure to arrival.
+     */
+    public IslandRoute route(int source, int target, int departure) {
+        run(source, target, departure);
+        if (!reached(target)) {
+            return IslandRoute.unreachable(settled);
+        }
+        return IslandRoute.fromPredecessors(this::predecessor, target, arrivals[target] - departure, settled);
+    }
+
+    // Earliest arrival time at the island from the last run, or Integer.MAX_VALUE if unreached.
+    public int arrival(int node) {
+        return reached(node) ? arrivals[node] : Integer.MAX_VALUE;
+    }
+
+    // Previous island on the earliest route to the island, or -1 for the source and unreached islands.
+    public int predecessor(int node) {
+        return reached(node) ? predecessors[node] : -1;
+    }
+
+    // Whether the last run reached the island.
+    public boolean reached(int node) {
+        return source >= 0 && stamps[node] == epoch;
+    }
+
+    // Departure time of the last run.
+    public int departure() {
+        return departure;
+    }
+
+    // Number of islands settled by the last run.
+    public int settledCount() {
+        return settled;
+    }
+}
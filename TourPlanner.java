@@ -0,0 +1,436 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Plans an open tour from a home island through a set of islands on a {@link DistanceMatrix}.
+ *
+ * The cost of moving on to an island is its distance times the island's weight, which for the
+ * leader's route is the recency factor {@code 1 + recency / 10} used by
+ * {@link Algorithms#leaderRoutePlan}. Distances need not be symmetric.
+ *
+ * Each restart builds a nearest-neighbour tour (randomized after the first) and improves it with
+ * 2-opt and Or-opt moves. Moves only consider each island's nearest neighbours, and islands whose
+ * surroundings have not changed since their last failed attempt are skipped (don't-look bits).
+ * Restarts run in parallel on the common fork-join pool until the time budget runs out, and the
+ * cheapest tour wins. At least one restart always completes, whatever the budget.
+ *
+ * Before planning, the distances among the tour's islands are copied once, row by row with
+ * {@link DistanceMatrix#copyRow}, into a dense local matrix, so the restarts never go back to the
+ * source matrix. With a {@link DistanceOracle} that is one search per island, and the full matrix
+ * never has to fit the oracle's budget.
+ */
+public class TourPlanner {
+
+    public static final int DEFAULT_NEIGHBOURS = 10;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+    private static final int MAX_SEGMENT = 3;           // Longest stretch an Or-opt move relocates.
+    private static final int GREEDY_CHOICES = 3;        // Candidates a randomized greedy step picks among.
+    private static final double EPSILON = 1e-9;         // Smallest saving counted as an improvement.
+    private static final double UNREACHABLE_COST = 1e12;
+
+    private final DistanceMatrix distances;
+    private int neighbourCount = DEFAULT_NEIGHBOURS;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+
+    public TourPlanner(DistanceMatrix distances) {
+        this.distances = distances;
+    }
+
+    // Sets how many nearest neighbours each island's moves consider.
+    public TourPlanner withNeighbours(int neighbourCount) {
+        this.neighbourCount = Math.max(1, neighbourCount);
+        return this;
+    }
+
+    // Sets the wall-clock time after which no new restart starts.
+    public TourPlanner withTimeBudget(long millis) {
+        this.timeBudgetMillis = millis;
+        return this;
+    }
+
+    // Sets how many restarts run at once.
+    public TourPlanner withParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    // Sets the seed for the randomized restarts.
+    public TourPlanner withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Resolves the leader's recency weights, {@code 1 + recency / 10}, indexed by island id.
+     *
+     * @param graph The compact island graph.
+     * @param recency A Map tracking the last visit time to each island.
+     * @return An array of weights; islands missing from the map weigh 1.
+     */
+    public static double[] recencyWeights(CompactGraph graph, Map<String, Integer> recency) {
+        double[] weights = new double[graph.nodeCount()];
+        for (int island = 0; island < weights.length; island++) {
+            weights[island] = 1 + recency.getOrDefault(graph.name(island), 0) / 10.0;
+        }
+        return weights;
+    }
+
+    /**
+     * Resolves the leader's recency weights from the recency column.
+     *
+     * @param attributes Island attributes keyed by the graph's registry.
+     * @param islandCount The number of islands in the graph.
+     * @return An array of weights; islands never visited weigh 1.
+     */
+    public static double[] recencyWeights(IslandAttributes attributes, int islandCount) {
+        double[] weights = new double[islandCount];
+        for (int island = 0; island < weights.length; island++) {
+            weights[island] = 1 + attributes.recency(island) / 10.0;
+        }
+        return weights;
+    }
+
+    /**
+     * Plans the tour.
+     *
+     * @param home The id of the island the tour starts from.
+     * @param islands The ids of the islands to visit; home is added if missing.
+     * @param weights Weight of arriving at each island, indexed by island id.
+     * @return Island ids in visiting order, starting with home.
+     */
+    public int[] plan(int home, int[] islands, double[] weights) {
+        Instance instance = new Instance(home, islands, weights);
+        if (instance.size <= 2) {
+            return instance.toIslands(instance.greedy(null));
+        }
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+        int workers = parallelism;
+        Result[] results = new Result[workers];
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            Result best = null;
+            for (int restart = worker; best == null || System.nanoTime() < deadline; restart += workers) {
+                Random random = restart == 0 ? null : new Random(seed * 1_000_003 + restart);
+                int[] tour = instance.greedy(random);
+                instance.improve(tour);
+                double cost = instance.cost(tour);
+                if (best == null || cost < best.cost - EPSILON) {
+                    best = new Result(tour, cost);
+                }
+            }
+            results[worker] = best;
+        });
+
+        Result best = results[0];
+        for (Result result : results) {
+            if (result.cost < best.cost - EPSILON) best = result;
+        }
+        return instance.toIslands(best.tour);
+    }
+
+    /**
+     * Weighted cost of a tour, the quantity the planner minimizes.
+     *
+     * @param tour Island ids in visiting order.
+     * @param weights Weight of arriving at each island, indexed by island id.
+     * @return The sum of distance times arrival weight over every leg.
+     */
+    public double cost(int[] tour, double[] weights) {
+        double total = 0;
+        for (int i = 1; i < tour.length; i++) {
+            int distance = distances.distance(tour[i - 1], tour[i]);
+            total += distance == Integer.MAX_VALUE ? UNREACHABLE_COST : distance * weights[tour[i]];
+        }
+        return total;
+    }
+
+    private static class Result {
+        final int[] tour;
+        final double cost;
+
+        Result(int[] tour, double cost) {
+            this.tour = tour;
+            this.cost = cost;
+        }
+    }
+
+    // Islands of one planning request, renumbered 0..size-1 with home as 0.
+    private class Instance {
+        final int size;
+        final int[] island;             // Island id of each local index.
+        final double[] weight;          // Arrival weight of each local index.
+        final int[] distance;           // distance[a * size + b] = distance from local a to local b.
+        final int[] neighbours;         // neighbours[a * k + i] = i-th cheapest island to move on to from a.
+        final int k;
+
+        Instance(int home, int[] islands, double[] weights) {
+            int[] local = new int[islands.length + 1];
+            local[0] = home;
+            int count = 1;
+            for (int id : islands) {
+                if (id != home) local[count++] = id;
+            }
+            size = count;
+            island = Arrays.copyOf(local, count);
+            weight = new double[count];
+            for (int a = 0; a < count; a++) {
+                weight[a] = weights[island[a]];
+            }
+            if ((long) count * count > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many islands for one tour: " + count);
+            }
+            distance = new int[count * count];
+            ThreadLocal<int[]> rows = ThreadLocal.withInitial(() -> new int[distances.size()]);
+            IntStream.range(0, size).parallel().forEach(a -> {
+                int[] row = distances.copyRow(island[a], rows.get());
+                for (int b = 0; b < size; b++) {
+                    distance[a * size + b] = row[island[b]];
+                }
+            });
+            k = Math.min(neighbourCount, Math.max(1, count - 2));
+            neighbours = new int[count * k];
+            IntStream.range(0, count).parallel().forEach(this::findNeighbours);
+        }
+
+        // Cost of moving from a to b.
+        double cost(int a, int b) {
+            int d = distance[a * size + b];
+            return d == Integer.MAX_VALUE ? UNREACHABLE_COST : d * weight[b];
+        }
+
+        double cost(int[] tour) {
+            double total = 0;
+            for (int i = 1; i < tour.length; i++) {
+                total += cost(tour[i - 1], tour[i]);
+            }
+            return total;
+        }
+
+        // Keeps the k cheapest successors of a by insertion into a small sorted array. Home is never a successor.
+        void findNeighbours(int a) {
+            double[] best = new double[k];
+            int[] chosen = new int[k];
+            Arrays.fill(best, Double.MAX_VALUE);
+            Arrays.fill(chosen, -1);
+            for (int b = 1; b < size; b++) {
+                if (b == a) continue;
+                double c = cost(a, b);
+                if (c >= best[k - 1]) continue;
+                int i = k - 1;
+                while (i > 0 && best[i - 1] > c) {
+                    best[i] = best[i - 1];
+                    chosen[i] = chosen[i - 1];
+                    i--;
+                }
+                best[i] = c;
+                chosen[i] = b;
+            }
+            System.arraycopy(chosen, 0, neighbours, a * k, k);
+        }
+
+        // Nearest-neighbour tour from home; with a random source each step picks among the few cheapest.
+        int[] greedy(Random random) {
+            int[] tour = new int[size];
+            boolean[] visited = new boolean[size];
+            visited[0] = true;
+            int[] candidates = new int[GREEDY_CHOICES];
+            for (int position = 1; position < size; position++) {
+                int current = tour[position - 1];
+                int found = 0;
+                for (int i = 0; i < k && found < GREEDY_CHOICES; i++) {
+                    int b = neighbours[current * k + i];
+                    if (b >= 0 && !visited[b]) candidates[found++] = b;
+                }
+                int next;
+                if (found == 0) {
+                    // Every near island is taken; scan for the cheapest one left.
+                    next = -1;
+                    double best = Double.MAX_VALUE;
+                    for (int b = 1; b < size; b++) {
+                        if (visited[b]) continue;
+                        double c = cost(current, b);
+                        if (next < 0 || c < best) {
+                            best = c;
+                            next = b;
+                        }
+                    }
+                } else {
+                    next = random == null ? candidates[0] : candidates[random.nextInt(found)];
+                }
+                tour[position] = next;
+                visited[next] = true;
+            }
+            return tour;
+        }
+
+        // Runs 2-opt and Or-opt moves until no island in the work queue can improve the tour.
+        void improve(int[] tour) {
+            new LocalSearch(tour).run();
+        }
+
+        int[] toIslands(int[] tour) {
+            int[] result = new int[tour.length];
+            for (int i = 0; i < tour.length; i++) {
+                result[i] = island[tour[i]];
+            }
+            return result;
+        }
+
+        // Local search state for one tour. Prefix sums make reversing a stretch O(1) to evaluate.
+        private class LocalSearch {
+            final int[] tour;
+            final int[] position;
+            final double[] arc;         // arc[i] = cost of tour[i - 1] -> tour[i].
+            final double[] reverseArc;  // reverseArc[i] = cost of tour[i] -> tour[i - 1].
+            final double[] forward;     // forward[i] = cost of tour[0] -> ... -> tour[i].
+            final double[] backward;    // backward[i] = cost of the same stretch travelled in reverse.
+            final boolean[] queued;     // Don't-look bits, inverted: islands still worth trying.
+            final int[] queue;          // Ring buffer of islands to try.
+            int head;
+            int tail;
+
+            LocalSearch(int[] tour) {
+                this.tour = tour;
+                position = new int[size];
+                arc = new double[size];
+                reverseArc = new double[size];
+                forward = new double[size];
+                backward = new double[size];
+                queued = new boolean[size];
+                queue = new int[size];
+                for (int i = 0; i < size; i++) {
+                    push(tour[i]);
+                }
+                refresh(0, size - 1);
+            }
+
+            void run() {
+                while (head != tail || queued[queue[head]]) {
+                    int a = queue[head];
+                    head = (head + 1) % size;
+                    queued[a] = false;
+                    if (twoOpt(a) || orOpt(a)) {
+                        push(a);
+                    }
+                }
+            }
+
+            void push(int a) {
+                if (queued[a]) return;
+                queued[a] = true;
+                queue[tail] = a;
+                tail = (tail + 1) % size;
+            }
+
+            // Recomputes positions and arcs for the islands moved to indexes from..to, then the prefix sums.
+            void refresh(int from, int to) {
+                for (int p = from; p <= to; p++) {
+                    position[tour[p]] = p;
+                }
+                for (int p = Math.max(1, from); p <= Math.min(to + 1, size - 1); p++) {
+                    arc[p] = cost(tour[p - 1], tour[p]);
+                    reverseArc[p] = cost(tour[p], tour[p - 1]);
+                }
+                // Only sums from here on change, and they need no distance lookups.
+                for (int p = Math.max(1, from); p < size; p++) {
+                    forward[p] = forward[p - 1] + arc[p];
+                    backward[p] = backward[p - 1] + reverseArc[p];
+                }
+            }
+
+            // Replaces a -> b and c -> d with a -> c and b -> d, reversing the stretch b..c.
+            boolean twoOpt(int a) {
+                int i = position[a];
+                if (i >= size - 2) return false;
+                int b = tour[i + 1];
+                double removedAB = cost(a, b);
+                for (int n = 0; n < k; n++) {
+                    int c = neighbours[a * k + n];
+                    if (c < 0) break;
+                    int j = position[c];
+                    if (j <= i + 1) continue;
+                    int d = j + 1 < size ? tour[j + 1] : -1;
+                    double delta = cost(a, c) - removedAB
+                            + (backward[j] - backward[i + 1]) - (forward[j] - forward[i + 1]);
+                    if (d >= 0) {
+                        delta += cost(b, d) - cost(c, d);
+                    }
+                    if (delta < -EPSILON) {
+                        for (int x = i + 1, y = j; x < y; x++, y--) {
+                            int swap = tour[x];
+                            tour[x] = tour[y];
+                            tour[y] = swap;
+                        }
+                        refresh(i + 1, j);
+                        push(b);
+                        push(c);
+                        if (d >= 0) push(d);
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            // Moves the stretch of up to MAX_SEGMENT islands ending at e in front of one of e's neighbours, or to the end.
+            boolean orOpt(int e) {
+                int r = position[e];
+                for (int length = 1; length <= MAX_SEGMENT; length++) {
+                    int l = r - length + 1;
+                    if (l < 1) break;
+                    int s = tour[l];
+                    int p = tour[l - 1];
+                    int x = r + 1 < size ? tour[r + 1] : -1;
+                    double removal = cost(p, s) + (x >= 0 ? cost(e, x) - cost(p, x) : 0);
+
+                    // At the end of the tour.
+                    if (x >= 0) {
+                        double insertion = cost(tour[size - 1], s);
+                        if (insertion - removal < -EPSILON) {
+                            move(l, r, size);
+                            push(p);
+                            push(x);
+                            push(s);
+                            return true;
+                        }
+                    }
+                    // Just before a neighbour c of e.
+                    for (int n = 0; n < k; n++) {
+                        int c = neighbours[e * k + n];
+                        if (c < 0) break;
+                        int q = position[c];
+                        if (q >= l && q <= r + 1) continue;
+                        int before = tour[q - 1];
+                        double insertion = cost(before, s) + cost(e, c) - cost(before, c);
+                        if (insertion - removal < -EPSILON) {
+                            move(l, r, q);
+                            push(p);
+                            if (x >= 0) push(x);
+                            push(before);
+                            push(s);
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            // Moves tour[l..r] so it sits just before the island now at index q (q == size appends it).
+            void move(int l, int r, int q) {
+                int length = r - l + 1;
+                int[] segment = Arrays.copyOfRange(tour, l, r + 1);
+                if (q > r) {
+                    System.arraycopy(tour, r + 1, tour, l, q - r - 1);
+                    System.arraycopy(segment, 0, tour, q - length, length);
+                    refresh(l, q - 1);
+                } else {
+                    System.arraycopy(tour, q, tour, q + length, l - q);
+                    System.arraycopy(segment, 0, tour, q, length);
+                    refresh(q, r);
+                }
+            }
+        }
+    }
+}
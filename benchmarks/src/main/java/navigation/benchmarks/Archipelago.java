@@ -0,0 +1,60 @@
+package navigation.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark input: the Polynesia graph from DataLoader or a seeded synthetic archipelago.
+ *
+ * Specs are either {@code POLYNESIA} or {@code SHAPE:islands} with a shape of GEOMETRIC,
+ * SCALE_FREE or GRID, for example {@code GRID:1000000}.
+ */
+final class Archipelago {
+
+    static final long SEED = 20241017L;
+    static final int QUERY_SOURCES = 64;    // Start islands cycled through by the benchmarks.
+
+    final Map<String, List<?>> graph;
+    final Map<String, Integer> populations;
+    final Map<String, Map<String, Integer>> resources;
+    final Object compact;                   // CompactGraph
+    final String[] sources;                 // Start islands by name.
+    final int[] sourceIds;                  // The same start islands by compact id.
+
+    private Archipelago(Map<String, List<?>> graph, Map<String, Integer> populations, Map<String, Map<String, Integer>> resources) {
+        this.graph = graph;
+        this.populations = populations;
+        this.resources = resources;
+        this.compact = Core.compact(graph);
+
+        int islands = Core.nodeCount(compact);
+        Random random = new Random(SEED);
+        int count = Math.min(QUERY_SOURCES, islands);
+        sources = new String[count];
+        sourceIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            sourceIds[i] = random.nextInt(islands);
+            sources[i] = Core.name(compact, sourceIds[i]);
+        }
+    }
+
+    static Archipelago load(String spec) {
+        if (spec.equals("POLYNESIA")) {
+            return new Archipelago(Core.islandGraph(), Core.islandPopulations(), Core.naturalResources());
+        }
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Archipelago spec must be POLYNESIA or SHAPE:islands, got " + spec);
+        }
+        String shape = spec.substring(0, colon);
+        int islands = Integer.parseInt(spec.substring(colon + 1));
+        Map<String, List<?>> graph = Core.generate(shape, islands, SEED);
+        return new Archipelago(graph, Core.generatedPopulations(graph, SEED), Core.generatedResources(graph, SEED));
+    }
+
+    // Name of the single resource stocked on the island.
+    String resourceOf(String island) {
+        return resources.get(island).keySet().iterator().next();
+    }
+}
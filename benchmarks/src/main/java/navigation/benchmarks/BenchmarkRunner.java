@@ -0,0 +1,38 @@
+package navigation.benchmarks;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached (for allocation rates) and writes the results
+ * as JSON to build/jmh-results/, one timestamped file per run so runs can be compared over time.
+ * Any JMH command-line options passed in are applied on top, e.g. a benchmark filter or -p overrides.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        File directory = new File("build/jmh-results");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + directory);
+        }
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File results = new File(directory, "jmh-" + stamp + ".json");
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        new Runner(options).run();
+        System.out.println("Results written to " + results.getAbsolutePath());
+    }
+}
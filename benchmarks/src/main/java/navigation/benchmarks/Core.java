@@ -0,0 +1,309 @@
+package navigation.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bridge to the application classes, which live in the default package.
+ *
+ * JMH refuses benchmarks in the default package, and a named package cannot import classes from
+ * it, so the benchmarks call the application through method handles looked up by class name.
+ * The handles are static finals, so the JIT inlines them like direct calls. Application types
+ * such as CompactGraph are passed around as Object.
+ */
+final class Core {
+
+    private static final MethodHandle GENERATE;
+    private static final MethodHandle GENERATED_POPULATIONS;
+    private static final MethodHandle GENERATED_RESOURCES;
+    private static final MethodHandle ISLAND_GRAPH;
+    private static final MethodHandle ISLAND_POPULATIONS;
+    private static final MethodHandle NATURAL_RESOURCES;
+    private static final MethodHandle COMPACT_FROM_MAP;
+    private static final MethodHandle COMPACT_ID;
+    private static final MethodHandle COMPACT_NAME;
+    private static final MethodHandle COMPACT_NODE_COUNT;
+    private static final MethodHandle SHORTEST_PATH;
+    private static final MethodHandle SHORTEST_PATH_COMPACT;
+    private static final MethodHandle NEW_ENGINE;
+    private static final MethodHandle ENGINE_WITH_POPULATIONS;
+    private static final MethodHandle ENGINE_WITH_INTEGER_QUEUE;
+    private static final MethodHandle ENGINE_RUN;
+    private static final MethodHandle ENGINE_DISTANCE;
+    private static final MethodHandle LEADER_ROUTE_PLAN;
+    private static final MethodHandle LEADER_ROUTE_PLAN_ORACLE;
+    private static final MethodHandle NEW_ORACLE;
+    private static final MethodHandle DISTRIBUTE_NATURAL_RESOURCE;
+    private static final MethodHandle DISTRIBUTE_NATURAL_RESOURCE_COMPACT;
+    private static final MethodHandle DISTRIBUTE_RESOURCE;
+    private static final MethodHandle DISTRIBUTE_RESOURCE_COMPACT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> generator = Class.forName("ArchipelagoGenerator");
+            Class<?> shape = Class.forName("ArchipelagoGenerator$Shape");
+            Class<?> dataLoader = Class.forName("DataLoader");
+            Class<?> algorithms = Class.forName("Algorithms");
+            Class<?> compactGraph = Class.forName("CompactGraph");
+            Class<?> engine = Class.forName("ShortestPathEngine");
+            Class<?> oracle = Class.forName("DistanceOracle");
+
+            GENERATE = erase(lookup.findStatic(generator, "generate", MethodType.methodType(Map.class, shape, int.class, long.class)));
+            GENERATED_POPULATIONS = lookup.findStatic(generator, "populations", MethodType.methodType(Map.class, Map.class, long.class));
+            GENERATED_RESOURCES = lookup.findStatic(generator, "resources", MethodType.methodType(Map.class, Map.class, long.class));
+            ISLAND_GRAPH = lookup.findStatic(dataLoader, "getIslandGraph", MethodType.methodType(Map.class));
+            ISLAND_POPULATIONS = lookup.findStatic(dataLoader, "getIslandPopulations", MethodType.methodType(Map.class));
+            NATURAL_RESOURCES = lookup.findStatic(dataLoader, "setNaturalResource", MethodType.methodType(Map.class));
+            COMPACT_FROM_MAP = erase(lookup.findStatic(compactGraph, "fromMap", MethodType.methodType(compactGraph, Map.class)));
+            COMPACT_ID = erase(lookup.findVirtual(compactGraph, "id", MethodType.methodType(int.class, String.class)));
+            COMPACT_NAME = erase(lookup.findVirtual(compactGraph, "name", MethodType.methodType(String.class, int.class)));
+            COMPACT_NODE_COUNT = erase(lookup.findVirtual(compactGraph, "nodeCount", MethodType.methodType(int.class)));
+            SHORTEST_PATH = lookup.findStatic(algorithms, "shortestPath", MethodType.methodType(Map.class, Map.class, Map.class, String.class, double.class));
+            SHORTEST_PATH_COMPACT = erase(lookup.findStatic(algorithms, "shortestPath", MethodType.methodType(int[].class, compactGraph, Map.class, int.class, double.class)));
+            NEW_ENGINE = erase(lookup.findConstructor(engine, MethodType.methodType(void.class, compactGraph)));
+            ENGINE_WITH_POPULATIONS = erase(lookup.findVirtual(engine, "withPopulations", MethodType.methodType(engine, Map.class)));
+            ENGINE_WITH_INTEGER_QUEUE = erase(lookup.findVirtual(engine, "withIntegerQueue", MethodType.methodType(engine, boolean.class)));
+            ENGINE_RUN = erase(lookup.findVirtual(engine, "run", MethodType.methodType(void.class, int.class, double.class)));
+            ENGINE_DISTANCE = erase(lookup.findVirtual(engine, "distance", MethodType.methodType(int.class, int.class)));
+            LEADER_ROUTE_PLAN = lookup.findStatic(algorithms, "leaderRoutePlan", MethodType.methodType(List.class, Map.class, Map.class, Map.class, Map.class, String.class));
+            LEADER_ROUTE_PLAN_ORACLE = erase(lookup.findStatic(algorithms, "leaderRoutePlan", MethodType.methodType(List.class, oracle, Map.class, Map.class, Map.class, int.class)));
+            NEW_ORACLE = erase(lookup.findConstructor(oracle, MethodType.methodType(void.class, compactGraph, Map.class, double.class)));
+            DISTRIBUTE_NATURAL_RESOURCE = lookup.findStatic(algorithms, "distributeNaturalResource", MethodType.methodType(List.class, Map.class, Map.class, String.class, int.class));
+            DISTRIBUTE_NATURAL_RESOURCE_COMPACT = erase(lookup.findStatic(algorithms, "distributeNaturalResource", MethodType.methodType(List.class, compactGraph, Map.class, int.class, int.class)));
+            DISTRIBUTE_RESOURCE = lookup.findStatic(algorithms, "distributeResource", MethodType.methodType(List.class, Map.class, Map.class, String.class, String.class, int.class, int.class));
+            DISTRIBUTE_RESOURCE_COMPACT = erase(lookup.findStatic(algorithms, "distributeResource", MethodType.methodType(List.class, compactGraph, Map.class, int.class, String.class, int.class, int.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Core() {
+    }
+
+    // Replaces application parameter and return types with Object so the handles can be invoked exactly.
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isApplicationClass(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isApplicationClass(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isApplicationClass(Class<?> type) {
+        return !type.isPrimitive() && type.getPackageName().isEmpty();
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Map<String, List<?>> generate(String shape, int islands, long seed) {
+        try {
+            Class<? extends Enum> shapeClass = (Class<? extends Enum>) Class.forName("ArchipelagoGenerator$Shape");
+            return (Map<String, List<?>>) (Map) GENERATE.invokeExact((Object) Enum.valueOf(shapeClass, shape), islands, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Integer> generatedPopulations(Map<String, List<?>> graph, long seed) {
+        try {
+            return (Map<String, Integer>) GENERATED_POPULATIONS.invokeExact((Map) graph, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<String, Integer>> generatedResources(Map<String, List<?>> graph, long seed) {
+        try {
+            return (Map<String, Map<String, Integer>>) GENERATED_RESOURCES.invokeExact((Map) graph, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, List<?>> islandGraph() {
+        try {
+            return (Map<String, List<?>>) ISLAND_GRAPH.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Integer> islandPopulations() {
+        try {
+            return (Map<String, Integer>) ISLAND_POPULATIONS.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<String, Integer>> naturalResources() {
+        try {
+            return (Map<String, Map<String, Integer>>) NATURAL_RESOURCES.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object compact(Map<String, List<?>> graph) {
+        try {
+            return (Object) COMPACT_FROM_MAP.invokeExact((Map) graph);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int id(Object compactGraph, String island) {
+        try {
+            return (int) COMPACT_ID.invokeExact(compactGraph, island);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String name(Object compactGraph, int island) {
+        try {
+            return (String) COMPACT_NAME.invokeExact(compactGraph, island);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int nodeCount(Object compactGraph) {
+        try {
+            return (int) COMPACT_NODE_COUNT.invokeExact(compactGraph);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Integer> shortestPath(Map<String, List<?>> graph, Map<String, Integer> populations, String startIsland, double alpha) {
+        try {
+            return (Map<String, Integer>) SHORTEST_PATH.invokeExact((Map) graph, (Map) populations, startIsland, alpha);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int[] shortestPath(Object compactGraph, Map<String, Integer> populations, int startIsland, double alpha) {
+        try {
+            return (int[]) SHORTEST_PATH_COMPACT.invokeExact(compactGraph, (Map) populations, startIsland, alpha);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object newEngine(Object compactGraph, Map<String, Integer> populations) {
+        try {
+            Object engine = (Object) NEW_ENGINE.invokeExact(compactGraph);
+            return (Object) ENGINE_WITH_POPULATIONS.invokeExact(engine, (Map) populations);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object withIntegerQueue(Object engine, boolean enabled) {
+        try {
+            return (Object) ENGINE_WITH_INTEGER_QUEUE.invokeExact(engine, enabled);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void run(Object engine, int source, double alpha) {
+        try {
+            ENGINE_RUN.invokeExact(engine, source, alpha);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int distance(Object engine, int island) {
+        try {
+            return (int) ENGINE_DISTANCE.invokeExact(engine, island);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> leaderRoutePlan(Map<String, List<?>> graph, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, ?> skills, String homeIsland) {
+        try {
+            return (List<String>) LEADER_ROUTE_PLAN.invokeExact((Map) graph, (Map) populations, (Map) recency, (Map) skills, homeIsland);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> leaderRoutePlan(Object oracle, Map<String, Integer> populations, Map<String, Integer> recency, Map<String, ?> skills, int homeIsland) {
+        try {
+            return (List<String>) LEADER_ROUTE_PLAN_ORACLE.invokeExact(oracle, (Map) populations, (Map) recency, (Map) skills, homeIsland);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object newOracle(Object compactGraph, Map<String, Integer> populations, double alpha) {
+        try {
+            return (Object) NEW_ORACLE.invokeExact(compactGraph, (Map) populations, alpha);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> distributeNaturalResource(Map<String, List<?>> graph, Map<String, Map<String, Integer>> resources, String source, int canoes) {
+        try {
+            return (List<String>) DISTRIBUTE_NATURAL_RESOURCE.invokeExact((Map) graph, (Map) resources, source, canoes);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> distributeNaturalResource(Object compactGraph, Map<String, Map<String, Integer>> resources, int source, int canoes) {
+        try {
+            return (List<String>) DISTRIBUTE_NATURAL_RESOURCE_COMPACT.invokeExact(compactGraph, (Map) resources, source, canoes);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> distributeResource(Map<String, List<?>> graph, Map<String, Map<String, Integer>> resources, String startIsland, String resource, int numCanoes, int canoeCapacity) {
+        try {
+            return (List<String>) DISTRIBUTE_RESOURCE.invokeExact((Map) graph, (Map) resources, startIsland, resource, numCanoes, canoeCapacity);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> distributeResource(Object compactGraph, Map<String, Map<String, Integer>> resources, int startIsland, String resource, int numCanoes, int canoeCapacity) {
+        try {
+            return (List<String>) DISTRIBUTE_RESOURCE_COMPACT.invokeExact(compactGraph, (Map) resources, startIsland, resource, numCanoes, canoeCapacity);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package navigation.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Natural resource and resource distribution through the Map and compact-graph APIs.
+ * Both routines print to System.out, which is silenced for the benchmark so console I/O is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributionBenchmark {
+
+    @Param({"POLYNESIA", "GEOMETRIC:100", "GEOMETRIC:10000", "SCALE_FREE:10000", "GRID:10000"})
+    public String archipelago;
+
+    @Param({"8"})
+    public int canoes;
+
+    @Param({"10"})
+    public int canoeCapacity;
+
+    private Archipelago input;
+    private PrintStream console;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        input = Archipelago.load(archipelago);
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    private int nextSource() {
+        next = (next + 1) % input.sourceIds.length;
+        return next;
+    }
+
+    @Benchmark
+    public List<String> naturalResourceMapGraph() {
+        return Core.distributeNaturalResource(input.graph, input.resources, input.sources[nextSource()], canoes);
+    }
+
+    @Benchmark
+    public List<String> naturalResourceCompactGraph() {
+        return Core.distributeNaturalResource(input.compact, input.resources, input.sourceIds[nextSource()], canoes);
+    }
+
+    @Benchmark
+    public List<String> resourceMapGraph() {
+        String source = input.sources[nextSource()];
+        return Core.distributeResource(input.graph, input.resources, source, input.resourceOf(source), canoes, canoeCapacity);
+    }
+
+    @Benchmark
+    public List<String> resourceCompactGraph() {
+        int i = nextSource();
+        return Core.distributeResource(input.compact, input.resources, input.sourceIds[i], input.resourceOf(input.sources[i]), canoes, canoeCapacity);
+    }
+}
@@ -0,0 +1,70 @@
+package navigation.benchmarks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full leader route plans. Each plan runs one search per island visited, so sizes stay small.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderRouteBenchmark {
+
+    @Param({"POLYNESIA", "GEOMETRIC:100", "GRID:1000"})
+    public String archipelago;
+
+    private Archipelago input;
+    private Map<String, Set<String>> skills;
+    private Object oracle;      // DistanceOracle shared by every plan, as a long-lived planner would.
+    private int next;
+
+    @Setup
+    public void setUp() {
+        input = Archipelago.load(archipelago);
+        skills = new HashMap<>();
+        input.populations.keySet().forEach(island -> skills.put(island, new HashSet<>()));
+        oracle = Core.newOracle(input.compact, input.populations, 1.5);
+    }
+
+    // leaderRoutePlan updates the recency map it is given, so every plan starts from a fresh one.
+    private Map<String, Integer> freshRecency() {
+        Map<String, Integer> recency = new HashMap<>();
+        input.populations.keySet().forEach(island -> recency.put(island, 0));
+        return recency;
+    }
+
+    private int nextSource() {
+        next = (next + 1) % input.sourceIds.length;
+        return next;
+    }
+
+    @Benchmark
+    public List<String> mapGraph() {
+        return Core.leaderRoutePlan(input.graph, input.populations, freshRecency(), skills, input.sources[nextSource()]);
+    }
+
+    @Benchmark
+    public List<String> sharedOracle() {
+        return Core.leaderRoutePlan(oracle, input.populations, freshRecency(), skills, input.sourceIds[nextSource()]);
+    }
+}
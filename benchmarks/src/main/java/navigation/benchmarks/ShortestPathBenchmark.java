@@ -0,0 +1,76 @@
+package navigation.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-source shortest paths through the Map API, the compact-graph API and a reused engine,
+ * the latter also with its integer queue turned off to compare it with the comparison heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    @Param({"POLYNESIA", "GEOMETRIC:100", "GEOMETRIC:10000", "SCALE_FREE:10000", "GRID:10000"})
+    public String archipelago;
+
+    @Param({"0", "1.5"})
+    public double alpha;
+
+    private Archipelago input;
+    private Object engine;      // ShortestPathEngine reused across invocations.
+    private Object heapEngine;  // The same, always searching with the comparison heap.
+    private int next;
+
+    @Setup
+    public void setUp() {
+        input = Archipelago.load(archipelago);
+        engine = Core.newEngine(input.compact, input.populations);
+        heapEngine = Core.withIntegerQueue(Core.newEngine(input.compact, input.populations), false);
+    }
+
+    private int nextSource() {
+        next = (next + 1) % input.sourceIds.length;
+        return next;
+    }
+
+    @Benchmark
+    public Map<String, Integer> mapGraph() {
+        return Core.shortestPath(input.graph, input.populations, input.sources[nextSource()], alpha);
+    }
+
+    @Benchmark
+    public int[] compactGraph() {
+        return Core.shortestPath(input.compact, input.populations, input.sourceIds[nextSource()], alpha);
+    }
+
+    @Benchmark
+    public int reusedEngine() {
+        int source = input.sourceIds[nextSource()];
+        Core.run(engine, source, alpha);
+        return Core.distance(engine, input.sourceIds[0]);
+    }
+
+    @Benchmark
+    public int heapEngine() {
+        int source = input.sourceIds[nextSource()];
+        Core.run(heapEngine, source, alpha);
+        return Core.distance(heapEngine, input.sourceIds[0]);
+    }
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cross-checks contraction-hierarchy queries against Dijkstra on generated archipelagos.
+ */
+class ContractionHierarchyTest {
+
+    @Test
+    void distancesMatchDijkstra() {
+        for (ArchipelagoGenerator.Shape shape : ArchipelagoGenerator.Shape.values()) {
+            CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(shape, 2000, 11));
+            ContractionHierarchy.Query query = ContractionHierarchy.build(graph).newQuery();
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            Random random = new Random(shape.ordinal());
+            for (int i = 0; i < 20; i++) {
+                int source = random.nextInt(graph.nodeCount());
+                engine.run(source, 0);
+                for (int j = 0; j < 20; j++) {
+                    int target = random.nextInt(graph.nodeCount());
+                    assertEquals(engine.distance(target), query.distance(source, target), shape + " " + source + "->" + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void routesAreShortestPaths() {
+        CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(ArchipelagoGenerator.Shape.GEOMETRIC, 2000, 12));
+        ContractionHierarchy.Query query = ContractionHierarchy.build(graph).newQuery();
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+            engine.run(source, 0);
+            IslandRoute route = query.route(source, target);
+            assertEquals(engine.distance(target), route.distance());
+            assertEquals(engine.distance(target), Graphs.length(graph, route.islands()));
+        }
+    }
+}
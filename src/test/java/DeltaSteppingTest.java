@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cross-checks parallel delta-stepping against Dijkstra with alpha 0, on a pool with several
+ * workers so relaxations race even on a single core.
+ */
+class DeltaSteppingTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void distancesMatchDijkstra() {
+        for (ArchipelagoGenerator.Shape shape : ArchipelagoGenerator.Shape.values()) {
+            CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(shape, 20000, 21));
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            for (int delta : new int[] {0, 1, 5, 1000}) {
+                DeltaStepping search = new DeltaStepping(graph, POOL).withDelta(delta);
+                Random random = new Random(delta);
+                for (int i = 0; i < 5; i++) {
+                    int source = random.nextInt(graph.nodeCount());
+                    engine.run(source, 0);
+                    search.run(source);
+                    assertArrayEquals(engine.copyDistances(new int[graph.nodeCount()]), search.copyDistances(new int[graph.nodeCount()]),
+                            shape + " delta " + search.delta() + " source " + source);
+                }
+            }
+        }
+    }
+
+    @Test
+    void unreachableIslandsAndZeroTimes() {
+        int n = 3000;
+        Random random = new Random(5);
+        Map<String, List<DataLoader.Edge>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            lanes.put("I" + i, new ArrayList<>());
+        }
+        // One-way lanes within each half only, so the other half is never reached.
+        for (int i = 0; i < 4 * n; i++) {
+            int from = random.nextInt(n);
+            int to = (from < n / 2 ? 0 : n / 2) + random.nextInt(n / 2);
+            lanes.get("I" + from).add(new DataLoader.Edge("I" + to, random.nextInt(4) == 0 ? 0 : random.nextInt(30)));
+        }
+        CompactGraph graph = CompactGraph.fromMap(lanes);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        DeltaStepping search = new DeltaStepping(graph, POOL);
+        for (int source = 0; source < n; source += 101) {
+            engine.run(source, 0);
+            search.run(source);
+            assertArrayEquals(engine.copyDistances(new int[n]), search.copyDistances(new int[n]), "source " + source);
+        }
+    }
+}
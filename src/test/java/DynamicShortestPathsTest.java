@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cross-checks incrementally repaired shortest-path trees against a fresh Dijkstra after every
+ * random lane change.
+ */
+class DynamicShortestPathsTest {
+
+    @Test
+    void repairedDistancesMatchDijkstra() {
+        for (ArchipelagoGenerator.Shape shape : ArchipelagoGenerator.Shape.values()) {
+            DynamicGraph graph = DynamicGraph.fromMap(ArchipelagoGenerator.generate(shape, 1000, 31));
+            Random random = new Random(shape.ordinal());
+            DynamicShortestPaths tree = new DynamicShortestPaths(graph, random.nextInt(graph.nodeCount()));
+            for (int change = 0; change < 300; change++) {
+                int from = random.nextInt(graph.nodeCount());
+                if (graph.degree(from) == 0) continue;
+                int to = graph.targetAt(from, random.nextInt(graph.degree(from)));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        graph.removeEdge(from, to);
+                        break;
+                    case 1:
+                        graph.setEdge(from, to, 1 + random.nextInt(5));
+                        break;
+                    default:
+                        graph.setEdge(from, to, 20 + random.nextInt(40));
+                        break;
+                }
+                // Occasionally open a brand-new lane.
+                int a = random.nextInt(graph.nodeCount());
+                int b = random.nextInt(graph.nodeCount());
+                if (change % 10 == 0 && a != b) {
+                    graph.setEdge(a, b, 1 + random.nextInt(40));
+                }
+                CompactGraph snapshot = graph.toCompactGraph();
+                ShortestPathEngine engine = new ShortestPathEngine(snapshot);
+                engine.run(tree.source(), 0);
+                assertArrayEquals(engine.copyDistances(new int[snapshot.nodeCount()]), tree.copyDistances(new int[graph.nodeCount()]),
+                        shape + " after change " + change);
+            }
+            tree.detach();
+        }
+    }
+}
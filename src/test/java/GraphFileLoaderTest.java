@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the text loaders' header, comment and quoting rules, and round-trips the binary format.
+ */
+class GraphFileLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void headerMayFollowCommentsAndBlankLines() throws IOException {
+        Path routes = write("routes.csv", "# Polynesia lanes\n\nfrom,to,travelTime\nHawaii,Tahiti,5\n");
+        Map<String, List<DataLoader.Edge>> graph = GraphFileLoader.loadGraph(routes);
+        assertEquals(1, graph.get("Hawaii").size());
+        assertEquals(5, graph.get("Tahiti").get(0).travelTime);
+        assertEquals(2, GraphFileLoader.loadCompactGraph(routes).nodeCount());
+
+        Path populations = write("populations.tsv", "# census\nisland\tpopulation\nHawaii\t1400000\n");
+        assertEquals(Map.of("Hawaii", 1400000), GraphFileLoader.loadPopulations(populations));
+    }
+
+    @Test
+    void nonNumericLineAfterDataIsRejected() throws IOException {
+        Path routes = write("routes.csv", "Hawaii,Tahiti,5\nfrom,to,travelTime\n");
+        IOException error = assertThrows(IOException.class, () -> GraphFileLoader.loadGraph(routes));
+        assertEquals(routes + ":2: 'travelTime' is not a number", error.getMessage());
+    }
+
+    @Test
+    void quotedFieldsKeepDelimitersAndEscapedQuotes() throws IOException {
+        Path routes = write("routes.csv", "\"Hawaii, Big Island\",\"Tahiti \"\"Nui\"\"\",7\n");
+        Map<String, List<DataLoader.Edge>> graph = GraphFileLoader.loadGraph(routes);
+        assertEquals("Tahiti \"Nui\"", graph.get("Hawaii, Big Island").get(0).destination);
+
+        // A line with a tab is split on tabs only, so commas stay in the field.
+        Path resources = write("resources.tsv", "Samoa, Upolu\tcopra\t12\nTonga\n");
+        Map<String, Map<String, Integer>> loaded = GraphFileLoader.loadResources(resources);
+        assertEquals(Map.of("copra", 12), loaded.get("Samoa, Upolu"));
+        assertEquals(Map.of(), loaded.get("Tonga"));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(ArchipelagoGenerator.Shape.GEOMETRIC, 500, 3));
+        Path file = dir.resolve("graph.islg");
+        GraphFileLoader.writeBinary(graph, file);
+        CompactGraph read = GraphFileLoader.readBinary(file);
+
+        assertEquals(graph.nodeCount(), read.nodeCount());
+        assertEquals(graph.edgeCount(), read.edgeCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(graph.name(node), read.name(node));
+            assertEquals(graph.edgeStart(node), read.edgeStart(node));
+            assertEquals(graph.edgeEnd(node), read.edgeEnd(node));
+        }
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            assertEquals(graph.target(edge), read.target(edge));
+            assertEquals(graph.travelTime(edge), read.travelTime(edge));
+        }
+        ShortestPathEngine expected = new ShortestPathEngine(graph);
+        ShortestPathEngine actual = new ShortestPathEngine(read);
+        expected.run(0, 0);
+        actual.run(0, 0);
+        assertArrayEquals(expected.copyDistances(new int[graph.nodeCount()]), actual.copyDistances(new int[read.nodeCount()]));
+    }
+
+    @Test
+    void corruptBinaryFilesAreRejected() throws IOException {
+        CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(ArchipelagoGenerator.Shape.GRID, 49, 3));
+        Path file = dir.resolve("graph.islg");
+        GraphFileLoader.writeBinary(graph, file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path shortFile = dir.resolve("short.islg");
+        Files.write(shortFile, Arrays.copyOf(bytes, 10));
+        assertThrows(IOException.class, () -> GraphFileLoader.readBinary(shortFile));
+
+        Path truncated = dir.resolve("truncated.islg");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> GraphFileLoader.readBinary(truncated));
+
+        // The last travel time sits at the end; the last target sits just before the travel times.
+        byte[] badTarget = bytes.clone();
+        int lastTarget = bytes.length - 4 * graph.edgeCount() - 4;
+        ByteBuffer.wrap(badTarget).order(ByteOrder.LITTLE_ENDIAN).putInt(lastTarget, graph.nodeCount());
+        Path corrupt = dir.resolve("corrupt.islg");
+        Files.write(corrupt, badTarget);
+        assertThrows(IOException.class, () -> GraphFileLoader.readBinary(corrupt));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
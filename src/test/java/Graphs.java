@@ -0,0 +1,26 @@
+/**
+ * Helpers shared by the tests.
+ */
+final class Graphs {
+
+    private Graphs() {
+    }
+
+    // Travel time along the islands in order, taking the fastest lane between each pair.
+    static int length(CompactGraph graph, int[] islands) {
+        int total = 0;
+        for (int i = 1; i < islands.length; i++) {
+            int best = Integer.MAX_VALUE;
+            for (int edge = graph.edgeStart(islands[i - 1]); edge < graph.edgeEnd(islands[i - 1]); edge++) {
+                if (graph.target(edge) == islands[i]) {
+                    best = Math.min(best, graph.travelTime(edge));
+                }
+            }
+            if (best == Integer.MAX_VALUE) {
+                throw new AssertionError("No lane from " + islands[i - 1] + " to " + islands[i]);
+            }
+            total += best;
+        }
+        return total;
+    }
+}
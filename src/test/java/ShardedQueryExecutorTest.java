@@ -0,0 +1,34 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cross-checks sharded queries, stitched through the boundary overlay, against Dijkstra on the
+ * whole graph.
+ */
+class ShardedQueryExecutorTest {
+
+    @Test
+    void stitchedDistancesMatchDijkstra() throws IOException {
+        for (ArchipelagoGenerator.Shape shape : ArchipelagoGenerator.Shape.values()) {
+            CompactGraph graph = CompactGraph.fromMap(ArchipelagoGenerator.generate(shape, 3000, 41));
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            for (int regions : new int[] {2, 7}) {
+                try (ShardedQueryExecutor executor = ShardedQueryExecutor.inProcess(graph, regions)) {
+                    Random random = new Random(regions);
+                    for (int i = 0; i < 8; i++) {
+                        int source = random.nextInt(graph.nodeCount());
+                        engine.run(source, 0);
+                        int[] expected = engine.copyDistances(new int[graph.nodeCount()]);
+                        assertArrayEquals(expected, executor.distances(source), shape + " " + regions + " regions, source " + source);
+                        int target = random.nextInt(graph.nodeCount());
+                        assertEquals(expected[target], executor.distance(source, target));
+                    }
+                }
+            }
+        }
+    }
+}